@@ -1,15 +1,33 @@
 package com.tradestore.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradestore.domain.exception.TradeException;
 import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeExposure;
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradePage;
+import com.tradestore.domain.model.TradeResult;
 import com.tradestore.domain.service.TradeService;
+import com.tradestore.infrastructure.ingest.TradeIngestPipeline;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/trades")
@@ -18,14 +36,24 @@ import java.util.List;
 public class TradeController {
 
     private final TradeService tradeService;
+    private final ObjectProvider<TradeIngestPipeline> ingestPipeline;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @Operation(summary = "Store a new trade")
     public ResponseEntity<Trade> createTrade(@RequestBody Trade trade) {
-        Trade savedTrade = tradeService.storeTrade(trade);
+        TradeIngestPipeline pipeline = ingestPipeline.getIfAvailable();
+        Trade savedTrade = pipeline == null ? tradeService.storeTrade(trade) : submit(pipeline, trade);
         return new ResponseEntity<>(savedTrade, HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Store a batch of trades")
+    public ResponseEntity<List<TradeResult>> createTrades(@RequestBody List<Trade> trades) {
+        List<TradeResult> results = tradeService.storeTrades(trades);
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping
     @Operation(summary = "Get all trades")
     public ResponseEntity<List<Trade>> getAllTrades() {
@@ -33,6 +61,19 @@ public class TradeController {
         return ResponseEntity.ok(trades);
     }
 
+    @GetMapping(params = "limit")
+    @Operation(summary = "Get a page of trades after a cursor")
+    public ResponseEntity<TradePage> getTradesPage(@RequestParam(required = false) String after,
+                                                   @RequestParam int limit) {
+        return ResponseEntity.ok(tradeService.getTradesPage(after, limit));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all trades as NDJSON")
+    public ResponseEntity<StreamingResponseBody> streamTrades() {
+        return ndjson(tradeService::streamTrades);
+    }
+
     @GetMapping("/{tradeId}/{version}")
     @Operation(summary = "Get a specific version of a trade")
     public ResponseEntity<Trade> getTrade(@PathVariable String tradeId, @PathVariable Integer version) {
@@ -41,6 +82,52 @@ public class TradeController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{tradeId}/latest")
+    @Operation(summary = "Get the latest version of a trade")
+    public ResponseEntity<Trade> getLatestTrade(@PathVariable String tradeId) {
+        return tradeService.getLatestTrade(tradeId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Get a page of trades matching book, counterparty, maturity range and expiry filters")
+    public ResponseEntity<TradePage> searchTrades(
+            @RequestParam(required = false) String bookId,
+            @RequestParam(required = false) String counterPartyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate maturityFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate maturityTo,
+            @RequestParam(required = false) Boolean expired,
+            @RequestParam(required = false) String after,
+            @RequestParam int limit) {
+        TradeFilter filter = new TradeFilter(bookId, counterPartyId, maturityFrom, maturityTo, expired);
+        return ResponseEntity.ok(tradeService.searchTrades(filter, after, limit));
+    }
+
+    @GetMapping("/exposure/books")
+    @Operation(summary = "Get live trade counts and maturity buckets for every book")
+    public ResponseEntity<List<TradeExposure>> getBookExposures() {
+        return whenExposureLoaded(() -> ResponseEntity.ok(tradeService.getBookExposures()));
+    }
+
+    @GetMapping("/exposure/books/{bookId}")
+    @Operation(summary = "Get live trade counts and maturity buckets for a book")
+    public ResponseEntity<TradeExposure> getBookExposure(@PathVariable String bookId) {
+        return whenExposureLoaded(() -> found(tradeService.getBookExposure(bookId)));
+    }
+
+    @GetMapping("/exposure/counterparties")
+    @Operation(summary = "Get live trade counts and maturity buckets for every counterparty")
+    public ResponseEntity<List<TradeExposure>> getCounterpartyExposures() {
+        return whenExposureLoaded(() -> ResponseEntity.ok(tradeService.getCounterpartyExposures()));
+    }
+
+    @GetMapping("/exposure/counterparties/{counterPartyId}")
+    @Operation(summary = "Get live trade counts and maturity buckets for a counterparty")
+    public ResponseEntity<TradeExposure> getCounterpartyExposure(@PathVariable String counterPartyId) {
+        return whenExposureLoaded(() -> found(tradeService.getCounterpartyExposure(counterPartyId)));
+    }
+
     @GetMapping("/{tradeId}/versions")
     @Operation(summary = "Get all versions of a trade by ID")
     public ResponseEntity<List<Trade>> getTradeVersions(@PathVariable String tradeId) {
@@ -57,10 +144,74 @@ public class TradeController {
         return ResponseEntity.ok(trades);
     }
 
+    @GetMapping(value = "/mongo", params = "limit")
+    @Operation(summary = "Get a page of trades from MongoDB after a cursor")
+    public ResponseEntity<TradePage> getMongoTradesPage(@RequestParam(required = false) String after,
+                                                        @RequestParam int limit) {
+        return ResponseEntity.ok(tradeService.getMongoTradesPage(after, limit));
+    }
+
+    @GetMapping(value = "/mongo", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all trades from MongoDB as NDJSON")
+    public ResponseEntity<StreamingResponseBody> streamMongoTrades() {
+        return ndjson(tradeService::streamMongoTrades);
+    }
+
     @GetMapping("/postgres")
     @Operation(summary = "Get all trades from PostgreSQL")
     public ResponseEntity<List<Trade>> getPostgresTrades() {
         List<Trade> trades = tradeService.getPostgresTrades();
         return ResponseEntity.ok(trades);
     }
-} 
\ No newline at end of file
+
+    @GetMapping(value = "/postgres", params = "limit")
+    @Operation(summary = "Get a page of trades from PostgreSQL after a cursor")
+    public ResponseEntity<TradePage> getPostgresTradesPage(@RequestParam(required = false) String after,
+                                                           @RequestParam int limit) {
+        return ResponseEntity.ok(tradeService.getPostgresTradesPage(after, limit));
+    }
+
+    @GetMapping(value = "/postgres", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all trades from PostgreSQL as NDJSON")
+    public ResponseEntity<StreamingResponseBody> streamPostgresTrades() {
+        return ndjson(tradeService::streamPostgresTrades);
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<Trade>> source) {
+        // Each trade is written as it is read, so nothing accumulates in memory
+        StreamingResponseBody body = out -> source.accept(trade -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(trade));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Partial counts would look like real exposure, so nothing is served until the startup pass completes
+    private <T> ResponseEntity<T> whenExposureLoaded(Supplier<ResponseEntity<T>> response) {
+        if (!tradeService.isExposureLoaded()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return response.get();
+    }
+
+    private static <T> ResponseEntity<T> found(Optional<T> value) {
+        return value.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+
+    private Trade submit(TradeIngestPipeline pipeline, Trade trade) {
+        try {
+            return pipeline.submit(trade).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TradeException tradeException) {
+                throw tradeException;
+            }
+            throw new TradeException("Error storing trade: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.tradestore.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeExposure {
+    // Book or counterparty id
+    private String key;
+
+    // Unexpired trades, counting only the latest version of each
+    private long liveTrades;
+
+    // Live trades by maturity month (yyyy-MM), ascending
+    private Map<String, Long> maturityBuckets;
+}
@@ -0,0 +1,25 @@
+package com.tradestore.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Every field is optional; null means no restriction
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeFilter {
+    private String bookId;
+
+    private String counterPartyId;
+
+    // Inclusive bounds on the maturity date
+    private LocalDate maturityFrom;
+    private LocalDate maturityTo;
+
+    private Boolean expired;
+}
@@ -1,5 +1,6 @@
 package com.tradestore.domain.model;
 
+import com.tradestore.domain.exception.TradeException;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,4 +13,17 @@ public class TradeId {
     @Id
     private String tradeId;
     private int version;
+
+    public String key() {
+        return tradeId + ":" + version;
+    }
+
+    public static TradeId fromKey(String key) {
+        int separator = key.lastIndexOf(':');
+        try {
+            return new TradeId(key.substring(0, separator), Integer.parseInt(key.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new TradeException("Invalid trade key: " + key);
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.tradestore.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradePage {
+    private List<Trade> trades;
+
+    // Pass as 'after' to fetch the next page; null on the last page
+    private String nextCursor;
+
+    public static TradePage of(List<Trade> trades, int limit) {
+        String nextCursor = trades.size() < limit ? null : trades.get(trades.size() - 1).getTradeId().key();
+        return new TradePage(trades, nextCursor);
+    }
+}
@@ -0,0 +1,34 @@
+package com.tradestore.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeResult {
+    private TradeId tradeId;
+    private Status status;
+    private String message;
+
+    public enum Status {
+        ACCEPTED,
+        REJECTED,
+        DUPLICATE
+    }
+
+    public static TradeResult accepted(TradeId tradeId) {
+        return new TradeResult(tradeId, Status.ACCEPTED, null);
+    }
+
+    public static TradeResult rejected(TradeId tradeId, String message) {
+        return new TradeResult(tradeId, Status.REJECTED, message);
+    }
+
+    public static TradeResult duplicate(TradeId tradeId, String message) {
+        return new TradeResult(tradeId, Status.DUPLICATE, message);
+    }
+}
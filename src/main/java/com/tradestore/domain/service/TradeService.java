@@ -1,17 +1,42 @@
 package com.tradestore.domain.service;
 
 import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeExposure;
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.domain.model.TradePage;
+import com.tradestore.domain.model.TradeResult;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface TradeService {
     Trade storeTrade(Trade trade);
+    List<TradeResult> storeTrades(List<Trade> trades);
     List<Trade> getAllTrades();
     Optional<Trade> getTradeById(String tradeId, Integer version);
     List<Trade> getTradesByTradeId(String tradeId);
+    Optional<Trade> getLatestTrade(String tradeId);
+
+    // Served from in-memory aggregates; empty until they have been built
+    boolean isExposureLoaded();
+    List<TradeExposure> getBookExposures();
+    Optional<TradeExposure> getBookExposure(String bookId);
+    List<TradeExposure> getCounterpartyExposures();
+    Optional<TradeExposure> getCounterpartyExposure(String counterPartyId);
     void updateExpiredTrades();
+    int expireTrades(List<TradeId> tradeIds);
     
     // New methods for separate database access
     List<Trade> getMongoTrades();
     List<Trade> getPostgresTrades();
+
+    // Keyset pagination and streaming for collections too large to hold in memory
+    TradePage getTradesPage(String after, int limit);
+    TradePage searchTrades(TradeFilter filter, String after, int limit);
+    TradePage getMongoTradesPage(String after, int limit);
+    TradePage getPostgresTradesPage(String after, int limit);
+    void streamTrades(Consumer<Trade> consumer);
+    void streamMongoTrades(Consumer<Trade> consumer);
+    void streamPostgresTrades(Consumer<Trade> consumer);
 } 
\ No newline at end of file
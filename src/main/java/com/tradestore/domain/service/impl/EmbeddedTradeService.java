@@ -0,0 +1,295 @@
+package com.tradestore.domain.service.impl;
+
+import com.tradestore.domain.exception.TradeException;
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeExposure;
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.domain.model.TradePage;
+import com.tradestore.domain.model.TradeResult;
+import com.tradestore.domain.service.TradeService;
+import com.tradestore.infrastructure.cache.TradeExposureAggregates;
+import com.tradestore.infrastructure.config.ConditionalOnEmbeddedStorage;
+import com.tradestore.infrastructure.tradelog.TradeLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Single-node backend on the local {@link TradeLog}, for deployments without MongoDB and PostgreSQL.
+ * Point reads go through the log's indexes; listings, pages and the expiry sweep scan it.
+ */
+@Slf4j
+@Service
+@ConditionalOnEmbeddedStorage
+@RequiredArgsConstructor
+public class EmbeddedTradeService implements TradeService {
+
+    private static final Comparator<Trade> KEY_ORDER = Comparator
+            .comparing((Trade trade) -> trade.getTradeId().getTradeId())
+            .thenComparingInt(trade -> trade.getTradeId().getVersion());
+
+    private final TradeLog tradeLog;
+    private final TradeExposureAggregates exposureAggregates;
+
+    @Value("${trade.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${trade.query.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Override
+    public Trade storeTrade(Trade trade) {
+        log.info("Storing trade: {}", trade);
+        try {
+            TradeValidator.validate(trade);
+            Trade keyedTrade = trade.toBuilder().id(trade.getTradeId().key()).build();
+            if (!tradeLog.appendIfAbsent(keyedTrade)) {
+                throw new TradeException("Trade with same ID and version already exists");
+            }
+            exposureAggregates.record(keyedTrade);
+            log.info("Trade stored successfully: {}", keyedTrade);
+            return keyedTrade;
+        } catch (Exception e) {
+            log.error("Error storing trade: {}", e.getMessage());
+            throw new TradeException("Error storing trade: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<TradeResult> storeTrades(List<Trade> trades) {
+        log.info("Storing batch of {} trades", trades.size());
+        if (trades.size() > maxBatchSize) {
+            throw new TradeException("Batch size " + trades.size() + " exceeds the maximum of " + maxBatchSize);
+        }
+        TradeResult[] results = new TradeResult[trades.size()];
+        Set<TradeId> batchIds = new HashSet<>();
+        int accepted = 0;
+        for (int i = 0; i < trades.size(); i++) {
+            Trade trade = trades.get(i);
+            try {
+                TradeValidator.validate(trade);
+            } catch (TradeException e) {
+                results[i] = TradeResult.rejected(trade == null ? null : trade.getTradeId(), e.getMessage());
+                continue;
+            }
+            if (!batchIds.add(trade.getTradeId())) {
+                results[i] = TradeResult.duplicate(trade.getTradeId(), "Trade appears more than once in the batch");
+                continue;
+            }
+            Trade keyedTrade = trade.toBuilder().id(trade.getTradeId().key()).build();
+            if (!tradeLog.appendIfAbsent(keyedTrade)) {
+                results[i] = TradeResult.duplicate(trade.getTradeId(), "Trade with same ID and version already exists");
+                continue;
+            }
+            exposureAggregates.record(keyedTrade);
+            results[i] = TradeResult.accepted(trade.getTradeId());
+            accepted++;
+        }
+        log.info("Stored {} of {} trades in batch", accepted, trades.size());
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public List<Trade> getAllTrades() {
+        log.info("Fetching all trades");
+        try (Stream<Trade> trades = tradeLog.stream()) {
+            return trades.sorted(KEY_ORDER).toList();
+        }
+    }
+
+    @Override
+    public Optional<Trade> getTradeById(String tradeId, Integer version) {
+        log.info("Fetching trade with ID: {} and version: {}", tradeId, version);
+        return tradeLog.get(tradeId, version);
+    }
+
+    @Override
+    public List<Trade> getTradesByTradeId(String tradeId) {
+        log.info("Fetching all versions of trade with ID: {}", tradeId);
+        return tradeLog.getVersions(tradeId);
+    }
+
+    @Override
+    public Optional<Trade> getLatestTrade(String tradeId) {
+        log.info("Fetching latest version of trade with ID: {}", tradeId);
+        return tradeLog.getLatest(tradeId);
+    }
+
+    @Override
+    public boolean isExposureLoaded() {
+        return exposureAggregates.isLoaded();
+    }
+
+    @Override
+    public List<TradeExposure> getBookExposures() {
+        return exposureAggregates.books();
+    }
+
+    @Override
+    public Optional<TradeExposure> getBookExposure(String bookId) {
+        return exposureAggregates.book(bookId);
+    }
+
+    @Override
+    public List<TradeExposure> getCounterpartyExposures() {
+        return exposureAggregates.counterparties();
+    }
+
+    @Override
+    public Optional<TradeExposure> getCounterpartyExposure(String counterPartyId) {
+        return exposureAggregates.counterparty(counterPartyId);
+    }
+
+    @Override
+    public void updateExpiredTrades() {
+        log.info("Updating expired trades");
+        try {
+            LocalDate today = LocalDate.now();
+            List<Trade> matured;
+            try (Stream<Trade> trades = tradeLog.stream()) {
+                matured = trades.filter(trade -> !trade.isExpired() && trade.getMaturityDate().isBefore(today)).toList();
+            }
+            log.info("Marked {} trades as expired", expire(matured));
+        } catch (Exception e) {
+            log.error("Error updating expired trades: {}", e.getMessage());
+            throw new TradeException("Error updating expired trades: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int expireTrades(List<TradeId> tradeIds) {
+        log.info("Expiring {} matured trades", tradeIds.size());
+        try {
+            // Trades already expired by an earlier run or the nightly sweep drop out here
+            List<Trade> unexpired = tradeIds.stream()
+                    .map(tradeId -> tradeLog.get(tradeId.getTradeId(), tradeId.getVersion()))
+                    .flatMap(Optional::stream)
+                    .filter(trade -> !trade.isExpired())
+                    .toList();
+            return expire(unexpired);
+        } catch (Exception e) {
+            log.error("Error expiring trades: {}", e.getMessage());
+            throw new TradeException("Error expiring trades: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Trade> getMongoTrades() {
+        throw unavailable("MongoDB");
+    }
+
+    @Override
+    public List<Trade> getPostgresTrades() {
+        throw unavailable("PostgreSQL");
+    }
+
+    @Override
+    public TradePage getTradesPage(String after, int limit) {
+        log.info("Fetching page of {} trades from the trade log after {}", limit, after);
+        return page(new TradeFilter(), after, limit);
+    }
+
+    @Override
+    public TradePage searchTrades(TradeFilter filter, String after, int limit) {
+        log.info("Searching page of {} trades matching {} after {}", limit, filter, after);
+        if (filter.getMaturityFrom() != null && filter.getMaturityTo() != null
+                && filter.getMaturityFrom().isAfter(filter.getMaturityTo())) {
+            throw new TradeException("maturityFrom must not be after maturityTo");
+        }
+        return page(filter, after, limit);
+    }
+
+    @Override
+    public TradePage getMongoTradesPage(String after, int limit) {
+        throw unavailable("MongoDB");
+    }
+
+    @Override
+    public TradePage getPostgresTradesPage(String after, int limit) {
+        throw unavailable("PostgreSQL");
+    }
+
+    @Override
+    public void streamTrades(Consumer<Trade> consumer) {
+        log.info("Streaming all trades from the trade log");
+        try (Stream<Trade> trades = tradeLog.stream()) {
+            trades.forEach(consumer);
+        }
+    }
+
+    @Override
+    public void streamMongoTrades(Consumer<Trade> consumer) {
+        throw unavailable("MongoDB");
+    }
+
+    @Override
+    public void streamPostgresTrades(Consumer<Trade> consumer) {
+        throw unavailable("PostgreSQL");
+    }
+
+    private int expire(List<Trade> unexpired) {
+        List<Trade> expired = new ArrayList<>(unexpired.size());
+        for (Trade trade : unexpired) {
+            Trade expiredTrade = trade.toBuilder().expired(true).build();
+            tradeLog.append(expiredTrade);
+            expired.add(expiredTrade);
+        }
+        exposureAggregates.recordExpired(expired);
+        return expired.size();
+    }
+
+    // The log has no sorted index, so a page is the smallest 'limit' keys past the cursor, kept in a bounded heap
+    private TradePage page(TradeFilter filter, String after, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new TradeException("Limit must be between 1 and " + maxPageSize);
+        }
+        TradeId cursor = after == null ? null : TradeId.fromKey(after);
+        Predicate<Trade> matches = matches(filter);
+        PriorityQueue<Trade> smallest = new PriorityQueue<>(limit + 1, KEY_ORDER.reversed());
+        try (Stream<Trade> trades = tradeLog.stream()) {
+            trades.filter(trade -> cursor == null || isAfter(trade.getTradeId(), cursor))
+                    .filter(matches)
+                    .forEach(trade -> {
+                        smallest.add(trade);
+                        if (smallest.size() > limit) {
+                            smallest.poll();
+                        }
+                    });
+        }
+        List<Trade> page = new ArrayList<>(smallest);
+        page.sort(KEY_ORDER);
+        return TradePage.of(page, limit);
+    }
+
+    private static Predicate<Trade> matches(TradeFilter filter) {
+        return trade -> (filter.getBookId() == null || filter.getBookId().equals(trade.getBookId()))
+                && (filter.getCounterPartyId() == null || filter.getCounterPartyId().equals(trade.getCounterPartyId()))
+                && (filter.getMaturityFrom() == null || !trade.getMaturityDate().isBefore(filter.getMaturityFrom()))
+                && (filter.getMaturityTo() == null || !trade.getMaturityDate().isAfter(filter.getMaturityTo()))
+                && (filter.getExpired() == null || filter.getExpired() == trade.isExpired());
+    }
+
+    private static boolean isAfter(TradeId tradeId, TradeId cursor) {
+        int byId = tradeId.getTradeId().compareTo(cursor.getTradeId());
+        return byId > 0 || (byId == 0 && tradeId.getVersion() > cursor.getVersion());
+    }
+
+    private static TradeException unavailable(String store) {
+        return new TradeException(store + " is not available with the embedded storage backend");
+    }
+}
@@ -0,0 +1,244 @@
+package com.tradestore.domain.service.impl;
+
+import com.tradestore.infrastructure.config.ConditionalOnDatabaseStorage;
+import com.tradestore.infrastructure.store.TradeStore.Kind;
+import com.tradestore.infrastructure.store.TradeStores;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Sends reads to whichever of MongoDB and PostgreSQL is currently faster and healthier, and hedges slow point
+ * reads to the other store. Only the dual-write policy keeps both stores complete; under the others reads go
+ * to the primary, falling back to an async secondary only on errors.
+ */
+@Slf4j
+@Component
+@ConditionalOnDatabaseStorage
+public class TradeReadRouter {
+
+    // Weight of the newest sample in the moving averages
+    private static final double ALPHA = 0.1;
+    private static final double HEDGE_PERCENTILE = 0.95;
+
+    private final Map<Kind, StoreStats> stats = new EnumMap<>(Kind.class);
+    private final ExecutorService executor;
+    private final TradeStores stores;
+    private final boolean enabled;
+    private final double probeRatio;
+    private final double maxErrorRate;
+    private final long minHedgeDelayNanos;
+    private final long maxHedgeDelayNanos;
+
+    public TradeReadRouter(MeterRegistry meterRegistry,
+                           TradeStores stores,
+                           @Value("${trade.read.routing.enabled:true}") boolean enabled,
+                           @Value("${trade.read.routing.probe-ratio:0.05}") double probeRatio,
+                           @Value("${trade.read.routing.max-error-rate:0.5}") double maxErrorRate,
+                           @Value("${trade.read.hedge.min-delay-ms:5}") long minHedgeDelayMs,
+                           @Value("${trade.read.hedge.max-delay-ms:200}") long maxHedgeDelayMs,
+                           @Value("${trade.read.hedge.parallelism:16}") int parallelism) {
+        this.stores = stores;
+        this.enabled = enabled;
+        this.probeRatio = probeRatio;
+        this.maxErrorRate = maxErrorRate;
+        this.minHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(minHedgeDelayMs);
+        this.maxHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxHedgeDelayMs);
+        for (Kind store : Kind.values()) {
+            stats.put(store, new StoreStats(store, meterRegistry));
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "trade-read-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Runs the read on the preferred store and falls back to the other one if it fails
+    public <T> T read(Function<Kind, T> query) {
+        Kind primary = choose();
+        try {
+            return timed(primary, query);
+        } catch (RuntimeException e) {
+            Kind fallback = stores.fallback(primary);
+            if (!enabled || fallback == null) {
+                throw e;
+            }
+            log.warn("Read from {} failed, retrying on {}: {}", primary, fallback, e.getMessage());
+            return timed(fallback, query);
+        }
+    }
+
+    /**
+     * Runs a point read on the preferred store and, if it has not answered within that store's recent p95,
+     * on the other store too. The first conclusive answer wins; an inconclusive one (such as not found) only
+     * wins once both stores have answered.
+     */
+    public <T> T hedgedRead(Function<Kind, T> query, Predicate<T> conclusive) {
+        if (!enabled || !stores.isDualWrite()) {
+            return read(query);
+        }
+        Kind primary = choose();
+        CompletableFuture<T> first = CompletableFuture.supplyAsync(() -> timed(primary, query), executor);
+        try {
+            T result = first.get(hedgeDelayNanos(primary), TimeUnit.NANOSECONDS);
+            if (conclusive.test(result)) {
+                return result;
+            }
+            // The other store may have the trade when this one does not, for example mid-write
+            return timed(other(primary), query);
+        } catch (TimeoutException e) {
+            stats.get(other(primary)).hedges.increment();
+            CompletableFuture<T> second = CompletableFuture.supplyAsync(() -> timed(other(primary), query), executor);
+            return firstConclusive(first, second, conclusive);
+        } catch (ExecutionException e) {
+            log.warn("Read from {} failed, retrying on {}: {}", primary, other(primary), e.getCause().getMessage());
+            return timed(other(primary), query);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    public Kind choose() {
+        if (!enabled || !stores.isDualWrite()) {
+            return stores.primary().kind();
+        }
+        Kind preferred = stats.get(Kind.MONGO).score(maxErrorRate) <= stats.get(Kind.POSTGRES).score(maxErrorRate)
+                ? Kind.MONGO
+                : Kind.POSTGRES;
+        // An occasional read on the other store keeps its figures current
+        return ThreadLocalRandom.current().nextDouble() < probeRatio ? other(preferred) : preferred;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T firstConclusive(CompletableFuture<T> first, CompletableFuture<T> second, Predicate<T> conclusive) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        for (CompletableFuture<T> attempt : List.of(first, second)) {
+            attempt.whenComplete((result, error) -> {
+                boolean last = pending.decrementAndGet() == 0;
+                if (error == null && conclusive.test(result)) {
+                    winner.complete(result);
+                } else if (last) {
+                    // Neither answered conclusively: prefer an answer over a failure
+                    if (error == null) {
+                        winner.complete(result);
+                    } else if (!first.isCompletedExceptionally()) {
+                        winner.complete(first.join());
+                    } else if (!second.isCompletedExceptionally()) {
+                        winner.complete(second.join());
+                    } else {
+                        winner.completeExceptionally(error);
+                    }
+                }
+            });
+        }
+        try {
+            return winner.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private <T> T timed(Kind store, Function<Kind, T> query) {
+        StoreStats storeStats = stats.get(store);
+        long start = System.nanoTime();
+        try {
+            T result = query.apply(store);
+            storeStats.success(System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            storeStats.failure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private long hedgeDelayNanos(Kind store) {
+        long p95 = stats.get(store).percentileNanos(HEDGE_PERCENTILE);
+        return Math.max(minHedgeDelayNanos, Math.min(maxHedgeDelayNanos, p95));
+    }
+
+    private static Kind other(Kind store) {
+        return store == Kind.MONGO ? Kind.POSTGRES : Kind.MONGO;
+    }
+
+    private static final class StoreStats {
+        private final Timer latency;
+        private final Counter errors;
+        private final Counter hedges;
+        private double latencyNanos;
+        private double errorRate;
+
+        StoreStats(Kind store, MeterRegistry meterRegistry) {
+            String tag = store.name().toLowerCase();
+            this.latency = Timer.builder("trade.read.latency")
+                    .tag("store", tag)
+                    .publishPercentiles(0.5, HEDGE_PERCENTILE, 0.99)
+                    .register(meterRegistry);
+            this.errors = Counter.builder("trade.read.errors").tag("store", tag).register(meterRegistry);
+            this.hedges = Counter.builder("trade.read.hedges")
+                    .description("Point reads sent to this store because the other was slow")
+                    .tag("store", tag)
+                    .register(meterRegistry);
+            Gauge.builder("trade.read.error.rate", this, s -> s.errorRate()).tag("store", tag).register(meterRegistry);
+        }
+
+        synchronized void success(long nanos) {
+            latency.record(nanos, TimeUnit.NANOSECONDS);
+            latencyNanos = latencyNanos == 0 ? nanos : latencyNanos + ALPHA * (nanos - latencyNanos);
+            errorRate -= ALPHA * errorRate;
+        }
+
+        synchronized void failure(long nanos) {
+            errors.increment();
+            latencyNanos = latencyNanos == 0 ? nanos : latencyNanos + ALPHA * (nanos - latencyNanos);
+            errorRate += ALPHA * (1 - errorRate);
+        }
+
+        synchronized double errorRate() {
+            return errorRate;
+        }
+
+        // Expected cost of a read; a store failing more than maxErrorRate of reads is only used as a last resort
+        synchronized double score(double maxErrorRate) {
+            double base = latencyNanos * (1 + errorRate);
+            return errorRate > maxErrorRate ? Double.MAX_VALUE / 2 + base : base;
+        }
+
+        long percentileNanos(double percentile) {
+            for (ValueAtPercentile value : latency.takeSnapshot().percentileValues()) {
+                if (value.percentile() == percentile) {
+                    return (long) value.value(TimeUnit.NANOSECONDS);
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -2,60 +2,112 @@ package com.tradestore.domain.service.impl;
 
 import com.tradestore.domain.exception.TradeException;
 import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeExposure;
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.domain.model.TradePage;
+import com.tradestore.domain.model.TradeResult;
 import com.tradestore.domain.service.TradeService;
-import com.tradestore.infrastructure.entity.TradeEntity;
-import com.tradestore.infrastructure.mapper.TradeMapper;
-import com.tradestore.infrastructure.messaging.TradeEventProducer;
-import com.tradestore.infrastructure.repository.TradeJpaRepository;
-import com.tradestore.infrastructure.repository.TradeRepository;
+import com.tradestore.infrastructure.archive.TradeArchive;
+import com.tradestore.infrastructure.cache.LatestTradeCache;
+import com.tradestore.infrastructure.cache.TradeCache;
+import com.tradestore.infrastructure.cache.TradeExposureAggregates;
+import com.tradestore.infrastructure.cache.TradeMaturityIndex;
+import com.tradestore.infrastructure.cache.TradeVersionIndex;
+import com.tradestore.infrastructure.config.ConditionalOnDatabaseStorage;
+import com.tradestore.infrastructure.ingest.TradeWriteExecutor;
+import com.tradestore.infrastructure.messaging.TradeOutbox;
+import com.tradestore.infrastructure.repository.BulkInsertFailure;
+import com.tradestore.infrastructure.scheduler.TradeExpiryShards;
+import com.tradestore.infrastructure.scheduler.TradeExpiryWatermark;
+import com.tradestore.infrastructure.store.TradeStore;
+import com.tradestore.infrastructure.store.TradeStores;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
+@ConditionalOnDatabaseStorage
 @RequiredArgsConstructor
 public class TradeServiceImpl implements TradeService {
 
-    private final TradeRepository mongoRepository;
-    private final TradeJpaRepository jpaRepository;
-    private final TradeMapper tradeMapper;
-    private final TradeEventProducer tradeEventProducer;
+    private final TradeStores stores;
+    private final TradeOutbox tradeOutbox;
+    private final TradeVersionIndex versionIndex;
+    private final TradeMaturityIndex maturityIndex;
+    private final TradeWriteExecutor writeExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final TradeExpiryShards expiryShards;
+    private final TradeExpiryWatermark expiryWatermark;
+    private final TradeArchive tradeArchive;
+    private final TradeCache tradeCache;
+    private final LatestTradeCache latestTradeCache;
+    private final TradeReadRouter readRouter;
+    private final TradeExposureAggregates exposureAggregates;
+
+    @Value("${trade.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    // sequential | parallel; parallel only applies to dual-write with a MongoDB primary
+    @Value("${trade.write.mode:sequential}")
+    private String writeMode;
+
+    @Value("${trade.query.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${trade.query.fetch-size:500}")
+    private int fetchSize;
 
     @Override
     @Transactional
     public Trade storeTrade(Trade trade) {
         log.info("Storing trade: {}", trade);
         try {
-            // Validate maturity date
-            if (trade.getMaturityDate().isBefore(LocalDate.now())) {
-                throw new TradeException("Maturity date cannot be in the past");
-            }
+            TradeValidator.validate(trade);
 
-            // Check for existing trade with same ID and version
-            Optional<Trade> existingTrade = mongoRepository.findByTradeIdAndVersion(
-                trade.getTradeId().getTradeId(),
-                trade.getTradeId().getVersion()
-            );
-
-            if (existingTrade.isPresent()) {
+            // The index answers repeats of the latest version without touching the store. Archived versions are
+            // no longer in the hot stores, so their keyed insert would accept them again
+            if (versionIndex.check(trade.getTradeId()) == TradeVersionIndex.Decision.DUPLICATE
+                    || isArchived(trade.getTradeId())) {
                 throw new TradeException("Trade with same ID and version already exists");
             }
 
-            // Save to MongoDB
-            Trade savedTrade = mongoRepository.save(trade);
-            
-            // Save to PostgreSQL
-            jpaRepository.save(tradeMapper.toEntity(trade));
+            Trade keyedTrade = trade.toBuilder().id(trade.getTradeId().key()).build();
+            Trade savedTrade = "parallel".equals(writeMode) && canWriteInParallel()
+                    ? writeInParallel(keyedTrade)
+                    : writeSequentially(keyedTrade);
 
-            // Send to Kafka
-            tradeEventProducer.sendTradeEvent(savedTrade);
+            // Queue the Kafka event in the same Postgres transaction
+            tradeOutbox.enqueue(savedTrade);
 
+            afterCommit(() -> {
+                versionIndex.record(trade.getTradeId());
+                maturityIndex.add(trade.getTradeId(), trade.getMaturityDate());
+                latestTradeCache.record(savedTrade);
+                exposureAggregates.record(savedTrade);
+            });
             log.info("Trade stored successfully: {}", savedTrade);
             return savedTrade;
         } catch (Exception e) {
@@ -64,56 +116,538 @@ public class TradeServiceImpl implements TradeService {
         }
     }
 
+    @Override
+    @Transactional
+    public List<TradeResult> storeTrades(List<Trade> trades) {
+        log.info("Storing batch of {} trades", trades.size());
+        if (trades.size() > maxBatchSize) {
+            throw new TradeException("Batch size " + trades.size() + " exceeds the maximum of " + maxBatchSize);
+        }
+        try {
+            TradeResult[] results = new TradeResult[trades.size()];
+            List<Integer> candidates = new ArrayList<>();
+            Set<TradeId> batchIds = new HashSet<>();
+
+            for (int i = 0; i < trades.size(); i++) {
+                Trade trade = trades.get(i);
+                try {
+                    TradeValidator.validate(trade);
+                } catch (TradeException e) {
+                    results[i] = TradeResult.rejected(trade == null ? null : trade.getTradeId(), e.getMessage());
+                    continue;
+                }
+                if (!batchIds.add(trade.getTradeId())) {
+                    results[i] = TradeResult.duplicate(trade.getTradeId(), "Trade appears more than once in the batch");
+                    continue;
+                }
+                candidates.add(i);
+            }
+
+            // The index answers repeats of the latest version, the archive those moved out of the hot stores;
+            // the keyed insert catches the rest
+            List<Integer> inserts = new ArrayList<>();
+            for (Integer i : candidates) {
+                TradeId tradeId = trades.get(i).getTradeId();
+                if (versionIndex.check(tradeId) == TradeVersionIndex.Decision.DUPLICATE || isArchived(tradeId)) {
+                    results[i] = TradeResult.duplicate(tradeId, "Trade with same ID and version already exists");
+                } else {
+                    inserts.add(i);
+                }
+            }
+
+            // The primary reports duplicates; the secondary only keeps what it accepted
+            List<Trade> toInsert = inserts.stream()
+                    .map(i -> trades.get(i).toBuilder().id(trades.get(i).getTradeId().key()).build())
+                    .toList();
+            boolean parallel = "parallel".equals(writeMode) && canWriteInParallel() && !toInsert.isEmpty();
+            List<BulkInsertFailure> failures = parallel
+                    ? insertAllInParallel(toInsert)
+                    : stores.primary().insertAll(toInsert);
+            for (BulkInsertFailure failure : failures) {
+                int i = inserts.get(failure.index());
+                TradeId tradeId = trades.get(i).getTradeId();
+                results[i] = failure.duplicateKey()
+                        ? TradeResult.duplicate(tradeId, "Trade with same ID and version already exists")
+                        : TradeResult.rejected(tradeId, failure.message());
+            }
+            List<Trade> accepted = new ArrayList<>();
+            for (int j = 0; j < inserts.size(); j++) {
+                if (results[inserts.get(j)] == null) {
+                    accepted.add(toInsert.get(j));
+                }
+            }
+
+            if (!accepted.isEmpty()) {
+                if (!parallel) {
+                    replicate("batch of " + accepted.size() + " trades", store -> store.saveAll(accepted));
+                }
+                removeOnRollback(accepted);
+            }
+
+            // Queue the Kafka events in the same Postgres transaction
+            tradeOutbox.enqueueAll(accepted);
+            afterCommit(() -> accepted.forEach(trade -> {
+                versionIndex.record(trade.getTradeId());
+                maturityIndex.add(trade.getTradeId(), trade.getMaturityDate());
+                latestTradeCache.record(trade);
+                exposureAggregates.record(trade);
+            }));
+            for (Integer i : inserts) {
+                if (results[i] == null) {
+                    results[i] = TradeResult.accepted(trades.get(i).getTradeId());
+                }
+            }
+
+            log.info("Stored {} of {} trades in batch", accepted.size(), trades.size());
+            return Arrays.asList(results);
+        } catch (Exception e) {
+            log.error("Error storing trades: {}", e.getMessage());
+            throw new TradeException("Error storing trades: " + e.getMessage());
+        }
+    }
+
     @Override
     public List<Trade> getAllTrades() {
         log.info("Fetching all trades");
-        return mongoRepository.findAll();
+        return readRouter.read(kind -> stores.get(kind).findAll());
     }
 
     @Override
     public Optional<Trade> getTradeById(String tradeId, Integer version) {
         log.info("Fetching trade with ID: {} and version: {}", tradeId, version);
-        return mongoRepository.findByTradeIdAndVersion(tradeId, version);
+        return tradeCache.get(tradeId, version, () -> readRouter.<Optional<Trade>>hedgedRead(
+                        kind -> stores.get(kind).findById(tradeId, version), Optional::isPresent)
+                .or(() -> tradeArchive.find(tradeId, version)));
     }
 
     @Override
     public List<Trade> getTradesByTradeId(String tradeId) {
         log.info("Fetching all versions of trade with ID: {}", tradeId);
-        return mongoRepository.findByTradeIdOrderByVersionDesc(tradeId);
+        List<Trade> hot = readRouter.read(kind -> stores.get(kind).findVersions(tradeId));
+        List<Trade> archived = tradeArchive.findByTradeId(tradeId);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        // Older versions may have moved to the archive while later ones are still hot
+        Set<Integer> hotVersions = hot.stream().map(trade -> trade.getTradeId().getVersion()).collect(Collectors.toSet());
+        return Stream.concat(hot.stream(), archived.stream().filter(trade -> !hotVersions.contains(trade.getTradeId().getVersion())))
+                .sorted(Comparator.comparingInt((Trade trade) -> trade.getTradeId().getVersion()).reversed())
+                .toList();
+    }
+
+    @Override
+    public Optional<Trade> getLatestTrade(String tradeId) {
+        log.info("Fetching latest version of trade with ID: {}", tradeId);
+        return latestTradeCache.get(tradeId, () -> readRouter.<Optional<Trade>>hedgedRead(
+                        kind -> stores.get(kind).findLatest(tradeId), Optional::isPresent)
+                .or(() -> tradeArchive.findByTradeId(tradeId).stream().findFirst()));
+    }
+
+    @Override
+    public boolean isExposureLoaded() {
+        return exposureAggregates.isLoaded();
+    }
+
+    @Override
+    public List<TradeExposure> getBookExposures() {
+        return exposureAggregates.books();
+    }
+
+    @Override
+    public Optional<TradeExposure> getBookExposure(String bookId) {
+        return exposureAggregates.book(bookId);
+    }
+
+    @Override
+    public List<TradeExposure> getCounterpartyExposures() {
+        return exposureAggregates.counterparties();
+    }
+
+    @Override
+    public Optional<TradeExposure> getCounterpartyExposure(String counterPartyId) {
+        return exposureAggregates.counterparty(counterPartyId);
     }
 
     @Override
-    @Transactional
     public void updateExpiredTrades() {
         log.info("Updating expired trades");
         try {
             LocalDate today = LocalDate.now();
-            List<Trade> expiredTrades = mongoRepository.findByMaturityDateBeforeAndExpiredFalse(today);
-            
-            for (Trade trade : expiredTrades) {
-                trade.setExpired(true);
-                Trade savedTrade = mongoRepository.save(trade);
-                jpaRepository.save(tradeMapper.toEntity(trade));
-                tradeEventProducer.sendTradeEvent(savedTrade);
-                log.info("Marked trade as expired: {}", trade);
+            List<String> scopes = expiryScopes();
+            if (scopes.isEmpty()) {
+                log.info("No expiry shards leased to this node");
+                return;
+            }
+            // Resume from the last maturity date every scope has fully processed
+            LocalDate from = expiryWatermark.lowerBound(scopes);
+            long expired = 0;
+            for (LocalDate maturityDate : stores.primary().findUnexpiredMaturityDatesBetween(from, today)) {
+                expired += expireMaturityDate(maturityDate);
+                advanceWatermark(scopes, maturityDate);
             }
+            advanceWatermark(scopes, today.minusDays(1));
+            log.info("Marked {} trades as expired since {}", expired, from);
         } catch (Exception e) {
             log.error("Error updating expired trades: {}", e.getMessage());
             throw new TradeException("Error updating expired trades: " + e.getMessage());
         }
     }
 
+    @Override
+    public int expireTrades(List<TradeId> tradeIds) {
+        log.info("Expiring {} matured trades", tradeIds.size());
+        try {
+            // Trades already expired by an earlier run or the nightly sweep drop out here
+            return expireChunk(stores.primary().findUnexpiredByTradeIds(tradeIds));
+        } catch (Exception e) {
+            log.error("Error expiring trades: {}", e.getMessage());
+            throw new TradeException("Error expiring trades: " + e.getMessage());
+        }
+    }
+
     @Override
     public List<Trade> getMongoTrades() {
         log.info("Fetching all trades from MongoDB");
-        return mongoRepository.findAll();
+        return stores.get(TradeStore.Kind.MONGO).findAll();
     }
 
     @Override
     public List<Trade> getPostgresTrades() {
         log.info("Fetching all trades from PostgreSQL");
-        return jpaRepository.findAll().stream()
-                .map(tradeMapper::toDomain)
+        return stores.get(TradeStore.Kind.POSTGRES).findAll();
+    }
+
+    @Override
+    public TradePage getTradesPage(String after, int limit) {
+        validatePageSize(limit);
+        // Both stores page in (tradeId, version) order comparing trade ids byte-wise, so a cursor from one is valid
+        // on the other
+        return readRouter.read(kind -> kind == TradeStore.Kind.MONGO
+                ? getMongoTradesPage(after, limit)
+                : getPostgresTradesPage(after, limit));
+    }
+
+    @Override
+    public TradePage searchTrades(TradeFilter filter, String after, int limit) {
+        log.info("Searching page of {} trades matching {} after {}", limit, filter, after);
+        validatePageSize(limit);
+        if (filter.getMaturityFrom() != null && filter.getMaturityTo() != null
+                && filter.getMaturityFrom().isAfter(filter.getMaturityTo())) {
+            throw new TradeException("maturityFrom must not be after maturityTo");
+        }
+        TradeId cursor = after == null ? null : TradeId.fromKey(after);
+        List<Trade> trades = readRouter.read(kind -> stores.get(kind).findPageMatching(filter, cursor, limit));
+        return TradePage.of(trades, limit);
+    }
+
+    @Override
+    public TradePage getMongoTradesPage(String after, int limit) {
+        log.info("Fetching page of {} trades from MongoDB after {}", limit, after);
+        validatePageSize(limit);
+        return page(stores.get(TradeStore.Kind.MONGO), after, limit);
+    }
+
+    @Override
+    public TradePage getPostgresTradesPage(String after, int limit) {
+        log.info("Fetching page of {} trades from PostgreSQL after {}", limit, after);
+        validatePageSize(limit);
+        return page(stores.get(TradeStore.Kind.POSTGRES), after, limit);
+    }
+
+    @Override
+    public void streamTrades(Consumer<Trade> consumer) {
+        // Routed once up front: falling back to the other store part way through would repeat trades already sent
+        if (readRouter.choose() == TradeStore.Kind.MONGO) {
+            streamMongoTrades(consumer);
+        } else {
+            transactionTemplate.executeWithoutResult(status -> streamPostgresTrades(consumer));
+        }
+    }
+
+    @Override
+    public void streamMongoTrades(Consumer<Trade> consumer) {
+        log.info("Streaming all trades from MongoDB");
+        try (Stream<Trade> trades = stores.get(TradeStore.Kind.MONGO).streamAll(fetchSize)) {
+            trades.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamPostgresTrades(Consumer<Trade> consumer) {
+        log.info("Streaming all trades from PostgreSQL");
+        try (Stream<Trade> trades = stores.get(TradeStore.Kind.POSTGRES).streamAll(fetchSize)) {
+            trades.forEach(consumer);
+        }
+    }
+
+    private TradePage page(TradeStore store, String after, int limit) {
+        TradeId cursor = after == null ? null : TradeId.fromKey(after);
+        return TradePage.of(store.findPageMatching(new TradeFilter(), cursor, limit), limit);
+    }
+
+    private List<String> expiryScopes() {
+        if (!expiryShards.isEnabled()) {
+            return List.of(TradeExpiryWatermark.ALL);
+        }
+        return expiryShards.getOwnedShards().stream()
+                .sorted()
+                .map(TradeExpiryWatermark::shardScope)
+                .toList();
+    }
+
+    private void advanceWatermark(List<String> scopes, LocalDate processedThrough) {
+        // A shard lost part-way through may not be complete, so only advance the ones still held
+        List<String> held = expiryShards.isEnabled()
+                ? scopes.stream().filter(scope -> expiryShards.ownsShard(shardOf(scope))).toList()
+                : scopes;
+        expiryWatermark.advance(held, processedThrough);
+    }
+
+    private static int shardOf(String scope) {
+        return Integer.parseInt(scope.substring(scope.indexOf('-') + 1));
+    }
+
+    private long expireMaturityDate(LocalDate maturityDate) {
+        if (expiryShards.isEnabled()) {
+            return expireOwnedShards(maturityDate);
+        }
+        // The secondary and the outbox are updated together for each maturity date. The primary is updated
+        // last because it drives the next run, so a failure here leaves the date to be picked up again.
+        Integer events = transactionTemplate.execute(status -> {
+            replicate("expiry of trades maturing on " + maturityDate, store -> store.expireByMaturityDate(maturityDate));
+            return enqueueExpired(maturityDate);
+        });
+        long expired = stores.primary().expireByMaturityDate(maturityDate);
+        tradeCache.invalidateMaturingOn(maturityDate);
+        latestTradeCache.invalidateMaturingOn(maturityDate);
+        exposureAggregates.expireMaturingOn(maturityDate);
+        log.info("Expired {} trades maturing on {} ({} events queued)", expired, maturityDate, events);
+        return expired;
+    }
+
+    private long expireOwnedShards(LocalDate maturityDate) {
+        // Each node only expires the shards it holds a lease on; the other nodes sweep the rest
+        long expired = 0;
+        List<Trade> buffer = new ArrayList<>(fetchSize);
+        try (Stream<Trade> trades = stores.primary().streamUnexpiredByMaturityDate(maturityDate, fetchSize)) {
+            Iterator<Trade> iterator = trades.filter(trade -> expiryShards.owns(trade.getTradeId())).iterator();
+            while (iterator.hasNext()) {
+                buffer.add(iterator.next());
+                if (buffer.size() == fetchSize || !iterator.hasNext()) {
+                    expired += expireChunk(buffer);
+                    buffer = new ArrayList<>(fetchSize);
+                }
+            }
+        }
+        log.info("Expired {} trades maturing on {} in shards {}", expired, maturityDate, expiryShards.getOwnedShards());
+        return expired;
+    }
+
+    private int expireChunk(List<Trade> unexpired) {
+        if (unexpired.isEmpty()) {
+            return 0;
+        }
+        List<Trade> expired = unexpired.stream()
+                .map(trade -> trade.toBuilder().expired(true).build())
+                .toList();
+        List<TradeId> expiredIds = expired.stream().map(Trade::getTradeId).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            replicate("expiry of " + expired.size() + " trades", store -> store.expireAll(expired));
+            tradeOutbox.enqueueAll(expired);
+        });
+        stores.primary().expireAll(expired);
+        tradeCache.invalidate(expiredIds);
+        latestTradeCache.recordExpired(expired);
+        exposureAggregates.recordExpired(expired);
+        return expired.size();
+    }
+
+    private int enqueueExpired(LocalDate maturityDate) {
+        int queued = 0;
+        List<Trade> buffer = new ArrayList<>(fetchSize);
+        try (Stream<Trade> trades = stores.primary().streamUnexpiredByMaturityDate(maturityDate, fetchSize)) {
+            Iterator<Trade> iterator = trades.iterator();
+            while (iterator.hasNext()) {
+                buffer.add(iterator.next().toBuilder().expired(true).build());
+                if (buffer.size() == fetchSize || !iterator.hasNext()) {
+                    tradeOutbox.enqueueAll(buffer);
+                    queued += buffer.size();
+                    buffer = new ArrayList<>(fetchSize);
+                }
+            }
+        }
+        return queued;
+    }
+
+    private void validatePageSize(int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new TradeException("Limit must be between 1 and " + maxPageSize);
+        }
+    }
+
+    private Trade writeSequentially(Trade keyedTrade) {
+        // The composite key makes the primary's insert fail atomically on duplicates
+        TradeStore primary = stores.primary();
+        Trade savedTrade;
+        try {
+            savedTrade = primary.insert(keyedTrade);
+        } catch (DuplicateKeyException e) {
+            throw new TradeException("Trade with same ID and version already exists", e);
+        }
+
+        try {
+            replicate("trade " + keyedTrade.getId(), store -> store.saveAll(List.of(keyedTrade)));
+        } catch (RuntimeException e) {
+            if (!primary.transactional()) {
+                remove(primary, keyedTrade);
+            }
+            throw e;
+        }
+        removeOnRollback(List.of(keyedTrade));
+        return savedTrade;
+    }
+
+    // The primary is written from another thread, so it must not be bound to the transaction
+    // The segment bloom filters rule out almost every trade ID without reading a segment
+    private boolean isArchived(TradeId tradeId) {
+        return tradeArchive.find(tradeId.getTradeId(), tradeId.getVersion()).isPresent();
+    }
+
+    private boolean canWriteInParallel() {
+        return stores.isDualWrite() && !stores.primary().transactional();
+    }
+
+    private Trade writeInParallel(Trade keyedTrade) {
+        TradeStore primary = stores.primary();
+        CompletableFuture<Trade> primaryWrite = writeExecutor.supply(() -> primary.insert(keyedTrade));
+        RuntimeException secondaryFailure = null;
+        try {
+            stores.replicate("trade " + keyedTrade.getId(), store -> store.saveAll(List.of(keyedTrade)));
+        } catch (RuntimeException e) {
+            secondaryFailure = e;
+        }
+
+        // A failed primary insert is compensated by rolling back the secondary's transaction
+        Trade savedTrade;
+        try {
+            savedTrade = primaryWrite.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof DuplicateKeyException) {
+                throw new TradeException("Trade with same ID and version already exists", e.getCause());
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        if (secondaryFailure != null) {
+            remove(primary, keyedTrade);
+            throw secondaryFailure;
+        }
+        removeOnRollback(List.of(keyedTrade));
+        return savedTrade;
+    }
+
+    // The secondary inserts the whole batch while the primary does; it is then brought in line with what the
+    // primary accepted
+    private List<BulkInsertFailure> insertAllInParallel(List<Trade> toInsert) {
+        TradeStore primary = stores.primary();
+        CompletableFuture<List<BulkInsertFailure>> primaryWrite = writeExecutor.supply(() -> primary.insertAll(toInsert));
+        Set<Integer> notInsertedBySecondary = new HashSet<>();
+        RuntimeException secondaryFailure = null;
+        try {
+            stores.replicate("batch of " + toInsert.size() + " trades", store -> store.insertAll(toInsert)
+                    .forEach(failure -> notInsertedBySecondary.add(failure.index())));
+        } catch (RuntimeException e) {
+            secondaryFailure = e;
+        }
+
+        // A failed primary insert is compensated by rolling back the secondary's transaction
+        List<BulkInsertFailure> failures;
+        try {
+            failures = primaryWrite.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        Set<Integer> rejected = failures.stream().map(BulkInsertFailure::index).collect(Collectors.toSet());
+
+        if (secondaryFailure != null) {
+            for (int i = 0; i < toInsert.size(); i++) {
+                if (!rejected.contains(i)) {
+                    remove(primary, toInsert.get(i));
+                }
+            }
+            throw secondaryFailure;
+        }
+
+        List<Trade> overwrite = new ArrayList<>();
+        List<Trade> orphaned = new ArrayList<>();
+        for (int i = 0; i < toInsert.size(); i++) {
+            if (rejected.contains(i) && !notInsertedBySecondary.contains(i)) {
+                orphaned.add(toInsert.get(i));
+            } else if (!rejected.contains(i) && notInsertedBySecondary.contains(i)) {
+                overwrite.add(toInsert.get(i));
+            }
+        }
+        if (!orphaned.isEmpty() || !overwrite.isEmpty()) {
+            stores.replicate("batch of " + toInsert.size() + " trades", store -> {
+                orphaned.forEach(store::delete);
+                if (!overwrite.isEmpty()) {
+                    store.saveAll(overwrite);
+                }
+            });
+        }
+        return failures;
+    }
+
+    // An asynchronous copy is only queued once the write has committed, so it never outlives a rollback
+    private void replicate(String description, Consumer<TradeStore> write) {
+        if (stores.isAsync()) {
+            afterCommit(() -> stores.replicate(description, write));
+        } else {
+            stores.replicate(description, write);
+        }
+    }
+
+    // Stores outside the transaction keep their copy when it rolls back, so it is removed afterwards
+    private void removeOnRollback(List<Trade> trades) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        List<TradeStore> untransacted = (stores.isAsync() ? List.of(stores.primary()) : stores.written()).stream()
+                .filter(store -> !store.transactional())
                 .toList();
+        if (untransacted.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    untransacted.forEach(store -> trades.forEach(trade -> remove(store, trade)));
+                }
+            }
+        });
+    }
+
+    private void remove(TradeStore store, Trade trade) {
+        try {
+            store.delete(trade);
+            log.warn("Removed trade {} from {} after the write failed", trade.getId(), store.kind());
+        } catch (Exception e) {
+            log.error("Could not remove orphaned trade {} from {}: {}", trade.getId(), store.kind(), e.getMessage());
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 } 
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.tradestore.domain.service.impl;
+
+import com.tradestore.domain.exception.TradeException;
+import com.tradestore.domain.model.Trade;
+
+import java.time.LocalDate;
+
+// Rules every storage backend applies before accepting a trade. They cover every NOT NULL column of the trades
+// table, so a trade that passes cannot fail a batch on a constraint.
+final class TradeValidator {
+
+    private static final int MAX_ID_LENGTH = 255;
+
+    private TradeValidator() {
+    }
+
+    static void validate(Trade trade) {
+        if (trade == null || trade.getTradeId() == null) {
+            throw new TradeException("Trade ID is required");
+        }
+        requireId("Trade ID", trade.getTradeId().getTradeId());
+        if (trade.getTradeId().getVersion() < 0) {
+            throw new TradeException("Version cannot be negative");
+        }
+        requireId("Counterparty ID", trade.getCounterPartyId());
+        requireId("Book ID", trade.getBookId());
+        if (trade.getCreatedDate() == null) {
+            throw new TradeException("Created date is required");
+        }
+        if (trade.getMaturityDate() == null) {
+            throw new TradeException("Maturity date is required");
+        }
+        if (trade.getMaturityDate().isBefore(LocalDate.now())) {
+            throw new TradeException("Maturity date cannot be in the past");
+        }
+    }
+
+    private static void requireId(String field, String value) {
+        if (value == null || value.isBlank()) {
+            throw new TradeException(field + " is required");
+        }
+        if (value.length() > MAX_ID_LENGTH) {
+            throw new TradeException(field + " cannot be longer than " + MAX_ID_LENGTH + " characters");
+        }
+    }
+}
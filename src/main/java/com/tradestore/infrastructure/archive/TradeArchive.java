@@ -0,0 +1,140 @@
+package com.tradestore.infrastructure.archive;
+
+import com.tradestore.domain.exception.TradeException;
+import com.tradestore.domain.model.Trade;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier for expired trades: immutable segment files on local disk, looked up through in-memory
+ * segment indexes.
+ */
+@Slf4j
+@Component
+public class TradeArchive {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final Comparator<Trade> ORDER = Comparator
+            .comparing((Trade trade) -> trade.getTradeId().getTradeId())
+            .thenComparingInt(trade -> trade.getTradeId().getVersion());
+
+    private final Path directory;
+    private final List<TradeSegmentIndex> segments = new CopyOnWriteArrayList<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    public TradeArchive(@Value("${trade.archive.directory:archive}") String directory, MeterRegistry meterRegistry) {
+        this.directory = Paths.get(directory);
+
+        Gauge.builder("trade.archive.segments", segments, List::size)
+                .description("Archived trade segments on local disk")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        // A segment only counts once its index is written, so a crash mid-write leaves nothing half visible
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path index : files.filter(file -> file.toString().endsWith(INDEX_SUFFIX)).sorted().toList()) {
+                segments.add(TradeSegmentIndex.read(index, segmentFor(index)));
+            }
+            log.info("Loaded {} archived trade segments from {}", segments.size(), directory);
+        } catch (IOException e) {
+            throw new TradeException("Failed to load trade archive from " + directory + ": " + e.getMessage(), e);
+        }
+    }
+
+    public synchronized void archive(List<Trade> trades) {
+        if (trades.isEmpty()) {
+            return;
+        }
+        List<Trade> sorted = new ArrayList<>(trades);
+        sorted.sort(ORDER);
+        String name = "segment-" + System.currentTimeMillis() + "-" + sequence.incrementAndGet();
+        Path segment = directory.resolve(name + SEGMENT_SUFFIX);
+        Path index = directory.resolve(name + INDEX_SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            TradeSegmentIndex segmentIndex = TradeSegmentIndex.build(segment, sorted);
+            writeAtomically(segment, file -> TradeSegment.write(file, sorted));
+            writeAtomically(index, segmentIndex::write);
+            segments.add(segmentIndex);
+            log.info("Archived {} trades to {}", sorted.size(), segment);
+        } catch (IOException e) {
+            throw new TradeException("Failed to archive trades to " + segment + ": " + e.getMessage(), e);
+        }
+    }
+
+    public Optional<Trade> find(String tradeId, int version) {
+        return findByTradeId(tradeId).stream()
+                .filter(trade -> trade.getTradeId().getVersion() == version)
+                .findFirst();
+    }
+
+    // Latest version first, like the hot store lookups
+    public List<Trade> findByTradeId(String tradeId) {
+        Map<Integer, Trade> versions = new LinkedHashMap<>();
+        for (TradeSegmentIndex segment : segments) {
+            if (!segment.mightContain(tradeId)) {
+                continue;
+            }
+            try {
+                // A trade archived twice after an interrupted run is returned once
+                TradeSegment.read(segment.segment(), tradeId::equals)
+                        .forEach(trade -> versions.putIfAbsent(trade.getTradeId().getVersion(), trade));
+            } catch (IOException e) {
+                throw new TradeException("Failed to read archived segment " + segment.segment() + ": " + e.getMessage(), e);
+            }
+        }
+        return versions.values().stream()
+                .sorted(Comparator.comparingInt((Trade trade) -> trade.getTradeId().getVersion()).reversed())
+                .toList();
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    private static Path segmentFor(Path index) {
+        String name = index.getFileName().toString();
+        return index.resolveSibling(name.substring(0, name.length() - INDEX_SUFFIX.length()) + SEGMENT_SUFFIX);
+    }
+
+    private static void writeAtomically(Path target, FileWriter writer) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        writer.write(temp);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @FunctionalInterface
+    private interface FileWriter {
+        void write(Path file) throws IOException;
+    }
+}
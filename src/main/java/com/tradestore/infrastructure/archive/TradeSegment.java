@@ -0,0 +1,155 @@
+package com.tradestore.infrastructure.archive;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeId;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable, gzip-compressed segment of archived trades stored column by column. Trades are sorted by
+ * (tradeId, version); counterparty and book ids are dictionary encoded.
+ */
+final class TradeSegment {
+
+    private static final int MAGIC = 0x54534547; // "TSEG"
+    private static final byte FORMAT_VERSION = 1;
+
+    private TradeSegment() {
+    }
+
+    static void write(Path file, List<Trade> sortedTrades) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(file), 1 << 16)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(sortedTrades.size());
+            for (Trade trade : sortedTrades) {
+                out.writeUTF(trade.getTradeId().getTradeId());
+            }
+            for (Trade trade : sortedTrades) {
+                out.writeInt(trade.getTradeId().getVersion());
+            }
+            writeDictionary(out, sortedTrades.stream().map(Trade::getCounterPartyId).toList());
+            writeDictionary(out, sortedTrades.stream().map(Trade::getBookId).toList());
+            for (Trade trade : sortedTrades) {
+                out.writeInt((int) trade.getMaturityDate().toEpochDay());
+            }
+            for (Trade trade : sortedTrades) {
+                out.writeInt(trade.getCreatedDate() == null ? Integer.MIN_VALUE : (int) trade.getCreatedDate().toEpochDay());
+            }
+            BitSet expired = new BitSet(sortedTrades.size());
+            for (int i = 0; i < sortedTrades.size(); i++) {
+                expired.set(i, sortedTrades.get(i).isExpired());
+            }
+            byte[] bits = expired.toByteArray();
+            out.writeInt(bits.length);
+            out.write(bits);
+        }
+    }
+
+    static List<Trade> readAll(Path file) throws IOException {
+        return read(file, tradeId -> true);
+    }
+
+    // Only rows whose trade id matches are materialised; the remaining columns are skipped when none do
+    static List<Trade> read(Path file, Predicate<String> tradeIdFilter) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file), 1 << 16)))) {
+            if (in.readInt() != MAGIC || in.readByte() != FORMAT_VERSION) {
+                throw new IOException("Not a trade segment: " + file);
+            }
+            int rows = in.readInt();
+            List<Integer> matches = new ArrayList<>();
+            List<String> tradeIds = new ArrayList<>();
+            for (int i = 0; i < rows; i++) {
+                String tradeId = in.readUTF();
+                if (tradeIdFilter.test(tradeId)) {
+                    matches.add(i);
+                    tradeIds.add(tradeId);
+                }
+            }
+            if (matches.isEmpty()) {
+                return List.of();
+            }
+            int[] versions = readInts(in, rows);
+            String[] counterParties = readDictionary(in, rows);
+            String[] books = readDictionary(in, rows);
+            int[] maturities = readInts(in, rows);
+            int[] created = readInts(in, rows);
+            byte[] bits = new byte[in.readInt()];
+            in.readFully(bits);
+            BitSet expired = BitSet.valueOf(bits);
+
+            List<Trade> trades = new ArrayList<>(matches.size());
+            for (int m = 0; m < matches.size(); m++) {
+                int row = matches.get(m);
+                TradeId tradeId = new TradeId(tradeIds.get(m), versions[row]);
+                trades.add(Trade.builder()
+                        .id(tradeId.key())
+                        .tradeId(tradeId)
+                        .counterPartyId(counterParties[row])
+                        .bookId(books[row])
+                        .maturityDate(LocalDate.ofEpochDay(maturities[row]))
+                        .createdDate(created[row] == Integer.MIN_VALUE ? null : LocalDate.ofEpochDay(created[row]))
+                        .expired(expired.get(row))
+                        .build());
+            }
+            return trades;
+        }
+    }
+
+    private static void writeDictionary(DataOutputStream out, List<String> values) throws IOException {
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        int[] encoded = new int[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i) == null ? "" : values.get(i);
+            encoded[i] = codes.computeIfAbsent(value, v -> {
+                dictionary.add(v);
+                return dictionary.size() - 1;
+            });
+        }
+        out.writeInt(dictionary.size());
+        for (String value : dictionary) {
+            out.writeUTF(value);
+        }
+        for (int code : encoded) {
+            out.writeInt(code);
+        }
+    }
+
+    private static String[] readDictionary(DataInputStream in, int rows) throws IOException {
+        String[] dictionary = new String[in.readInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = in.readUTF();
+        }
+        String[] values = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            values[i] = dictionary[in.readInt()];
+        }
+        return values;
+    }
+
+    private static int[] readInts(DataInputStream in, int rows) throws IOException {
+        int[] values = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,110 @@
+package com.tradestore.infrastructure.archive;
+
+import com.tradestore.domain.model.Trade;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Per-segment index kept in memory: the trade id range and a bloom filter over the trade ids, so lookups
+ * only open segments that may hold the trade.
+ */
+final class TradeSegmentIndex {
+
+    private static final int MAGIC = 0x54494458; // "TIDX"
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int HASHES = 7;
+
+    private final Path segment;
+    private final int rows;
+    private final String minTradeId;
+    private final String maxTradeId;
+    private final BitSet bloom;
+    private final int bloomSize;
+
+    private TradeSegmentIndex(Path segment, int rows, String minTradeId, String maxTradeId, BitSet bloom, int bloomSize) {
+        this.segment = segment;
+        this.rows = rows;
+        this.minTradeId = minTradeId;
+        this.maxTradeId = maxTradeId;
+        this.bloom = bloom;
+        this.bloomSize = bloomSize;
+    }
+
+    static TradeSegmentIndex build(Path segment, List<Trade> sortedTrades) {
+        int bloomSize = Math.max(64, sortedTrades.size() * BITS_PER_ENTRY);
+        BitSet bloom = new BitSet(bloomSize);
+        for (Trade trade : sortedTrades) {
+            String tradeId = trade.getTradeId().getTradeId();
+            for (int i = 0; i < HASHES; i++) {
+                bloom.set(position(tradeId, i, bloomSize));
+            }
+        }
+        return new TradeSegmentIndex(segment, sortedTrades.size(),
+                sortedTrades.get(0).getTradeId().getTradeId(),
+                sortedTrades.get(sortedTrades.size() - 1).getTradeId().getTradeId(),
+                bloom, bloomSize);
+    }
+
+    static TradeSegmentIndex read(Path file, Path segment) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a trade segment index: " + file);
+            }
+            int rows = in.readInt();
+            String min = in.readUTF();
+            String max = in.readUTF();
+            int bloomSize = in.readInt();
+            byte[] bits = new byte[in.readInt()];
+            in.readFully(bits);
+            return new TradeSegmentIndex(segment, rows, min, max, BitSet.valueOf(bits), bloomSize);
+        }
+    }
+
+    void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(rows);
+            out.writeUTF(minTradeId);
+            out.writeUTF(maxTradeId);
+            out.writeInt(bloomSize);
+            byte[] bits = bloom.toByteArray();
+            out.writeInt(bits.length);
+            out.write(bits);
+        }
+    }
+
+    boolean mightContain(String tradeId) {
+        if (tradeId.compareTo(minTradeId) < 0 || tradeId.compareTo(maxTradeId) > 0) {
+            return false;
+        }
+        for (int i = 0; i < HASHES; i++) {
+            if (!bloom.get(position(tradeId, i, bloomSize))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Path segment() {
+        return segment;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    // Double hashing: the i-th probe is h1 + i * h2
+    private static int position(String tradeId, int i, int bloomSize) {
+        int h1 = tradeId.hashCode();
+        int h2 = Integer.reverse(h1 * 0x9E3779B9) | 1;
+        return Math.floorMod(h1 + i * h2, bloomSize);
+    }
+}
@@ -0,0 +1,97 @@
+package com.tradestore.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tradestore.domain.model.Trade;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Latest stored version of each trade, kept current by the local write and expiry paths.
+ */
+@Component
+public class LatestTradeCache {
+
+    private final Cache<String, Trade> cache;
+    private final boolean enabled;
+    private final Clock clock;
+
+    @Autowired
+    public LatestTradeCache(MeterRegistry meterRegistry,
+                            @Value("${trade.latest-cache.enabled:true}") boolean enabled,
+                            @Value("${trade.latest-cache.max-entries:100000}") long maxEntries,
+                            @Value("${trade.latest-cache.ttl-ms:30000}") long ttlMs) {
+        this(meterRegistry, enabled, maxEntries, ttlMs, Clock.systemDefaultZone());
+    }
+
+    LatestTradeCache(MeterRegistry meterRegistry, boolean enabled, long maxEntries, long ttlMs, Clock clock) {
+        this.enabled = enabled;
+        this.clock = clock;
+        // Versions stored through other nodes only show up here once the entry is reloaded
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "latest-trades");
+    }
+
+    public Optional<Trade> get(String tradeId, Supplier<Optional<Trade>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Trade cached = cache.getIfPresent(tradeId);
+        if (cached != null && !mayHaveExpired(cached)) {
+            return Optional.of(cached);
+        }
+        Optional<Trade> loaded = loader.get();
+        loaded.ifPresent(this::record);
+        return loaded;
+    }
+
+    // Keeps whichever of the cached and given trade has the higher version
+    public void record(Trade trade) {
+        if (!enabled) {
+            return;
+        }
+        cache.asMap().merge(trade.getTradeId().getTradeId(), trade, (current, candidate) ->
+                candidate.getTradeId().getVersion() >= current.getTradeId().getVersion() ? candidate : current);
+    }
+
+    // Replaces cached entries with their expired copies; other versions are left alone
+    public void recordExpired(Collection<Trade> expiredTrades) {
+        if (!enabled) {
+            return;
+        }
+        for (Trade expired : expiredTrades) {
+            cache.asMap().computeIfPresent(expired.getTradeId().getTradeId(), (tradeId, current) ->
+                    current.getTradeId().equals(expired.getTradeId()) ? expired : current);
+        }
+    }
+
+    public void invalidateMaturingOn(LocalDate maturityDate) {
+        if (enabled) {
+            cache.asMap().values().removeIf(trade -> maturityDate.equals(trade.getMaturityDate()));
+        }
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private boolean mayHaveExpired(Trade trade) {
+        return !trade.isExpired()
+                && trade.getMaturityDate() != null
+                && trade.getMaturityDate().isBefore(LocalDate.now(clock));
+    }
+}
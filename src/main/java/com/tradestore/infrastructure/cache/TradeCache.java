@@ -0,0 +1,104 @@
+package com.tradestore.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeId;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache of single trade versions. Caffeine's W-TinyLFU admission keeps frequently
+ * read trades resident.
+ */
+@Component
+public class TradeCache {
+
+    // Rough heap footprint of a Trade without its strings
+    private static final int BASE_WEIGHT = 160;
+
+    private final Cache<String, Trade> cache;
+    private final boolean enabled;
+    private final Clock clock;
+
+    @Autowired
+    public TradeCache(MeterRegistry meterRegistry,
+                      @Value("${trade.cache.enabled:true}") boolean enabled,
+                      @Value("${trade.cache.max-entries:100000}") long maxEntries,
+                      @Value("${trade.cache.max-weight-bytes:0}") long maxWeightBytes) {
+        this(meterRegistry, enabled, maxEntries, maxWeightBytes, Clock.systemDefaultZone());
+    }
+
+    TradeCache(MeterRegistry meterRegistry, boolean enabled, long maxEntries, long maxWeightBytes, Clock clock) {
+        this.enabled = enabled;
+        this.clock = clock;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        // A byte budget takes precedence over the entry count when set
+        if (maxWeightBytes > 0) {
+            builder.maximumWeight(maxWeightBytes).weigher((String key, Trade trade) -> weigh(key, trade));
+        } else {
+            builder.maximumSize(maxEntries);
+        }
+        this.cache = builder.build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "trades");
+    }
+
+    public Optional<Trade> get(String tradeId, int version, Supplier<Optional<Trade>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        String key = new TradeId(tradeId, version).key();
+        Trade cached = cache.getIfPresent(key);
+        if (cached != null && !mayHaveExpired(cached)) {
+            return Optional.of(cached);
+        }
+        // Misses are not cached, so a trade stored after the lookup is found next time
+        Optional<Trade> loaded = loader.get();
+        loaded.ifPresent(trade -> cache.put(key, trade));
+        return loaded;
+    }
+
+    public void invalidate(Collection<TradeId> tradeIds) {
+        if (enabled) {
+            cache.invalidateAll(tradeIds.stream().map(TradeId::key).toList());
+        }
+    }
+
+    public void invalidateMaturingOn(LocalDate maturityDate) {
+        if (enabled) {
+            cache.asMap().values().removeIf(trade -> maturityDate.equals(trade.getMaturityDate()));
+        }
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    // Only the expired flag ever changes, and only once the trade has matured. Another node may have expired it
+    // without this cache hearing about it, so matured but unexpired entries are reloaded.
+    private boolean mayHaveExpired(Trade trade) {
+        return !trade.isExpired()
+                && trade.getMaturityDate() != null
+                && trade.getMaturityDate().isBefore(LocalDate.now(clock));
+    }
+
+    private static int weigh(String key, Trade trade) {
+        return BASE_WEIGHT + 2 * (key.length()
+                + length(trade.getId())
+                + length(trade.getCounterPartyId())
+                + length(trade.getBookId()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
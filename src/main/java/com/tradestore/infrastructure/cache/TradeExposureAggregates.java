@@ -0,0 +1,256 @@
+package com.tradestore.infrastructure.cache;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeExposure;
+import com.tradestore.infrastructure.store.TradeStore;
+import com.tradestore.infrastructure.store.TradeStores;
+import com.tradestore.infrastructure.tradelog.TradeLog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Live trade counts and maturity buckets per book and per counterparty, kept current by the write and expiry
+ * paths. Only the latest version of each trade counts. Writes and expiries on other nodes never reach these
+ * paths, so with the database backend the aggregates are also rebuilt from the primary store periodically.
+ */
+@Slf4j
+@Component
+public class TradeExposureAggregates {
+
+    private final ObjectProvider<TradeStores> stores;
+    private final ObjectProvider<TradeLog> tradeLog;
+    private final boolean enabled;
+    private final int fetchSize;
+    private volatile boolean loaded;
+    private volatile State current = new State();
+    // Set while a rebuild runs, so writes recorded meanwhile reach the state that replaces the current one
+    private volatile State building;
+
+    public TradeExposureAggregates(ObjectProvider<TradeStores> stores,
+                                   ObjectProvider<TradeLog> tradeLog,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${trade.exposure.enabled:true}") boolean enabled,
+                                   @Value("${trade.query.fetch-size:500}") int fetchSize) {
+        this.stores = stores;
+        this.tradeLog = tradeLog;
+        this.enabled = enabled;
+        this.fetchSize = fetchSize;
+
+        Gauge.builder("trade.exposure.positions", this, aggregates -> aggregates.current.positions.size())
+                .description("Trades tracked by the book and counterparty aggregates")
+                .register(meterRegistry);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        // The primary store with the database backend, the local trade log with the embedded one
+        TradeStores databaseStores = stores.getIfAvailable();
+        TradeStore primary = databaseStores == null ? null : databaseStores.primary();
+        TradeLog embeddedLog = tradeLog.getIfAvailable();
+        if (primary == null && embeddedLog == null) {
+            return;
+        }
+        log.info("Building book and counterparty aggregates from {}", primary != null ? primary.kind() : "the trade log");
+        long start = System.currentTimeMillis();
+        State next = new State();
+        building = next;
+        // Writes recorded while this runs are merged by version, so the pass can overlap live traffic
+        try (Stream<Trade> trades = primary != null ? primary.streamExposureFields(fetchSize) : embeddedLog.stream()) {
+            trades.forEach(trade -> next.record(Position.of(trade)));
+            current = next;
+            loaded = true;
+            log.info("Book and counterparty aggregates built from {} trades in {} ms",
+                    next.positions.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build book and counterparty aggregates: {}", e.getMessage(), e);
+        } finally {
+            building = null;
+        }
+    }
+
+    // The trade log is only written on this node, so the embedded backend never needs a refresh
+    @Scheduled(fixedDelayString = "${trade.exposure.refresh-ms:300000}",
+            initialDelayString = "${trade.exposure.refresh-ms:300000}")
+    public void refresh() {
+        if (enabled && stores.getIfAvailable() != null) {
+            rebuild();
+        }
+    }
+
+    // Replaces the trade's contribution when this is its latest known version
+    public void record(Trade trade) {
+        if (!enabled || trade.getTradeId() == null || trade.getTradeId().getTradeId() == null) {
+            return;
+        }
+        Position position = Position.of(trade);
+        // Read before current: once a rebuild swaps its state in and clears this, current is that state
+        State next = building;
+        if (next != null) {
+            next.record(position);
+        }
+        current.record(position);
+    }
+
+    public void recordExpired(Collection<Trade> expiredTrades) {
+        expiredTrades.forEach(this::record);
+    }
+
+    // Runs once per maturity date from the nightly sweep, so a scan is cheap enough here
+    public void expireMaturingOn(LocalDate maturityDate) {
+        if (!enabled) {
+            return;
+        }
+        State next = building;
+        if (next != null) {
+            next.expireMaturingOn(maturityDate);
+        }
+        current.expireMaturingOn(maturityDate);
+    }
+
+    public Optional<TradeExposure> book(String bookId) {
+        return exposure(current.books, bookId);
+    }
+
+    public List<TradeExposure> books() {
+        return exposures(current.books);
+    }
+
+    public Optional<TradeExposure> counterparty(String counterPartyId) {
+        return exposure(current.counterparties, counterPartyId);
+    }
+
+    public List<TradeExposure> counterparties() {
+        return exposures(current.counterparties);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    private static Optional<TradeExposure> exposure(Map<String, Group> groups, String key) {
+        return Optional.ofNullable(groups.get(key))
+                .map(group -> group.toExposure(key))
+                .filter(exposure -> exposure.getLiveTrades() > 0);
+    }
+
+    private static List<TradeExposure> exposures(Map<String, Group> groups) {
+        return groups.entrySet().stream()
+                .map(entry -> entry.getValue().toExposure(entry.getKey()))
+                .filter(exposure -> exposure.getLiveTrades() > 0)
+                .sorted(Comparator.comparing(TradeExposure::getKey))
+                .toList();
+    }
+
+    private static final class State {
+        private final ConcurrentMap<String, Position> positions = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Group> books = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Group> counterparties = new ConcurrentHashMap<>();
+
+        void record(Position next) {
+            positions.compute(next.tradeId(), (tradeId, current) -> {
+                if (current != null && !next.supersedes(current)) {
+                    return current;
+                }
+                if (current != null && current.live()) {
+                    apply(current, -1);
+                }
+                if (next.live()) {
+                    apply(next, 1);
+                }
+                return next;
+            });
+        }
+
+        void expireMaturingOn(LocalDate maturityDate) {
+            for (String tradeId : positions.keySet()) {
+                positions.computeIfPresent(tradeId, (key, current) -> {
+                    if (!current.live() || !maturityDate.equals(current.maturityDate())) {
+                        return current;
+                    }
+                    apply(current, -1);
+                    return current.expire();
+                });
+            }
+        }
+
+        private void apply(Position position, int delta) {
+            YearMonth month = YearMonth.from(position.maturityDate());
+            if (position.bookId() != null) {
+                books.computeIfAbsent(position.bookId(), key -> new Group()).add(month, delta);
+            }
+            if (position.counterPartyId() != null) {
+                counterparties.computeIfAbsent(position.counterPartyId(), key -> new Group()).add(month, delta);
+            }
+        }
+    }
+
+    private record Position(String tradeId, int version, String bookId, String counterPartyId,
+                            LocalDate maturityDate, boolean expired) {
+
+        static Position of(Trade trade) {
+            return new Position(trade.getTradeId().getTradeId(), trade.getTradeId().getVersion(), trade.getBookId(), trade.getCounterPartyId(),
+                    trade.getMaturityDate(), trade.isExpired());
+        }
+
+        boolean live() {
+            return !expired && maturityDate != null;
+        }
+
+        // Expiry only ever moves forward, so a stale unexpired copy of the same version is ignored
+        boolean supersedes(Position current) {
+            return version > current.version || (version == current.version && (expired || !current.expired));
+        }
+
+        Position expire() {
+            return new Position(tradeId, version, bookId, counterPartyId, maturityDate, true);
+        }
+    }
+
+    private static final class Group {
+        private final LongAdder live = new LongAdder();
+        private final ConcurrentNavigableMap<YearMonth, LongAdder> buckets = new ConcurrentSkipListMap<>();
+
+        void add(YearMonth month, int delta) {
+            live.add(delta);
+            buckets.computeIfAbsent(month, key -> new LongAdder()).add(delta);
+        }
+
+        TradeExposure toExposure(String key) {
+            Map<String, Long> maturityBuckets = new LinkedHashMap<>();
+            buckets.forEach((month, count) -> {
+                long value = count.sum();
+                if (value > 0) {
+                    maturityBuckets.put(month.toString(), value);
+                }
+            });
+            return new TradeExposure(key, live.sum(), maturityBuckets);
+        }
+    }
+}
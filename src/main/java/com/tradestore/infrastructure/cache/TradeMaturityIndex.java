@@ -0,0 +1,138 @@
+package com.tradestore.infrastructure.cache;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.config.ConditionalOnDatabaseStorage;
+import com.tradestore.infrastructure.store.TradeStores;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Unexpired trades bucketed by the epoch day of their maturity date.
+ */
+@Slf4j
+@Component
+@ConditionalOnDatabaseStorage
+public class TradeMaturityIndex {
+
+    private final ConcurrentNavigableMap<Long, Set<TradeId>> buckets = new ConcurrentSkipListMap<>();
+    private final AtomicLong size = new AtomicLong();
+    private final TradeStores stores;
+    private final boolean enabled;
+    private final int fetchSize;
+    private volatile boolean loaded;
+
+    public TradeMaturityIndex(TradeStores stores,
+                              MeterRegistry meterRegistry,
+                              @Value("${trade.expiration.wheel.enabled:true}") boolean enabled,
+                              @Value("${trade.query.fetch-size:500}") int fetchSize) {
+        this.stores = stores;
+        this.enabled = enabled;
+        this.fetchSize = fetchSize;
+
+        Gauge.builder("trade.maturity.index.size", size, AtomicLong::get)
+                .description("Unexpired trades tracked by maturity date")
+                .register(meterRegistry);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Building trade maturity index from {}", stores.primary().kind());
+        long start = System.currentTimeMillis();
+        try (Stream<Trade> trades = stores.primary().streamUnexpiredMaturities(fetchSize)) {
+            trades.forEach(trade -> add(trade.getTradeId(), trade.getMaturityDate()));
+            loaded = true;
+            log.info("Trade maturity index built with {} trades in {} ms",
+                    size.get(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build trade maturity index: {}", e.getMessage(), e);
+        }
+    }
+
+    // Adds the unexpired trades in the primary that matured before the given day and that the filter accepts
+    public int loadDue(LocalDate today, Predicate<TradeId> filter) {
+        if (!enabled) {
+            return 0;
+        }
+        int loaded = 0;
+        for (LocalDate maturityDate : stores.primary().findUnexpiredMaturityDatesBetween(null, today)) {
+            try (Stream<Trade> trades = stores.primary().streamUnexpiredByMaturityDate(maturityDate, fetchSize)) {
+                for (Trade trade : (Iterable<Trade>) trades.filter(trade -> filter.test(trade.getTradeId()))::iterator) {
+                    add(trade.getTradeId(), trade.getMaturityDate());
+                    loaded++;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    public void add(TradeId tradeId, LocalDate maturityDate) {
+        if (!enabled || tradeId == null || maturityDate == null) {
+            return;
+        }
+        if (buckets.computeIfAbsent(maturityDate.toEpochDay(), day -> ConcurrentHashMap.newKeySet()).add(tradeId)) {
+            size.incrementAndGet();
+        }
+    }
+
+    // Removes and returns up to max trades that matured before the given day
+    public List<TradeId> pollDue(LocalDate today, int max) {
+        return pollDue(today, max, tradeId -> true);
+    }
+
+    // As above, but only trades the filter accepts. Due trades it rejects are dropped as well: they belong to
+    // another node, which loads them with loadDue
+    public List<TradeId> pollDue(LocalDate today, int max, Predicate<TradeId> filter) {
+        List<TradeId> due = new ArrayList<>(Math.min(max, 1024));
+        for (Map.Entry<Long, Set<TradeId>> bucket : buckets.headMap(today.toEpochDay()).entrySet()) {
+            Iterator<TradeId> iterator = bucket.getValue().iterator();
+            while (iterator.hasNext() && due.size() < max) {
+                TradeId tradeId = iterator.next();
+                if (bucket.getValue().remove(tradeId)) {
+                    size.decrementAndGet();
+                    if (filter.test(tradeId)) {
+                        due.add(tradeId);
+                    }
+                }
+            }
+            if (bucket.getValue().isEmpty()) {
+                buckets.remove(bucket.getKey(), bucket.getValue());
+            }
+            if (due.size() == max) {
+                break;
+            }
+        }
+        return due;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public long size() {
+        return size.get();
+    }
+}
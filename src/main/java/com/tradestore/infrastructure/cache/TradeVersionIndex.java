@@ -0,0 +1,115 @@
+package com.tradestore.infrastructure.cache;
+
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.config.ConditionalOnDatabaseStorage;
+import com.tradestore.infrastructure.store.TradeStores;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+@ConditionalOnDatabaseStorage
+public class TradeVersionIndex {
+
+    public enum Decision {
+        NEW,
+        DUPLICATE,
+        UNKNOWN
+    }
+
+    private final Map<String, Integer> latestVersions = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final TradeStores stores;
+    private final boolean enabled;
+    private volatile boolean loaded;
+
+    public TradeVersionIndex(TradeStores stores,
+                             MeterRegistry meterRegistry,
+                             @Value("${trade.version-index.enabled:true}") boolean enabled) {
+        this.stores = stores;
+        this.enabled = enabled;
+
+        Gauge.builder("trade.version.index.size", this, TradeVersionIndex::size)
+                .description("Number of trade IDs in the latest-version index")
+                .register(meterRegistry);
+        Gauge.builder("trade.version.index.hit.ratio", this, TradeVersionIndex::hitRate)
+                .description("Share of version checks answered without a database lookup")
+                .register(meterRegistry);
+        FunctionCounter.builder("trade.version.index.lookups", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("trade.version.index.lookups", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Building trade version index from {}", stores.primary().kind());
+        long start = System.currentTimeMillis();
+        try (Stream<TradeId> versions = stores.primary().streamLatestVersions()) {
+            versions.forEach(this::record);
+            loaded = true;
+            log.info("Trade version index built with {} trade IDs in {} ms",
+                    latestVersions.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build trade version index: {}", e.getMessage(), e);
+        }
+    }
+
+    public Decision check(TradeId tradeId) {
+        if (!loaded) {
+            misses.increment();
+            return Decision.UNKNOWN;
+        }
+        Integer latest = latestVersions.get(tradeId.getTradeId());
+        if (latest == null || tradeId.getVersion() > latest) {
+            hits.increment();
+            return Decision.NEW;
+        }
+        if (tradeId.getVersion() == latest) {
+            hits.increment();
+            return Decision.DUPLICATE;
+        }
+        // Older versions can fill gaps, so only the store knows whether they exist
+        misses.increment();
+        return Decision.UNKNOWN;
+    }
+
+    public void record(TradeId tradeId) {
+        if (enabled) {
+            latestVersions.merge(tradeId.getTradeId(), tradeId.getVersion(), Math::max);
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        return latestVersions.size();
+    }
+
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,19 @@
+package com.tradestore.infrastructure.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks beans that need MongoDB and PostgreSQL, which is the default storage backend.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Documented
+@ConditionalOnProperty(name = "trade.storage.backend", havingValue = "databases", matchIfMissing = true)
+public @interface ConditionalOnDatabaseStorage {
+}
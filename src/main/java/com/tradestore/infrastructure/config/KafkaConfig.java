@@ -1,20 +1,38 @@
 package com.tradestore.infrastructure.config;
 
 import com.tradestore.domain.model.Trade;
+import com.tradestore.infrastructure.messaging.TradeBinaryDeserializer;
+import com.tradestore.infrastructure.messaging.TradeBinarySerializer;
+import com.tradestore.infrastructure.messaging.TradeFormatDetectingDeserializer;
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Configuration
@@ -26,11 +44,55 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    // json | binary
+    @Value("${trade.kafka.value-format:json}")
+    private String valueFormat;
+
+    // json | binary | auto; auto reads both while producers migrate
+    @Value("${trade.kafka.consumer-value-format:auto}")
+    private String consumerValueFormat;
+
+    @Value("${trade.kafka.producer.compression-type:none}")
+    private String compressionType;
+
+    @Value("${trade.kafka.producer.linger-ms:0}")
+    private int lingerMs;
+
+    @Value("${trade.kafka.producer.batch-size:16384}")
+    private int batchSize;
+
+    @Value("${trade.inbound.topic:trades.inbound}")
+    private String inboundTopic;
+
+    @Value("${trade.inbound.dlt-topic:trades.inbound.dlt}")
+    private String inboundDltTopic;
+
+    @Value("${trade.inbound.partitions:6}")
+    private int inboundPartitions;
+
+    @Value("${trade.inbound.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${trade.inbound.retry.initial-backoff-ms:1000}")
+    private long inboundInitialBackoffMs;
+
+    @Value("${trade.inbound.retry.max-backoff-ms:60000}")
+    private long inboundMaxBackoffMs;
+
+    @Value("${trade.inbound.retry.max-attempts:10}")
+    private int inboundMaxAttempts;
+
+    // Off where no broker is expected, so startup does not wait on topic creation
+    @Value("${trade.kafka.auto-create-topics:true}")
+    private boolean autoCreateTopics;
+
     @Bean
     public KafkaAdmin kafkaAdmin() {
         Map<String, Object> configs = new HashMap<>();
         configs.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        return new KafkaAdmin(configs);
+        KafkaAdmin kafkaAdmin = new KafkaAdmin(configs);
+        kafkaAdmin.setAutoCreate(autoCreateTopics);
+        return kafkaAdmin;
     }
 
     @Bean
@@ -38,20 +100,94 @@ public class KafkaConfig {
         return new NewTopic("trades", 1, (short) 1);
     }
 
+    @Bean
+    public NewTopic inboundTradeTopic() {
+        return new NewTopic(inboundTopic, inboundPartitions, (short) 1);
+    }
+
+    @Bean
+    public NewTopic inboundTradeDltTopic() {
+        return new NewTopic(inboundDltTopic, 1, (short) 1);
+    }
+
     @Bean
     public ProducerFactory<String, Trade> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, valueSerializer());
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, 1000);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
+    @Bean
+    public ConsumerFactory<String, Trade> consumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, valueDeserializer());
+        configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, Trade.class.getName());
+        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.tradestore.domain.model");
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Trade> tradeBatchListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Trade> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+
+        // The listener names the failing record; it is retried with backoff, then dead-lettered. Undecodable
+        // records are not retried, and go to the dead-letter topic as the raw bytes.
+        ExponentialBackOff backOff = new ExponentialBackOff(inboundInitialBackoffMs, 2.0);
+        backOff.setMaxInterval(inboundMaxBackoffMs);
+        backOff.setMaxAttempts(inboundMaxAttempts);
+        Map<Class<?>, KafkaOperations<?, ?>> templates = new LinkedHashMap<>();
+        templates.put(byte[].class, deadLetterBytesTemplate());
+        templates.put(Object.class, kafkaTemplate());
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(templates,
+                (record, exception) -> new TopicPartition(inboundDltTopic, -1));
+        factory.setCommonErrorHandler(new DefaultErrorHandler(recoverer, backOff));
+        return factory;
+    }
+
     @Bean
     public KafkaTemplate<String, Trade> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
+
+    private KafkaTemplate<String, byte[]> deadLetterBytesTemplate() {
+        Map<String, Object> configProps = new HashMap<>(producerFactory().getConfigurationProperties());
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(configProps));
+    }
+
+    private Class<?> valueSerializer() {
+        return switch (valueFormat) {
+            case "json" -> JsonSerializer.class;
+            case "binary" -> TradeBinarySerializer.class;
+            default -> throw new IllegalArgumentException("Unknown trade.kafka.value-format: " + valueFormat);
+        };
+    }
+
+    private Class<?> valueDeserializer() {
+        return switch (consumerValueFormat) {
+            case "json" -> JsonDeserializer.class;
+            case "binary" -> TradeBinaryDeserializer.class;
+            case "auto" -> TradeFormatDetectingDeserializer.class;
+            default -> throw new IllegalArgumentException("Unknown trade.kafka.consumer-value-format: " + consumerValueFormat);
+        };
+    }
 } 
\ No newline at end of file
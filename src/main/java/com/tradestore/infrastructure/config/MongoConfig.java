@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Configuration
+@ConditionalOnDatabaseStorage
 public class MongoConfig {
 
     @Bean
@@ -9,14 +9,17 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "trades")
+@Table(name = "trades", uniqueConstraints = @UniqueConstraint(
+        name = "uk_trades_trade_id_version_maturity", columnNames = {"trade_id", "version", "maturity_date"}))
 @Data
 @Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class TradeEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence so Hibernate can batch inserts; IDENTITY forces one round trip per row
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trades_seq")
+    @SequenceGenerator(name = "trades_seq", sequenceName = "trades_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "trade_id", nullable = false)
@@ -0,0 +1,25 @@
+package com.tradestore.infrastructure.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "trade_expiry_watermark")
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeExpiryWatermarkEntity {
+    // "all", or "shard-N" when expiry is sharded
+    @Id
+    @Column(name = "scope")
+    private String scope;
+
+    @Column(name = "processed_through", nullable = false)
+    private LocalDate processedThrough;
+}
@@ -0,0 +1,38 @@
+package com.tradestore.infrastructure.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "trade_outbox")
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeOutboxEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_outbox_seq")
+    @SequenceGenerator(name = "trade_outbox_seq", sequenceName = "trade_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "trade_id", nullable = false)
+    private String tradeId;
+
+    @Column(name = "version", nullable = false)
+    private Integer version;
+
+    @Column(name = "payload", nullable = false, length = 4000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Set while a relay is publishing the entry
+    @Column(name = "claimed_until")
+    private Instant claimedUntil;
+}
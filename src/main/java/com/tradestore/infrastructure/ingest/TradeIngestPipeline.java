@@ -0,0 +1,160 @@
+package com.tradestore.infrastructure.ingest;
+
+import com.tradestore.domain.exception.TradeException;
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeResult;
+import com.tradestore.domain.service.TradeService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes trades to a fixed number of partitions by trade id. Each partition has a single writer
+ * thread, so versions of one trade are stored in order while different trades proceed in parallel.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "trade.ingest.pipeline.enabled", havingValue = "true")
+public class TradeIngestPipeline {
+
+    private final TradeService tradeService;
+    private final List<Partition> partitions = new ArrayList<>();
+    private final int drainSize;
+    private final long submitTimeoutMs;
+    private volatile boolean running = true;
+
+    public TradeIngestPipeline(TradeService tradeService,
+                               MeterRegistry meterRegistry,
+                               @Value("${trade.ingest.partitions:0}") int partitionCount,
+                               @Value("${trade.ingest.queue-capacity:10000}") int queueCapacity,
+                               @Value("${trade.ingest.drain-size:500}") int drainSize,
+                               @Value("${trade.ingest.submit-timeout-ms:5000}") long submitTimeoutMs,
+                               @Value("${trade.batch.max-size:1000}") int maxBatchSize) {
+        this.tradeService = tradeService;
+        // Larger drains would be refused by the batch write path
+        this.drainSize = Math.min(drainSize, maxBatchSize);
+        this.submitTimeoutMs = submitTimeoutMs;
+        int count = partitionCount > 0 ? partitionCount : Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < count; i++) {
+            Partition partition = new Partition(i, new LinkedBlockingQueue<>(queueCapacity));
+            Gauge.builder("trade.ingest.queue.depth", partition.queue(), BlockingQueue::size)
+                    .description("Trades waiting in an ingest partition")
+                    .tag("partition", String.valueOf(i))
+                    .register(meterRegistry);
+            Thread writer = new Thread(() -> drain(partition), "trade-ingest-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            partitions.add(partition);
+        }
+        log.info("Started trade ingest pipeline with {} partitions", count);
+    }
+
+    public CompletableFuture<Trade> submit(Trade trade) {
+        if (!running) {
+            throw new TradeException("Trade ingest pipeline is shutting down");
+        }
+        Partition partition = partitionFor(trade);
+        Pending pending = new Pending(trade, new CompletableFuture<>());
+        try {
+            if (!partition.queue().offer(pending, submitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new TradeException("Ingest partition " + partition.index() + " is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TradeException("Interrupted while queueing trade", e);
+        }
+        return pending.result();
+    }
+
+    public int partitionCount() {
+        return partitions.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+    }
+
+    private Partition partitionFor(Trade trade) {
+        String tradeId = trade == null || trade.getTradeId() == null ? null : trade.getTradeId().getTradeId();
+        return partitions.get(Math.floorMod(Objects.hashCode(tradeId), partitions.size()));
+    }
+
+    private void drain(Partition partition) {
+        List<Pending> batch = new ArrayList<>(drainSize);
+        while (running || !partition.queue().isEmpty()) {
+            try {
+                Pending first = partition.queue().poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                partition.queue().drainTo(batch, drainSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Ingest partition {} failed to write batch: {}", partition.index(), e.getMessage());
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        // Stable sort: versions of one trade are written lowest first, arrival order is kept otherwise
+        batch.sort(Comparator.comparingInt(pending -> versionOf(pending.trade())));
+        List<TradeResult> results;
+        try {
+            results = tradeService.storeTrades(batch.stream().map(Pending::trade).toList());
+        } catch (Exception e) {
+            // One transaction covers the drain; retry each trade so one failure does not fail the others
+            log.warn("Batch of {} ingested trades failed, storing them one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::writeOne);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            TradeResult result = results.get(i);
+            if (result.getStatus() == TradeResult.Status.ACCEPTED) {
+                Trade trade = pending.trade();
+                pending.result().complete(trade.toBuilder().id(trade.getTradeId().key()).build());
+            } else {
+                pending.result().completeExceptionally(new TradeException(result.getMessage()));
+            }
+        }
+    }
+
+    private void writeOne(Pending pending) {
+        try {
+            pending.result().complete(tradeService.storeTrade(pending.trade()));
+        } catch (Exception e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private static int versionOf(Trade trade) {
+        return trade == null || trade.getTradeId() == null ? 0 : trade.getTradeId().getVersion();
+    }
+
+    private record Partition(int index, BlockingQueue<Pending> queue) {
+    }
+
+    private record Pending(Trade trade, CompletableFuture<Trade> result) {
+    }
+}
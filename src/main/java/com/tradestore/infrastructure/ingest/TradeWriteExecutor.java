@@ -0,0 +1,38 @@
+package com.tradestore.infrastructure.ingest;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs store writes that proceed alongside the caller's transactional work.
+ */
+@Component
+public class TradeWriteExecutor {
+
+    private final ExecutorService executor;
+
+    public TradeWriteExecutor(@Value("${trade.write.parallelism:16}") int parallelism) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "trade-write-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> write) {
+        return CompletableFuture.supplyAsync(write, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
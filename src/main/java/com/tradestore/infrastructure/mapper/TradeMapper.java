@@ -9,11 +9,15 @@ import org.mapstruct.Named;
 @Mapper(componentModel = "spring")
 public interface TradeMapper {
     
+    // The Mongo key is not a Postgres id; rows take theirs from trades_seq
     @Mapping(source = "tradeId.tradeId", target = "tradeId")
     @Mapping(source = "tradeId.version", target = "version")
+    @Mapping(target = "id", ignore = true)
     TradeEntity toEntity(Trade trade);
 
+    // Same id as the Mongo document, so a trade reads the same from either store
     @Mapping(target = "tradeId.tradeId", source = "tradeId")
     @Mapping(target = "tradeId.version", source = "version")
+    @Mapping(target = "id", expression = "java(entity.getTradeId() + \":\" + entity.getVersion())")
     Trade toDomain(TradeEntity entity);
 } 
\ No newline at end of file
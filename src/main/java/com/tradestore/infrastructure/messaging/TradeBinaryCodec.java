@@ -0,0 +1,164 @@
+package com.tradestore.infrastructure.messaging;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeId;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Compact binary encoding of {@link Trade} events.
+ *
+ * <pre>
+ * Trade (schema 1)
+ *   magic            byte      0x00
+ *   schema           byte      0x01
+ *   flags            byte      bit0 tradeId, bit1 maturityDate, bit2 createdDate, bit3 expired
+ *   id               string?
+ *   tradeId          TradeId   present when bit0 is set
+ *   counterPartyId   string?
+ *   bookId           string?
+ *   maturityDate     zigzag varint epoch day, present when bit1 is set
+ *   createdDate      zigzag varint epoch day, present when bit2 is set
+ *
+ * TradeId
+ *   tradeId          string?
+ *   version          zigzag varint
+ *
+ * string? is a varint of (UTF-8 length + 1), where 0 means null
+ * </pre>
+ */
+public final class TradeBinaryCodec {
+
+    public static final byte MAGIC = 0x00;
+    public static final byte SCHEMA_VERSION = 1;
+    public static final String FORMAT_HEADER = "trade-format";
+    public static final String FORMAT = "binary-v1";
+
+    private static final int HAS_TRADE_ID = 1;
+    private static final int HAS_MATURITY_DATE = 1 << 1;
+    private static final int HAS_CREATED_DATE = 1 << 2;
+    private static final int EXPIRED = 1 << 3;
+
+    private TradeBinaryCodec() {
+    }
+
+    public static byte[] encode(Trade trade) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(MAGIC);
+        out.write(SCHEMA_VERSION);
+        int flags = (trade.getTradeId() != null ? HAS_TRADE_ID : 0)
+                | (trade.getMaturityDate() != null ? HAS_MATURITY_DATE : 0)
+                | (trade.getCreatedDate() != null ? HAS_CREATED_DATE : 0)
+                | (trade.isExpired() ? EXPIRED : 0);
+        out.write(flags);
+        writeString(out, trade.getId());
+        if (trade.getTradeId() != null) {
+            writeTradeId(out, trade.getTradeId());
+        }
+        writeString(out, trade.getCounterPartyId());
+        writeString(out, trade.getBookId());
+        if (trade.getMaturityDate() != null) {
+            writeSignedVarLong(out, trade.getMaturityDate().toEpochDay());
+        }
+        if (trade.getCreatedDate() != null) {
+            writeSignedVarLong(out, trade.getCreatedDate().toEpochDay());
+        }
+        return out.toByteArray();
+    }
+
+    public static Trade decode(byte[] data) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(data);
+            if (in.get() != MAGIC) {
+                throw new SerializationException("Not a binary trade payload");
+            }
+            byte schema = in.get();
+            if (schema != SCHEMA_VERSION) {
+                throw new SerializationException("Unsupported trade schema version " + schema);
+            }
+            int flags = in.get();
+            Trade.TradeBuilder builder = Trade.builder()
+                    .id(readString(in))
+                    .tradeId((flags & HAS_TRADE_ID) != 0 ? readTradeId(in) : null)
+                    .counterPartyId(readString(in))
+                    .bookId(readString(in))
+                    .expired((flags & EXPIRED) != 0);
+            if ((flags & HAS_MATURITY_DATE) != 0) {
+                builder.maturityDate(LocalDate.ofEpochDay(readSignedVarLong(in)));
+            }
+            if ((flags & HAS_CREATED_DATE) != 0) {
+                builder.createdDate(LocalDate.ofEpochDay(readSignedVarLong(in)));
+            }
+            return builder.build();
+        } catch (BufferUnderflowException e) {
+            throw new SerializationException("Truncated binary trade payload", e);
+        }
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    static void writeTradeId(ByteArrayOutputStream out, TradeId tradeId) {
+        writeString(out, tradeId.getTradeId());
+        writeSignedVarLong(out, tradeId.getVersion());
+    }
+
+    static TradeId readTradeId(ByteBuffer in) {
+        return new TradeId(readString(in), (int) readSignedVarLong(in));
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeSignedVarLong(ByteArrayOutputStream out, long value) {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static long readSignedVarLong(ByteBuffer in) {
+        long raw = readVarLong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint in binary trade payload");
+    }
+}
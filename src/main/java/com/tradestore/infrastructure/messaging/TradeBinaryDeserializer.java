@@ -0,0 +1,12 @@
+package com.tradestore.infrastructure.messaging;
+
+import com.tradestore.domain.model.Trade;
+import org.apache.kafka.common.serialization.Deserializer;
+
+public class TradeBinaryDeserializer implements Deserializer<Trade> {
+
+    @Override
+    public Trade deserialize(String topic, byte[] data) {
+        return data == null ? null : TradeBinaryCodec.decode(data);
+    }
+}
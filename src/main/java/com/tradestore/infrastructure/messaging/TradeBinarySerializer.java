@@ -0,0 +1,26 @@
+package com.tradestore.infrastructure.messaging;
+
+import com.tradestore.domain.model.Trade;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+
+public class TradeBinarySerializer implements Serializer<Trade> {
+
+    private static final byte[] FORMAT = TradeBinaryCodec.FORMAT.getBytes(StandardCharsets.UTF_8);
+
+    @Override
+    public byte[] serialize(String topic, Trade trade) {
+        return trade == null ? null : TradeBinaryCodec.encode(trade);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Trade trade) {
+        if (trade != null) {
+            headers.remove(TradeBinaryCodec.FORMAT_HEADER);
+            headers.add(TradeBinaryCodec.FORMAT_HEADER, FORMAT);
+        }
+        return serialize(topic, trade);
+    }
+}
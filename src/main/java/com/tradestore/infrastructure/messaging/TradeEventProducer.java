@@ -16,9 +16,10 @@ public class TradeEventProducer {
     private final KafkaTemplate<String, Trade> kafkaTemplate;
     private static final String TOPIC = "trades";
 
-    public void sendTradeEvent(Trade trade) {
+    public CompletableFuture<SendResult<String, Trade>> sendTradeEvent(Trade trade) {
+        // Keyed by trade ID alone, so every version of a trade lands on the same partition in order
         CompletableFuture<SendResult<String, Trade>> future = 
-            kafkaTemplate.send(TOPIC, trade.getTradeId().toString(), trade);
+            kafkaTemplate.send(TOPIC, trade.getTradeId().getTradeId(), trade);
 
         future.whenComplete((result, ex) -> {
             if (ex == null) {
@@ -29,5 +30,6 @@ public class TradeEventProducer {
                     trade.getTradeId(), TOPIC, ex);
             }
         });
+        return future;
     }
 } 
\ No newline at end of file
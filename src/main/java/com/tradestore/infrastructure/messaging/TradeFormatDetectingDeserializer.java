@@ -0,0 +1,51 @@
+package com.tradestore.infrastructure.messaging;
+
+import com.tradestore.domain.model.Trade;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Reads both JSON and binary trade events, so consumers can switch to it before the producer
+ * changes {@code trade.kafka.value-format} and keep reading older JSON records afterwards.
+ */
+public class TradeFormatDetectingDeserializer implements Deserializer<Trade> {
+
+    private final JsonDeserializer<Trade> jsonDeserializer = new JsonDeserializer<>(Trade.class, false);
+    private final TradeBinaryDeserializer binaryDeserializer = new TradeBinaryDeserializer();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Trade deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return TradeBinaryCodec.isBinary(data)
+                ? binaryDeserializer.deserialize(topic, data)
+                : jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public Trade deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (headers != null && headers.lastHeader(TradeBinaryCodec.FORMAT_HEADER) != null) {
+            return binaryDeserializer.deserialize(topic, data);
+        }
+        return TradeBinaryCodec.isBinary(data)
+                ? binaryDeserializer.deserialize(topic, data)
+                : jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
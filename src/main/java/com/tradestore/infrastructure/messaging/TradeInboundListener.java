@@ -0,0 +1,165 @@
+package com.tradestore.infrastructure.messaging;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeResult;
+import com.tradestore.domain.service.TradeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
+@Component
+public class TradeInboundListener {
+
+    public static final String REJECT_REASON_HEADER = "trade-reject-reason";
+
+    private static final LogAccessor LOGGER = new LogAccessor(TradeInboundListener.class);
+
+    private final TradeService tradeService;
+    private final KafkaTemplate<String, Trade> kafkaTemplate;
+    private final Map<TradeResult.Status, Counter> resultCounters = new EnumMap<>(TradeResult.Status.class);
+    private final Counter undecodableCounter;
+
+    @Value("${trade.inbound.dlt-topic:trades.inbound.dlt}")
+    private String dltTopic;
+
+    @Value("${trade.inbound.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    public TradeInboundListener(TradeService tradeService,
+                                KafkaTemplate<String, Trade> kafkaTemplate,
+                                MeterRegistry meterRegistry) {
+        this.tradeService = tradeService;
+        this.kafkaTemplate = kafkaTemplate;
+        for (TradeResult.Status status : TradeResult.Status.values()) {
+            resultCounters.put(status, Counter.builder("trade.inbound.records")
+                    .description("Inbound trade records by outcome")
+                    .tag("result", status.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        this.undecodableCounter = Counter.builder("trade.inbound.undecodable")
+                .description("Inbound records that could not be deserialized")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stores the batch and publishes rejected trades to the dead-letter topic. A record that cannot be decoded,
+     * stored or dead-lettered is reported to the error handler as a {@link BatchListenerFailedException}: the
+     * records before it are committed, it is retried a bounded number of times and then dead-lettered, and the
+     * records after it are redelivered.
+     */
+    @KafkaListener(id = "trade-inbound",
+            topics = "${trade.inbound.topic:trades.inbound}",
+            containerFactory = "tradeBatchListenerContainerFactory",
+            concurrency = "${trade.inbound.concurrency:3}",
+            autoStartup = "${trade.inbound.enabled:true}")
+    public void onTrades(List<ConsumerRecord<String, Trade>> records, Acknowledgment acknowledgment) {
+        int decoded = 0;
+        while (decoded < records.size() && !isUndecodable(records.get(decoded))) {
+            decoded++;
+        }
+        process(records.subList(0, decoded));
+
+        if (decoded < records.size()) {
+            ConsumerRecord<String, Trade> record = records.get(decoded);
+            log.error("Undecodable trade record at {}-{}@{}", record.topic(), record.partition(), record.offset());
+            undecodableCounter.increment();
+            // Not retryable, so the error handler dead-letters the raw bytes straight away
+            throw new BatchListenerFailedException("Undecodable trade record", deserializationException(record), record);
+        }
+        acknowledgment.acknowledge();
+    }
+
+    private void process(List<ConsumerRecord<String, Trade>> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        List<TradeResult> results = new ArrayList<>(records.size());
+        RuntimeException failure = null;
+        try {
+            results.addAll(tradeService.storeTrades(records.stream().map(ConsumerRecord::value).toList()));
+        } catch (RuntimeException e) {
+            // One at a time, so the trade that fails is the only one held back
+            log.warn("Storing {} inbound trades failed, retrying them one by one: {}", records.size(), e.getMessage());
+            for (ConsumerRecord<String, Trade> record : records) {
+                try {
+                    results.addAll(tradeService.storeTrades(List.of(record.value())));
+                } catch (RuntimeException single) {
+                    failure = single;
+                    break;
+                }
+            }
+        }
+
+        publishRejects(records, results);
+        if (failure != null) {
+            throw new BatchListenerFailedException("Error storing inbound trade", failure, records.get(results.size()));
+        }
+        log.debug("Processed {} inbound trades", results.size());
+    }
+
+    private void publishRejects(List<ConsumerRecord<String, Trade>> records, List<TradeResult> results) {
+        List<Integer> rejected = new ArrayList<>();
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            TradeResult result = results.get(i);
+            resultCounters.get(result.getStatus()).increment();
+            if (result.getStatus() == TradeResult.Status.REJECTED) {
+                rejected.add(i);
+                sends.add(sendToDeadLetter(records.get(i), result.getMessage()));
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (int j = 0; j < sends.size(); j++) {
+            ConsumerRecord<String, Trade> record = records.get(rejected.get(j));
+            try {
+                sends.get(j).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BatchListenerFailedException("Interrupted while publishing rejected trade", e, record);
+            } catch (ExecutionException | TimeoutException e) {
+                throw new BatchListenerFailedException("Error publishing rejected trade", e, record);
+            }
+        }
+    }
+
+    private CompletableFuture<?> sendToDeadLetter(ConsumerRecord<String, Trade> record, String reason) {
+        log.warn("Rejected inbound trade {} at {}-{}@{}: {}",
+                record.key(), record.topic(), record.partition(), record.offset(), reason);
+        ProducerRecord<String, Trade> dlt = new ProducerRecord<>(dltTopic, record.key(), record.value());
+        dlt.headers().add(REJECT_REASON_HEADER, String.valueOf(reason).getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(dlt);
+    }
+
+    private static boolean isUndecodable(ConsumerRecord<String, Trade> record) {
+        return record.value() == null
+                && record.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) != null;
+    }
+
+    private static DeserializationException deserializationException(ConsumerRecord<String, Trade> record) {
+        DeserializationException exception = SerializationUtils.getExceptionFromHeader(record,
+                SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOGGER);
+        return exception != null ? exception : new DeserializationException("Undecodable trade record", null, false, null);
+    }
+}
@@ -0,0 +1,58 @@
+package com.tradestore.infrastructure.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradestore.domain.exception.TradeException;
+import com.tradestore.domain.model.Trade;
+import com.tradestore.infrastructure.config.ConditionalOnDatabaseStorage;
+import com.tradestore.infrastructure.entity.TradeOutboxEntity;
+import com.tradestore.infrastructure.repository.TradeOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+@Component
+@ConditionalOnDatabaseStorage
+@RequiredArgsConstructor
+public class TradeOutbox {
+
+    private final TradeOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public void enqueue(Trade trade) {
+        enqueueAll(List.of(trade));
+    }
+
+    public void enqueueAll(List<Trade> trades) {
+        if (trades.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        outboxRepository.saveAll(trades.stream()
+                .map(trade -> toEntity(trade, now))
+                .toList());
+    }
+
+    public Trade readPayload(TradeOutboxEntity entity) {
+        try {
+            return objectMapper.readValue(entity.getPayload(), Trade.class);
+        } catch (JsonProcessingException e) {
+            throw new TradeException("Unreadable outbox payload for entry " + entity.getId(), e);
+        }
+    }
+
+    private TradeOutboxEntity toEntity(Trade trade, Instant createdAt) {
+        try {
+            return TradeOutboxEntity.builder()
+                    .tradeId(trade.getTradeId().getTradeId())
+                    .version(trade.getTradeId().getVersion())
+                    .payload(objectMapper.writeValueAsString(trade))
+                    .createdAt(createdAt)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new TradeException("Unable to serialize trade event for " + trade.getTradeId(), e);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.tradestore.infrastructure.messaging;
+
+import com.tradestore.domain.exception.TradeException;
+import com.tradestore.domain.model.Trade;
+import com.tradestore.infrastructure.config.ConditionalOnDatabaseStorage;
+import com.tradestore.infrastructure.entity.TradeOutboxEntity;
+import com.tradestore.infrastructure.repository.TradeOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@ConditionalOnDatabaseStorage
+public class TradeOutboxRelay {
+
+    private final TradeOutboxRepository outboxRepository;
+    private final TradeOutbox tradeOutbox;
+    private final TradeEventProducer tradeEventProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter relayedCounter;
+    private final Counter failureCounter;
+    private final AtomicLong lastOffset = new AtomicLong(-1);
+
+    @Value("${trade.outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${trade.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${trade.outbox.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    @Value("${trade.outbox.retry.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${trade.outbox.retry.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    private int consecutiveFailures;
+    private long nextAttemptAt;
+
+    public TradeOutboxRelay(TradeOutboxRepository outboxRepository,
+                            TradeOutbox tradeOutbox,
+                            TradeEventProducer tradeEventProducer,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.tradeOutbox = tradeOutbox;
+        this.tradeEventProducer = tradeEventProducer;
+        this.transactionTemplate = transactionTemplate;
+        this.relayedCounter = Counter.builder("trade.outbox.relayed")
+                .description("Trade events published from the outbox")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("trade.outbox.failures")
+                .description("Outbox relay attempts that stopped on a publish failure")
+                .register(meterRegistry);
+        Gauge.builder("trade.outbox.last.offset", lastOffset, AtomicLong::get)
+                .description("Topic offset of the last event acknowledged by the broker")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${trade.outbox.poll-interval-ms:200}")
+    public void relay() {
+        if (!enabled || System.currentTimeMillis() < nextAttemptAt) {
+            return;
+        }
+        try {
+            BatchOutcome outcome;
+            do {
+                outcome = relayBatch();
+                if (outcome.failure() != null) {
+                    throw outcome.failure();
+                }
+            } while (outcome.attempted() == batchSize);
+            consecutiveFailures = 0;
+        } catch (Exception e) {
+            failureCounter.increment();
+            consecutiveFailures++;
+            long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(consecutiveFailures - 1, 16));
+            nextAttemptAt = System.currentTimeMillis() + backoff;
+            log.warn("Outbox relay failed ({} in a row), retrying in {} ms: {}",
+                    consecutiveFailures, backoff, e.getMessage());
+        }
+    }
+
+    private BatchOutcome relayBatch() {
+        // The row lock is only held to claim the batch; the broker is awaited outside any transaction
+        List<TradeOutboxEntity> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch.isEmpty()) {
+            return new BatchOutcome(0, null);
+        }
+
+        List<Long> processed = new ArrayList<>();
+        List<CompletableFuture<SendResult<String, Trade>>> futures = new ArrayList<>();
+        List<Long> sentIds = new ArrayList<>();
+        for (TradeOutboxEntity entry : batch) {
+            Trade trade;
+            try {
+                trade = tradeOutbox.readPayload(entry);
+            } catch (TradeException e) {
+                log.error("Dropping unreadable outbox entry {}: {}", entry.getId(), entry.getPayload(), e);
+                processed.add(entry.getId());
+                continue;
+            }
+            futures.add(tradeEventProducer.sendTradeEvent(trade));
+            sentIds.add(entry.getId());
+        }
+
+        // Only remove the acknowledged prefix so that a retry keeps the original order
+        Exception failure = null;
+        int acknowledged = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                SendResult<String, Trade> result = futures.get(i)
+                        .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (result != null && result.getRecordMetadata() != null) {
+                    lastOffset.set(result.getRecordMetadata().offset());
+                }
+                processed.add(sentIds.get(i));
+                acknowledged++;
+            } catch (Exception e) {
+                failure = e;
+                break;
+            }
+        }
+
+        List<Long> unsent = sentIds.subList(acknowledged, sentIds.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!processed.isEmpty()) {
+                outboxRepository.deleteAllByIdInBatch(processed);
+            }
+            if (!unsent.isEmpty()) {
+                outboxRepository.release(unsent);
+            }
+        });
+        relayedCounter.increment(acknowledged);
+        log.debug("Relayed {} of {} outbox entries, last offset {}", acknowledged, batch.size(), lastOffset.get());
+        return new BatchOutcome(batch.size(), failure);
+    }
+
+    private List<TradeOutboxEntity> claimBatch() {
+        List<TradeOutboxEntity> batch = outboxRepository.findNextBatch(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return List.of();
+        }
+        // Claims always cover the head of the outbox, so a live claim there means another relay is publishing;
+        // taking later entries meanwhile could reorder events
+        Instant now = Instant.now();
+        Instant claimedUntil = batch.get(0).getClaimedUntil();
+        if (claimedUntil != null && claimedUntil.isAfter(now)) {
+            log.debug("Outbox head is claimed by another relay until {}", claimedUntil);
+            return List.of();
+        }
+        // Outlives the send deadline, so an abandoned claim expires and the entries are sent again
+        outboxRepository.claim(batch.stream().map(TradeOutboxEntity::getId).toList(), now.plusMillis(2 * sendTimeoutMs));
+        return batch;
+    }
+
+    private record BatchOutcome(int attempted, Exception failure) {
+    }
+}
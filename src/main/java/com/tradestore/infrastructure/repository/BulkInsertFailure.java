@@ -0,0 +1,4 @@
+package com.tradestore.infrastructure.repository;
+
+public record BulkInsertFailure(int index, boolean duplicateKey, String message) {
+}
@@ -0,0 +1,7 @@
+package com.tradestore.infrastructure.repository;
+
+import com.tradestore.infrastructure.entity.TradeExpiryWatermarkEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TradeExpiryWatermarkRepository extends JpaRepository<TradeExpiryWatermarkEntity, String> {
+}
@@ -2,26 +2,32 @@ package com.tradestore.infrastructure.repository;
 
 import com.tradestore.infrastructure.entity.TradeEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
-public interface TradeJpaRepository extends JpaRepository<TradeEntity, Long> {
+public interface TradeJpaRepository extends JpaRepository<TradeEntity, Long>, TradeJpaRepositoryCustom {
     
     @Query("SELECT t FROM TradeEntity t WHERE t.tradeId = ?1 ORDER BY t.version DESC")
     List<TradeEntity> findByTradeIdOrderByVersionDesc(String tradeId);
 
-    default Optional<TradeEntity> findFirstByTradeIdOrderByVersionDesc(String tradeId) {
-        return findByTradeIdOrderByVersionDesc(tradeId)
-                .stream()
-                .findFirst();
-    }
+    // Derived, so only the latest row is fetched (LIMIT 1)
+    Optional<TradeEntity> findFirstByTradeIdOrderByVersionDesc(String tradeId);
 
     @Query("SELECT t FROM TradeEntity t WHERE t.tradeId = ?1 AND t.version = ?2")
     Optional<TradeEntity> findByTradeIdAndVersion(String tradeId, Integer version);
 
-    @Query("SELECT t FROM TradeEntity t WHERE t.maturityDate < ?1 AND t.expired = false ORDER BY t.version DESC")
+    @Query("SELECT t FROM TradeEntity t WHERE t.maturityDate < ?1 AND t.expired = false")
     List<TradeEntity> findByMaturityDateBeforeAndExpiredFalse(LocalDate date);
+
+    @Modifying
+    @Query("UPDATE TradeEntity t SET t.expired = true WHERE t.maturityDate = ?1 AND t.expired = false")
+    int expireByMaturityDate(LocalDate maturityDate);
+
+    @Modifying
+    @Query("DELETE FROM TradeEntity t WHERE t.maturityDate >= ?1 AND t.maturityDate < ?2")
+    int deleteByMaturityDateBetween(LocalDate from, LocalDate to);
 } 
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.tradestore.infrastructure.repository;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.entity.TradeEntity;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface TradeJpaRepositoryCustom {
+    // Inserts or overwrites the row for each (trade_id, version) without loading it first
+    void upsert(TradeEntity entity);
+
+    void upsertAll(List<TradeEntity> entities);
+
+    // Inserts the entities whose (trade_id, version) is not stored yet and returns the keys it inserted. Must run in a
+    // transaction, which holds the per-key locks until it ends
+    List<TradeId> insertAllIfAbsent(List<TradeEntity> entities);
+
+    // Keyset page ordered by (trade_id, version) with the filter applied in SQL; after may be null
+    List<TradeEntity> findPageMatching(TradeFilter filter, TradeId after, int limit);
+
+    // Must be consumed inside a transaction for the driver to fetch in chunks
+    Stream<TradeEntity> streamAll(int fetchSize);
+
+    // Fetched lazily in keyset pages of pageSize, so it needs no transaction
+    Stream<TradeEntity> streamMatching(TradeFilter filter, int pageSize);
+
+    // Highest version of each trade, fetched in keyset pages like streamMatching
+    Stream<TradeId> streamLatestVersions(int pageSize);
+
+    // Distinct maturity dates in [from, to) that still have unexpired trades, ascending; from may be null
+    List<LocalDate> findUnexpiredMaturityDatesBetween(LocalDate from, LocalDate to);
+
+    List<TradeEntity> findUnexpiredByTradeIds(Collection<TradeId> tradeIds);
+
+    // Returns the number of rows that changed; the maturity date lets Postgres prune to one partition per trade
+    int expireAll(List<Trade> trades);
+
+    int deleteArchived(List<Trade> trades);
+}
@@ -0,0 +1,282 @@
+package com.tradestore.infrastructure.repository;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.entity.TradeEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class TradeJpaRepositoryCustomImpl implements TradeJpaRepositoryCustom {
+
+    // Keeps one row per trade version; the conflict target must include the partition key
+    private static final String UPSERT_SQL =
+            "INSERT INTO trades (trade_id, version, counter_party_id, book_id, maturity_date, created_date, expired) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (trade_id, version, maturity_date) DO UPDATE SET "
+                    + "counter_party_id = EXCLUDED.counter_party_id, book_id = EXCLUDED.book_id, "
+                    + "created_date = EXCLUDED.created_date, "
+                    + "expired = EXCLUDED.expired";
+
+    // The existence check also catches a version stored under another maturity date, which the conflict target
+    // cannot, since it differs by partition key
+    private static final String INSERT_IF_ABSENT_SQL =
+            "INSERT INTO trades (trade_id, version, counter_party_id, book_id, maturity_date, created_date, expired) "
+                    + "SELECT t.trade_id, t.version, t.counter_party_id, t.book_id, t.maturity_date, t.created_date, t.expired "
+                    + "FROM unnest(?::varchar[], ?::int[], ?::varchar[], ?::varchar[], ?::date[], ?::date[], ?::boolean[]) "
+                    + "AS t (trade_id, version, counter_party_id, book_id, maturity_date, created_date, expired) "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM trades e WHERE e.trade_id = t.trade_id AND e.version = t.version) "
+                    + "ON CONFLICT (trade_id, version, maturity_date) DO NOTHING "
+                    + "RETURNING trade_id, version";
+
+    // Takes the keys' locks in a fixed order so two batches never wait on each other
+    private static final String LOCK_KEYS_SQL =
+            "SELECT count(pg_advisory_xact_lock(k.trade_key, k.version)) "
+                    + "FROM (SELECT DISTINCT hashtext(t.trade_id) AS trade_key, t.version "
+                    + "FROM unnest(?::varchar[], ?::int[]) AS t (trade_id, version) ORDER BY 1, 2) k";
+
+    private static final String EXPIRE_SQL =
+            "UPDATE trades SET expired = true "
+                    + "WHERE trade_id = ? AND version = ? AND maturity_date = ? AND expired = false";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM trades WHERE trade_id = ? AND version = ? AND maturity_date = ?";
+
+    private static final String SELECT_ALL_SQL =
+            "SELECT id, trade_id, version, counter_party_id, book_id, maturity_date, created_date, expired FROM trades";
+
+    private static final String LATEST_VERSIONS_SQL = "SELECT trade_id, max(version) AS version FROM trades";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public TradeJpaRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                                        @Value("${trade.batch.jdbc-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void upsert(TradeEntity entity) {
+        jdbcTemplate.update(UPSERT_SQL, ps -> bind(ps, entity));
+    }
+
+    @Override
+    public void upsertAll(List<TradeEntity> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, entities, batchSize, TradeJpaRepositoryCustomImpl::bind);
+    }
+
+    @Override
+    public List<TradeId> insertAllIfAbsent(List<TradeEntity> entities) {
+        if (entities.isEmpty()) {
+            return List.of();
+        }
+        // The unique index also covers maturity_date, the partition key, so it cannot stop the same (trade_id, version)
+        // being inserted twice with different maturity dates. A transaction-scoped lock per key serializes those
+        // inserts, and the NOT EXISTS check below runs after the lock is held, so it sees a committed competitor.
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(LOCK_KEYS_SQL);
+            ps.setArray(1, connection.createArrayOf("varchar", column(entities, TradeEntity::getTradeId)));
+            ps.setArray(2, connection.createArrayOf("int4", column(entities, TradeEntity::getVersion)));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+        // One statement for the whole batch, so the inserted keys come back without a round trip per row
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_IF_ABSENT_SQL);
+            ps.setArray(1, connection.createArrayOf("varchar", column(entities, TradeEntity::getTradeId)));
+            ps.setArray(2, connection.createArrayOf("int4", column(entities, TradeEntity::getVersion)));
+            ps.setArray(3, connection.createArrayOf("varchar", column(entities, TradeEntity::getCounterPartyId)));
+            ps.setArray(4, connection.createArrayOf("varchar", column(entities, TradeEntity::getBookId)));
+            ps.setArray(5, connection.createArrayOf("date", column(entities, entity -> Date.valueOf(entity.getMaturityDate()))));
+            ps.setArray(6, connection.createArrayOf("date", column(entities, entity -> Date.valueOf(entity.getCreatedDate()))));
+            ps.setArray(7, connection.createArrayOf("boolean", column(entities, TradeEntity::isExpired)));
+            return ps;
+        }, (rs, rowNum) -> toTradeId(rs));
+    }
+
+    @Override
+    public List<TradeEntity> findPageMatching(TradeFilter filter, TradeId after, int limit) {
+        // Only the predicates that are set go into the statement, so the planner can pick a matching index
+        StringBuilder sql = new StringBuilder(SELECT_ALL_SQL).append(" WHERE true");
+        List<Object> args = new ArrayList<>();
+        if (filter.getBookId() != null) {
+            sql.append(" AND book_id = ?");
+            args.add(filter.getBookId());
+        }
+        if (filter.getCounterPartyId() != null) {
+            sql.append(" AND counter_party_id = ?");
+            args.add(filter.getCounterPartyId());
+        }
+        if (filter.getMaturityFrom() != null) {
+            sql.append(" AND maturity_date >= ?");
+            args.add(Date.valueOf(filter.getMaturityFrom()));
+        }
+        if (filter.getMaturityTo() != null) {
+            sql.append(" AND maturity_date <= ?");
+            args.add(Date.valueOf(filter.getMaturityTo()));
+        }
+        if (filter.getExpired() != null) {
+            sql.append(" AND expired = ?");
+            args.add(filter.getExpired());
+        }
+        // Byte-wise, as MongoDB orders strings, rather than the database collation
+        if (after != null) {
+            sql.append(" AND (trade_id COLLATE \"C\", version) > (?, ?)");
+            args.add(after.getTradeId());
+            args.add(after.getVersion());
+        }
+        sql.append(" ORDER BY trade_id COLLATE \"C\", version LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> toEntity(rs), args.toArray());
+    }
+
+    @Override
+    public Stream<TradeEntity> streamAll(int fetchSize) {
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_ALL_SQL);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (rs, rowNum) -> toEntity(rs));
+    }
+
+    @Override
+    public Stream<TradeEntity> streamMatching(TradeFilter filter, int pageSize) {
+        return inPages(last -> findPageMatching(filter,
+                last == null ? null : new TradeId(last.getTradeId(), last.getVersion()), pageSize), pageSize);
+    }
+
+    @Override
+    public Stream<TradeId> streamLatestVersions(int pageSize) {
+        return inPages(last -> last == null
+                ? jdbcTemplate.query(LATEST_VERSIONS_SQL + " GROUP BY trade_id ORDER BY trade_id LIMIT ?",
+                        (rs, rowNum) -> toTradeId(rs), pageSize)
+                : jdbcTemplate.query(LATEST_VERSIONS_SQL + " WHERE trade_id > ? GROUP BY trade_id ORDER BY trade_id LIMIT ?",
+                        (rs, rowNum) -> toTradeId(rs), last.getTradeId(), pageSize), pageSize);
+    }
+
+    @Override
+    public List<LocalDate> findUnexpiredMaturityDatesBetween(LocalDate from, LocalDate to) {
+        // Answered from the partial index on unexpired maturity dates
+        String sql = "SELECT DISTINCT maturity_date FROM trades WHERE expired = false AND maturity_date < ?";
+        RowMapper<LocalDate> dates = (rs, rowNum) -> rs.getDate("maturity_date").toLocalDate();
+        return from == null
+                ? jdbcTemplate.query(sql + " ORDER BY maturity_date", dates, Date.valueOf(to))
+                : jdbcTemplate.query(sql + " AND maturity_date >= ? ORDER BY maturity_date", dates,
+                        Date.valueOf(to), Date.valueOf(from));
+    }
+
+    @Override
+    public List<TradeEntity> findUnexpiredByTradeIds(Collection<TradeId> tradeIds) {
+        if (tradeIds.isEmpty()) {
+            return List.of();
+        }
+        List<TradeId> ids = List.copyOf(tradeIds);
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_ALL_SQL
+                    + " WHERE expired = false AND (trade_id, version) IN (SELECT * FROM unnest(?::varchar[], ?::int[]))");
+            ps.setArray(1, connection.createArrayOf("varchar", column(ids, TradeId::getTradeId)));
+            ps.setArray(2, connection.createArrayOf("int4", column(ids, TradeId::getVersion)));
+            return ps;
+        }, (rs, rowNum) -> toEntity(rs));
+    }
+
+    @Override
+    public int expireAll(List<Trade> trades) {
+        return updateEach(EXPIRE_SQL, trades);
+    }
+
+    @Override
+    public int deleteArchived(List<Trade> trades) {
+        return updateEach(DELETE_SQL, trades);
+    }
+
+    private int updateEach(String sql, List<Trade> trades) {
+        if (trades.isEmpty()) {
+            return 0;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(sql, trades, batchSize, (ps, trade) -> {
+            ps.setString(1, trade.getTradeId().getTradeId());
+            ps.setInt(2, trade.getTradeId().getVersion());
+            ps.setDate(3, Date.valueOf(trade.getMaturityDate()));
+        });
+        return Arrays.stream(counts).flatMapToInt(Arrays::stream).filter(count -> count > 0).sum();
+    }
+
+    // Fetches the page after the last element of the previous one until a page comes back short
+    private static <T> Stream<T> inPages(Function<T, List<T>> pageAfter, int pageSize) {
+        Iterator<T> iterator = new Iterator<>() {
+            private List<T> page;
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                if (page == null || (next == page.size() && page.size() == pageSize)) {
+                    page = pageAfter.apply(page == null ? null : page.get(page.size() - 1));
+                    next = 0;
+                }
+                return next < page.size();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(next++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+    private static <T> Object[] column(List<T> rows, Function<T, Object> value) {
+        return rows.stream().map(value).toArray();
+    }
+
+    private static TradeId toTradeId(ResultSet rs) throws SQLException {
+        return new TradeId(rs.getString("trade_id"), rs.getInt("version"));
+    }
+
+    private static void bind(PreparedStatement ps, TradeEntity entity) throws SQLException {
+        ps.setString(1, entity.getTradeId());
+        ps.setInt(2, entity.getVersion());
+        ps.setString(3, entity.getCounterPartyId());
+        ps.setString(4, entity.getBookId());
+        ps.setDate(5, Date.valueOf(entity.getMaturityDate()));
+        ps.setDate(6, Date.valueOf(entity.getCreatedDate()));
+        ps.setBoolean(7, entity.isExpired());
+    }
+
+    private static TradeEntity toEntity(ResultSet rs) throws SQLException {
+        return TradeEntity.builder()
+                .id(rs.getLong("id"))
+                .tradeId(rs.getString("trade_id"))
+                .version(rs.getInt("version"))
+                .counterPartyId(rs.getString("counter_party_id"))
+                .bookId(rs.getString("book_id"))
+                .maturityDate(rs.getDate("maturity_date").toLocalDate())
+                .createdDate(rs.getDate("created_date").toLocalDate())
+                .expired(rs.getBoolean("expired"))
+                .build();
+    }
+}
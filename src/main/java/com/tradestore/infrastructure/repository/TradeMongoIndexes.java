@@ -0,0 +1,128 @@
+package com.tradestore.infrastructure.repository;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.infrastructure.config.ConditionalOnDatabaseStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ensures the indexes the trade queries rely on exist on the trades collection.
+ */
+@Slf4j
+@Component
+@ConditionalOnDatabaseStorage
+public class TradeMongoIndexes implements HealthIndicator {
+
+    public static final String TRADE_ID_VERSION = "trade_id_version_unique";
+    public static final String UNEXPIRED_MATURITY = "maturity_date_unexpired";
+    public static final String BOOK_SEARCH = "book_id_trade_key_maturity";
+    public static final String COUNTER_PARTY_SEARCH = "counter_party_id_trade_key_maturity";
+
+    public enum State { PENDING, BUILDING, READY, FAILED, DISABLED }
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final Map<String, State> states = new LinkedHashMap<>();
+    private final Map<String, String> errors = new LinkedHashMap<>();
+
+    public TradeMongoIndexes(MongoTemplate mongoTemplate,
+                             @Value("${trade.mongo.indexes.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        for (Index index : definitions()) {
+            states.put(name(index), enabled ? State.PENDING : State.DISABLED);
+        }
+    }
+
+    // Runs off the startup thread so a long build on a large collection does not hold up readiness
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        if (!enabled) {
+            return;
+        }
+        IndexOperations indexOps = mongoTemplate.indexOps(Trade.class);
+        for (Index index : definitions()) {
+            String name = name(index);
+            update(name, State.BUILDING, null);
+            log.info("Ensuring MongoDB index {} on trades", name);
+            long start = System.currentTimeMillis();
+            try {
+                indexOps.ensureIndex(index);
+                update(name, State.READY, null);
+                log.info("MongoDB index {} ready in {} ms", name, System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                update(name, State.FAILED, e.getMessage());
+                log.error("Failed to build MongoDB index {}: {}", name, e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized Health health() {
+        Health.Builder builder = states.containsValue(State.FAILED) ? Health.down() : Health.up();
+        states.forEach((name, state) -> builder.withDetail(name, state));
+        errors.forEach((name, error) -> builder.withDetail(name + ".error", error));
+        return builder.build();
+    }
+
+    public synchronized State getState(String name) {
+        return states.get(name);
+    }
+
+    static List<Index> definitions() {
+        return List.of(
+                new Index()
+                        .on("tradeId.tradeId", Sort.Direction.ASC)
+                        .on("tradeId.version", Sort.Direction.ASC)
+                        .unique()
+                        .named(TRADE_ID_VERSION),
+                // The expiry sweep only looks up unexpired trades by maturity date, so expired ones stay out
+                new Index()
+                        .on("maturityDate", Sort.Direction.ASC)
+                        .partial(PartialIndexFilter.of(Criteria.where("expired").is(false)))
+                        .named(UNEXPIRED_MATURITY),
+                // Filtered search: equality first, then the keyset sort, then the maturity range
+                new Index()
+                        .on("bookId", Sort.Direction.ASC)
+                        .on("tradeId.tradeId", Sort.Direction.ASC)
+                        .on("tradeId.version", Sort.Direction.ASC)
+                        .on("maturityDate", Sort.Direction.ASC)
+                        .named(BOOK_SEARCH),
+                new Index()
+                        .on("counterPartyId", Sort.Direction.ASC)
+                        .on("tradeId.tradeId", Sort.Direction.ASC)
+                        .on("tradeId.version", Sort.Direction.ASC)
+                        .on("maturityDate", Sort.Direction.ASC)
+                        .named(COUNTER_PARTY_SEARCH));
+    }
+
+    private static String name(Index index) {
+        return (String) index.getIndexOptions().get("name");
+    }
+
+    private synchronized void update(String name, State state, String error) {
+        states.put(name, state);
+        if (error == null) {
+            errors.remove(name);
+        } else {
+            errors.put(name, error);
+        }
+    }
+}
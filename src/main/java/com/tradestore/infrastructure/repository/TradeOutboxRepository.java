@@ -0,0 +1,28 @@
+package com.tradestore.infrastructure.repository;
+
+import com.tradestore.infrastructure.entity.TradeOutboxEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface TradeOutboxRepository extends JpaRepository<TradeOutboxEntity, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM TradeOutboxEntity o ORDER BY o.id")
+    List<TradeOutboxEntity> findNextBatch(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE TradeOutboxEntity o SET o.claimedUntil = ?2 WHERE o.id IN ?1")
+    int claim(Collection<Long> ids, Instant until);
+
+    @Modifying
+    @Query("UPDATE TradeOutboxEntity o SET o.claimedUntil = null WHERE o.id IN ?1")
+    int release(Collection<Long> ids);
+}
@@ -9,13 +9,13 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
-public interface TradeRepository extends MongoRepository<Trade, String> {
+public interface TradeRepository extends MongoRepository<Trade, String>, TradeRepositoryCustom {
     @Query(value = "{ 'tradeId.tradeId': ?0 }", sort = "{ 'tradeId.version': -1 }")
     List<Trade> findByTradeIdOrderByVersionDesc(String tradeId);
 
     @Query("{ 'tradeId.tradeId': ?0, 'tradeId.version': ?1 }")
     Optional<Trade> findByTradeIdAndVersion(String tradeId, Integer version);
 
-    @Query(value = "{ 'maturityDate': { $lt: ?0 }, 'expired': false }", sort = "{ 'tradeId.version': -1 }")
+    @Query("{ 'maturityDate': { $lt: ?0 }, 'expired': false }")
     List<Trade> findByMaturityDateBeforeAndExpiredFalse(LocalDate date);
 } 
\ No newline at end of file
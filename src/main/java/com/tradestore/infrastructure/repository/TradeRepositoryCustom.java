@@ -0,0 +1,52 @@
+package com.tradestore.infrastructure.repository;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradeId;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface TradeRepositoryCustom {
+    List<BulkInsertFailure> bulkInsert(List<Trade> trades);
+
+    Stream<TradeId> streamLatestVersions();
+
+    // Keyset page ordered by (tradeId, version); after may be null for the first page
+    List<Trade> findPageAfter(TradeId after, int limit);
+
+    // Same keyset order as findPageAfter, with the filter applied in the query
+    List<Trade> findPageMatching(TradeFilter filter, TradeId after, int limit);
+
+    Stream<Trade> streamAll(int batchSize);
+
+    // Highest version of the trade, read from the (tradeId, version) index
+    Optional<Trade> findLatest(String tradeId);
+
+    // Distinct maturity dates in [from, to) that still have unexpired trades, ascending; from may be null
+    List<LocalDate> findUnexpiredMaturityDatesBetween(LocalDate from, LocalDate to);
+
+    Stream<Trade> streamUnexpiredByMaturityDate(LocalDate maturityDate, int batchSize);
+
+    long expireByMaturityDate(LocalDate maturityDate);
+
+    // Trades maturing in [from, to)
+    long deleteByMaturityDateBetween(LocalDate from, LocalDate to);
+
+    // Only tradeId and maturityDate are populated
+    Stream<Trade> streamUnexpiredMaturities(int batchSize);
+
+    // Only tradeId, bookId, counterPartyId, maturityDate and expired are populated
+    Stream<Trade> streamExposureFields(int batchSize);
+
+    List<Trade> findUnexpiredByTradeIds(Collection<TradeId> tradeIds);
+
+    long expireByTradeIds(Collection<TradeId> tradeIds);
+
+    Stream<Trade> streamExpiredBefore(LocalDate cutoff, int batchSize);
+
+    long deleteByTradeIds(Collection<TradeId> tradeIds);
+}
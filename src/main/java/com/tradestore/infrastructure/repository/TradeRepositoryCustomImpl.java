@@ -0,0 +1,209 @@
+package com.tradestore.infrastructure.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradeId;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class TradeRepositoryCustomImpl implements TradeRepositoryCustom {
+
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<BulkInsertFailure> bulkInsert(List<Trade> trades) {
+        if (trades.isEmpty()) {
+            return List.of();
+        }
+        try {
+            // Unordered so that one failing document does not stop the rest of the batch
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Trade.class)
+                    .insert(trades)
+                    .execute();
+            return List.of();
+        } catch (BulkOperationException e) {
+            return e.getErrors().stream()
+                    .map(TradeRepositoryCustomImpl::toFailure)
+                    .toList();
+        }
+    }
+
+    @Override
+    public Stream<TradeId> streamLatestVersions() {
+        TypedAggregation<Trade> aggregation = Aggregation.newAggregation(Trade.class,
+                        Aggregation.group("tradeId.tradeId").max("tradeId.version").as("version"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        return mongoTemplate.aggregateStream(aggregation, Document.class)
+                .map(document -> new TradeId(document.getString("_id"), document.getInteger("version")));
+    }
+
+    @Override
+    public Optional<Trade> findLatest(String tradeId) {
+        Query query = Query.query(Criteria.where("tradeId.tradeId").is(tradeId))
+                .with(Sort.by(Sort.Direction.DESC, "tradeId.version"))
+                .limit(1);
+        return Optional.ofNullable(mongoTemplate.findOne(query, Trade.class));
+    }
+
+    @Override
+    public List<Trade> findPageAfter(TradeId after, int limit) {
+        return findPageMatching(new TradeFilter(), after, limit);
+    }
+
+    @Override
+    public List<Trade> findPageMatching(TradeFilter filter, TradeId after, int limit) {
+        Query query = new Query()
+                .with(Sort.by("tradeId.tradeId", "tradeId.version"))
+                .limit(limit);
+        if (filter.getBookId() != null) {
+            query.addCriteria(Criteria.where("bookId").is(filter.getBookId()));
+        }
+        if (filter.getCounterPartyId() != null) {
+            query.addCriteria(Criteria.where("counterPartyId").is(filter.getCounterPartyId()));
+        }
+        if (filter.getMaturityFrom() != null || filter.getMaturityTo() != null) {
+            Criteria maturity = Criteria.where("maturityDate");
+            if (filter.getMaturityFrom() != null) {
+                maturity = maturity.gte(filter.getMaturityFrom());
+            }
+            if (filter.getMaturityTo() != null) {
+                maturity = maturity.lte(filter.getMaturityTo());
+            }
+            query.addCriteria(maturity);
+        }
+        if (filter.getExpired() != null) {
+            query.addCriteria(Criteria.where("expired").is(filter.getExpired()));
+        }
+        if (after != null) {
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("tradeId.tradeId").gt(after.getTradeId()),
+                    Criteria.where("tradeId.tradeId").is(after.getTradeId())
+                            .and("tradeId.version").gt(after.getVersion())));
+        }
+        return mongoTemplate.find(query, Trade.class);
+    }
+
+    @Override
+    public Stream<Trade> streamAll(int batchSize) {
+        return mongoTemplate.stream(new Query().cursorBatchSize(batchSize), Trade.class);
+    }
+
+    @Override
+    public List<LocalDate> findUnexpiredMaturityDatesBetween(LocalDate from, LocalDate to) {
+        Criteria maturity = Criteria.where("maturityDate").lt(to);
+        if (from != null) {
+            maturity = maturity.gte(from);
+        }
+        Query query = Query.query(maturity.and("expired").is(false));
+        // Read raw dates and convert them the same way the mapping layer stored them
+        return mongoTemplate.findDistinct(query, "maturityDate", Trade.class, Date.class).stream()
+                .map(value -> mongoTemplate.getConverter().getConversionService().convert(value, LocalDate.class))
+                .sorted()
+                .toList();
+    }
+
+    @Override
+    public Stream<Trade> streamUnexpiredByMaturityDate(LocalDate maturityDate, int batchSize) {
+        return mongoTemplate.stream(unexpiredOn(maturityDate).cursorBatchSize(batchSize), Trade.class);
+    }
+
+    @Override
+    public long expireByMaturityDate(LocalDate maturityDate) {
+        return mongoTemplate.updateMulti(unexpiredOn(maturityDate), Update.update("expired", true), Trade.class)
+                .getModifiedCount();
+    }
+
+    @Override
+    public long deleteByMaturityDateBetween(LocalDate from, LocalDate to) {
+        return mongoTemplate.remove(Query.query(Criteria.where("maturityDate").gte(from).lt(to)), Trade.class)
+                .getDeletedCount();
+    }
+
+    @Override
+    public Stream<Trade> streamUnexpiredMaturities(int batchSize) {
+        Query query = Query.query(Criteria.where("expired").is(false)).cursorBatchSize(batchSize);
+        query.fields().include("tradeId", "maturityDate");
+        return mongoTemplate.stream(query, Trade.class);
+    }
+
+    @Override
+    public Stream<Trade> streamExposureFields(int batchSize) {
+        Query query = new Query().cursorBatchSize(batchSize);
+        query.fields().include("tradeId", "bookId", "counterPartyId", "maturityDate", "expired");
+        return mongoTemplate.stream(query, Trade.class);
+    }
+
+    @Override
+    public List<Trade> findUnexpiredByTradeIds(Collection<TradeId> tradeIds) {
+        if (tradeIds.isEmpty()) {
+            return List.of();
+        }
+        return mongoTemplate.find(unexpiredWithIds(tradeIds), Trade.class);
+    }
+
+    @Override
+    public long expireByTradeIds(Collection<TradeId> tradeIds) {
+        if (tradeIds.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.updateMulti(unexpiredWithIds(tradeIds), Update.update("expired", true), Trade.class)
+                .getModifiedCount();
+    }
+
+    @Override
+    public Stream<Trade> streamExpiredBefore(LocalDate cutoff, int batchSize) {
+        Query query = Query.query(Criteria.where("maturityDate").lt(cutoff).and("expired").is(true))
+                .cursorBatchSize(batchSize);
+        return mongoTemplate.stream(query, Trade.class);
+    }
+
+    @Override
+    public long deleteByTradeIds(Collection<TradeId> tradeIds) {
+        if (tradeIds.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.remove(Query.query(withIds(tradeIds)), Trade.class).getDeletedCount();
+    }
+
+    private static Query unexpiredWithIds(Collection<TradeId> tradeIds) {
+        return Query.query(withIds(tradeIds).and("expired").is(false));
+    }
+
+    // Matches on the embedded id rather than _id so documents with legacy ObjectIds are included
+    private static Criteria withIds(Collection<TradeId> tradeIds) {
+        Criteria[] matches = tradeIds.stream()
+                .map(tradeId -> Criteria.where("tradeId.tradeId").is(tradeId.getTradeId())
+                        .and("tradeId.version").is(tradeId.getVersion()))
+                .toArray(Criteria[]::new);
+        return new Criteria().orOperator(matches);
+    }
+
+    private static Query unexpiredOn(LocalDate maturityDate) {
+        return Query.query(Criteria.where("maturityDate").is(maturityDate).and("expired").is(false));
+    }
+
+    private static BulkInsertFailure toFailure(BulkWriteError error) {
+        return new BulkInsertFailure(error.getIndex(), error.getCode() == DUPLICATE_KEY_ERROR, error.getMessage());
+    }
+}
@@ -0,0 +1,34 @@
+package com.tradestore.infrastructure.repository;
+
+import com.tradestore.infrastructure.entity.TradeShardLeaseEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface TradeShardLeaseRepository extends JpaRepository<TradeShardLeaseEntity, Integer> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE TradeShardLeaseEntity l SET l.leaseUntil = ?2 WHERE l.owner = ?1 AND l.leaseUntil > ?3")
+    int renew(String owner, Instant until, Instant now);
+
+    // Succeeds only if the shard is free, its lease has run out, or the caller already holds it
+    @Transactional
+    @Modifying
+    @Query("UPDATE TradeShardLeaseEntity l SET l.owner = ?2, l.leaseUntil = ?3 "
+            + "WHERE l.shard = ?1 AND (l.owner IS NULL OR l.owner = ?2 OR l.leaseUntil < ?4)")
+    int claim(Integer shard, String owner, Instant until, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO trade_shard_lease (shard) VALUES (?1) ON CONFLICT (shard) DO NOTHING", nativeQuery = true)
+    int insertIfMissing(Integer shard);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE TradeShardLeaseEntity l SET l.owner = NULL, l.leaseUntil = NULL WHERE l.shard = ?1 AND l.owner = ?2")
+    int release(Integer shard, String owner);
+}
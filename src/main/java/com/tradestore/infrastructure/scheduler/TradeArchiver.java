@@ -0,0 +1,87 @@
+package com.tradestore.infrastructure.scheduler;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.infrastructure.archive.TradeArchive;
+import com.tradestore.infrastructure.config.ConditionalOnDatabaseStorage;
+import com.tradestore.infrastructure.store.TradeStore;
+import com.tradestore.infrastructure.store.TradeStores;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Moves trades that expired long ago out of the written trade stores into the local segment archive.
+ */
+@Slf4j
+@Component
+@ConditionalOnDatabaseStorage
+public class TradeArchiver {
+
+    private final TradeStores stores;
+    private final TradeArchive archive;
+    private final boolean enabled;
+    private final int retainDays;
+    private final int segmentSize;
+    private final int fetchSize;
+
+    public TradeArchiver(TradeStores stores,
+                         TradeArchive archive,
+                         @Value("${trade.archive.enabled:false}") boolean enabled,
+                         @Value("${trade.archive.retain-days:90}") int retainDays,
+                         @Value("${trade.archive.segment-size:100000}") int segmentSize,
+                         @Value("${trade.query.fetch-size:500}") int fetchSize) {
+        this.stores = stores;
+        this.archive = archive;
+        this.enabled = enabled;
+        this.retainDays = retainDays;
+        this.segmentSize = segmentSize;
+        this.fetchSize = fetchSize;
+    }
+
+    @Scheduled(cron = "${trade.archive.cron:0 0 3 * * ?}")
+    public void archiveExpiredTrades() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveExpiredBefore(LocalDate.now().minusDays(retainDays));
+        } catch (Exception e) {
+            log.error("Error archiving expired trades: {}", e.getMessage(), e);
+        }
+    }
+
+    long archiveExpiredBefore(LocalDate cutoff) {
+        long archived = 0;
+        List<Trade> buffer = new ArrayList<>();
+        try (Stream<Trade> trades = stores.primary().streamExpiredBefore(cutoff, fetchSize)) {
+            Iterator<Trade> iterator = trades.iterator();
+            while (iterator.hasNext()) {
+                buffer.add(iterator.next());
+                if (buffer.size() == segmentSize || !iterator.hasNext()) {
+                    archived += moveToArchive(buffer);
+                    buffer = new ArrayList<>();
+                }
+            }
+        }
+        log.info("Archived {} trades that matured before {}", archived, cutoff);
+        return archived;
+    }
+
+    // The segment is durable before the hot copies go, so a failure in between only leaves a duplicate.
+    // The primary goes last because it drives the next run.
+    private int moveToArchive(List<Trade> trades) {
+        archive.archive(trades);
+        List<TradeStore> written = stores.written();
+        Collections.reverse(written);
+        written.forEach(store -> store.deleteArchived(trades));
+        return trades.size();
+    }
+}
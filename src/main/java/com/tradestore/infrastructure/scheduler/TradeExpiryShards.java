@@ -0,0 +1,169 @@
+package com.tradestore.infrastructure.scheduler;
+
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.config.ConditionalOnDatabaseStorage;
+import com.tradestore.infrastructure.entity.TradeShardLeaseEntity;
+import com.tradestore.infrastructure.repository.TradeShardLeaseRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Splits expiry work into tradeId-hash shards and leases them to nodes through the
+ * trade_shard_lease table. Each node renews its leases on a heartbeat and claims or releases
+ * shards to hold an even share of them. Leases that are not renewed expire, and their shards
+ * are picked up by the remaining nodes.
+ */
+@Slf4j
+@Component
+@ConditionalOnDatabaseStorage
+public class TradeExpiryShards {
+
+    private final TradeShardLeaseRepository leaseRepository;
+    private final boolean enabled;
+    private final int shardCount;
+    private final Duration leaseTtl;
+    private final String nodeId;
+    private volatile Set<Integer> ownedShards = Set.of();
+    private volatile Instant ownedUntil = Instant.MIN;
+    private boolean initialized;
+
+    public TradeExpiryShards(TradeShardLeaseRepository leaseRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${trade.expiration.sharding.enabled:false}") boolean enabled,
+                             @Value("${trade.expiration.sharding.shards:16}") int shardCount,
+                             @Value("${trade.expiration.sharding.lease-ttl-ms:30000}") long leaseTtlMs) {
+        this.leaseRepository = leaseRepository;
+        this.enabled = enabled;
+        this.shardCount = shardCount;
+        this.leaseTtl = Duration.ofMillis(leaseTtlMs);
+        this.nodeId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+        Gauge.builder("trade.expiration.shards.owned", this, shards -> shards.ownedShards.size())
+                .description("Expiry shards leased by this node")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean owns(TradeId tradeId) {
+        if (!enabled) {
+            return true;
+        }
+        // Stop working on shards as soon as the lease may have lapsed
+        return Instant.now().isBefore(ownedUntil) && ownedShards.contains(shardOf(tradeId));
+    }
+
+    public boolean ownsShard(int shard) {
+        return !enabled || (Instant.now().isBefore(ownedUntil) && ownedShards.contains(shard));
+    }
+
+    public int shardOf(TradeId tradeId) {
+        return Math.floorMod(tradeId.getTradeId().hashCode(), shardCount);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Set<Integer> getOwnedShards() {
+        return ownedShards;
+    }
+
+    // Owned shards while the lease is still safely held, empty once it may have lapsed
+    public Set<Integer> currentShards() {
+        return Instant.now().isBefore(ownedUntil) ? ownedShards : Set.of();
+    }
+
+    @Scheduled(fixedDelayString = "${trade.expiration.sharding.heartbeat-ms:10000}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!initialized) {
+                createMissingShards();
+                initialized = true;
+            }
+            rebalance();
+        } catch (Exception e) {
+            ownedShards = Set.of();
+            log.error("Expiry shard heartbeat failed on {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private void rebalance() {
+        Instant now = Instant.now();
+        Instant until = now.plus(leaseTtl);
+        leaseRepository.renew(nodeId, until, now);
+
+        List<TradeShardLeaseEntity> leases = leaseRepository.findAll();
+        Set<Integer> owned = new TreeSet<>();
+        Set<String> liveNodes = new HashSet<>(Set.of(nodeId));
+        for (TradeShardLeaseEntity lease : leases) {
+            boolean live = lease.getOwner() != null && lease.getLeaseUntil() != null && lease.getLeaseUntil().isAfter(now);
+            if (live) {
+                liveNodes.add(lease.getOwner());
+                if (nodeId.equals(lease.getOwner())) {
+                    owned.add(lease.getShard());
+                }
+            }
+        }
+
+        int fairShare = (shardCount + liveNodes.size() - 1) / liveNodes.size();
+        // Hand back surplus one shard per heartbeat so that a new node gets its share without churn
+        if (owned.size() > fairShare) {
+            Integer surplus = ((TreeSet<Integer>) owned).last();
+            if (leaseRepository.release(surplus, nodeId) > 0) {
+                owned.remove(surplus);
+                log.info("Node {} released expiry shard {}", nodeId, surplus);
+            }
+        }
+        for (TradeShardLeaseEntity lease : leases) {
+            if (owned.size() >= fairShare) {
+                break;
+            }
+            boolean free = lease.getOwner() == null || lease.getLeaseUntil() == null || lease.getLeaseUntil().isBefore(now);
+            if (free && leaseRepository.claim(lease.getShard(), nodeId, until, now) > 0) {
+                owned.add(lease.getShard());
+                log.info("Node {} claimed expiry shard {}", nodeId, lease.getShard());
+            }
+        }
+
+        ownedShards = Set.copyOf(owned);
+        // Leave headroom for clock skew between nodes before another node may take the shards over
+        ownedUntil = now.plus(leaseTtl.dividedBy(2));
+    }
+
+    private void createMissingShards() {
+        Set<Integer> existing = new HashSet<>();
+        leaseRepository.findAll().forEach(lease -> existing.add(lease.getShard()));
+        for (int shard = 0; shard < shardCount; shard++) {
+            if (!existing.contains(shard)) {
+                leaseRepository.insertIfMissing(shard);
+            }
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+}
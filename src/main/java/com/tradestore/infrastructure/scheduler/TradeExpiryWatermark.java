@@ -0,0 +1,57 @@
+package com.tradestore.infrastructure.scheduler;
+
+import com.tradestore.infrastructure.config.ConditionalOnDatabaseStorage;
+import com.tradestore.infrastructure.entity.TradeExpiryWatermarkEntity;
+import com.tradestore.infrastructure.repository.TradeExpiryWatermarkRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Last maturity date whose trades have all been expired, kept per expiry scope so that the
+ * sweep only scans dates from there onwards.
+ */
+@Component
+@ConditionalOnDatabaseStorage
+@RequiredArgsConstructor
+public class TradeExpiryWatermark {
+
+    public static final String ALL = "all";
+
+    private final TradeExpiryWatermarkRepository watermarkRepository;
+
+    public static String shardScope(int shard) {
+        return "shard-" + shard;
+    }
+
+    // Earliest watermark across the scopes, or null if any scope has never completed a run
+    public LocalDate lowerBound(Collection<String> scopes) {
+        Map<String, LocalDate> watermarks = load(scopes);
+        if (watermarks.size() < scopes.size()) {
+            return null;
+        }
+        return watermarks.values().stream().min(LocalDate::compareTo).orElse(null);
+    }
+
+    public void advance(Collection<String> scopes, LocalDate processedThrough) {
+        Map<String, LocalDate> watermarks = load(scopes);
+        List<TradeExpiryWatermarkEntity> updates = scopes.stream()
+                .filter(scope -> watermarks.get(scope) == null || watermarks.get(scope).isBefore(processedThrough))
+                .map(scope -> new TradeExpiryWatermarkEntity(scope, processedThrough))
+                .toList();
+        if (!updates.isEmpty()) {
+            watermarkRepository.saveAll(updates);
+        }
+    }
+
+    private Map<String, LocalDate> load(Collection<String> scopes) {
+        return watermarkRepository.findAllById(scopes).stream()
+                .collect(Collectors.toMap(TradeExpiryWatermarkEntity::getScope,
+                        TradeExpiryWatermarkEntity::getProcessedThrough));
+    }
+}
@@ -0,0 +1,101 @@
+package com.tradestore.infrastructure.scheduler;
+
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.domain.service.TradeService;
+import com.tradestore.infrastructure.cache.TradeMaturityIndex;
+import com.tradestore.infrastructure.config.ConditionalOnDatabaseStorage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Advances through the maturity index one tick at a time and expires trades once their maturity
+ * date has passed, a small batch per tick. Under sharding a node only expires trades in the shards it
+ * leases: it loads their due trades from the store when it claims a shard and when the day turns, since
+ * trades written on other nodes never reach its index. The nightly sweep in {@link TradeExpirationScheduler}
+ * still catches anything the wheel missed.
+ */
+@Slf4j
+@Component
+@ConditionalOnDatabaseStorage
+@RequiredArgsConstructor
+public class TradeExpiryWheel {
+
+    private final TradeMaturityIndex maturityIndex;
+    private final TradeService tradeService;
+    private final TradeExpiryShards expiryShards;
+
+    @Value("${trade.expiration.wheel.enabled:true}")
+    private boolean enabled;
+
+    @Value("${trade.expiration.wheel.batch-size:500}")
+    private int batchSize;
+
+    private Set<Integer> loadedShards = Set.of();
+    private LocalDate loadedFor;
+
+    @Scheduled(fixedDelayString = "${trade.expiration.wheel.tick-ms:1000}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        Predicate<TradeId> owned = tradeId -> true;
+        if (expiryShards.isEnabled()) {
+            Set<Integer> shards = expiryShards.currentShards();
+            if (shards.isEmpty()) {
+                // Shards claimed again later are reloaded in full
+                loadedShards = Set.of();
+                return;
+            }
+            owned = tradeId -> shards.contains(expiryShards.shardOf(tradeId));
+            loadDue(today, shards);
+        } else if (!today.equals(loadedFor) && loadDue(today, owned)) {
+            loadedFor = today;
+        }
+
+        List<TradeId> due = maturityIndex.pollDue(today, batchSize, owned);
+        if (due.isEmpty()) {
+            return;
+        }
+        try {
+            int expired = tradeService.expireTrades(due);
+            log.debug("Expiry wheel expired {} of {} due trades", expired, due.size());
+        } catch (Exception e) {
+            // Put them back so the next tick retries
+            due.forEach(tradeId -> maturityIndex.add(tradeId, today.minusDays(1)));
+            log.error("Expiry wheel failed for {} trades: {}", due.size(), e.getMessage());
+        }
+    }
+
+    private void loadDue(LocalDate today, Set<Integer> shards) {
+        // Newly claimed shards, or all of them once the day turns and more trades fall due
+        Set<Integer> claimed = new HashSet<>(shards);
+        if (today.equals(loadedFor)) {
+            claimed.removeAll(loadedShards);
+        }
+        if (claimed.isEmpty() || loadDue(today, tradeId -> claimed.contains(expiryShards.shardOf(tradeId)))) {
+            loadedShards = shards;
+            loadedFor = today;
+        }
+    }
+
+    private boolean loadDue(LocalDate today, Predicate<TradeId> filter) {
+        try {
+            int loaded = maturityIndex.loadDue(today, filter);
+            log.debug("Expiry wheel loaded {} due trades from the store", loaded);
+            return true;
+        } catch (Exception e) {
+            log.error("Expiry wheel failed to load due trades: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.tradestore.infrastructure.scheduler;
+
+import com.tradestore.infrastructure.config.ConditionalOnEmbeddedStorage;
+import com.tradestore.infrastructure.tradelog.TradeLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Flushes the embedded trade log to disk and compacts segments that are mostly superseded records.
+ * Writes between flushes survive a process crash but not a host crash.
+ */
+@Slf4j
+@Component
+@ConditionalOnEmbeddedStorage
+public class TradeLogMaintenance {
+
+    private final TradeLog tradeLog;
+    private final double minDeadRatio;
+
+    public TradeLogMaintenance(TradeLog tradeLog,
+                               @Value("${trade.log.compaction.min-dead-ratio:0.5}") double minDeadRatio) {
+        this.tradeLog = tradeLog;
+        this.minDeadRatio = minDeadRatio;
+    }
+
+    @Scheduled(fixedDelayString = "${trade.log.flush-interval-ms:1000}")
+    public void flush() {
+        try {
+            tradeLog.flush();
+        } catch (Exception e) {
+            log.error("Error flushing trade log: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(cron = "${trade.log.compaction.cron:0 0 4 * * ?}")
+    public void compact() {
+        try {
+            int compacted = tradeLog.compact(minDeadRatio);
+            log.info("Compacted {} trade log segments", compacted);
+        } catch (Exception e) {
+            log.error("Error compacting trade log: {}", e.getMessage(), e);
+        }
+    }
+}
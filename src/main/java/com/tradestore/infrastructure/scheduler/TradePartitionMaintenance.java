@@ -0,0 +1,187 @@
+package com.tradestore.infrastructure.scheduler;
+
+import com.tradestore.infrastructure.config.ConditionalOnDatabaseStorage;
+import com.tradestore.infrastructure.store.TradeStore;
+import com.tradestore.infrastructure.store.TradeStores;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps monthly maturity_date partitions of the Postgres trades table ahead of time and retires fully
+ * expired partitions by detaching them. The other written stores drop the same month in the same step.
+ */
+@Slf4j
+@Component
+@ConditionalOnDatabaseStorage
+public class TradePartitionMaintenance {
+
+    static final String PARTITION_PREFIX = "trades_p";
+    static final String ARCHIVE_PREFIX = "trades_archive_p";
+    static final String DEFAULT_PARTITION = "trades_default";
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    // Serialises maintenance across nodes for the duration of each transaction
+    private static final long LOCK_KEY = 0x7472616465L;
+    private static final String COLUMNS =
+            "id, trade_id, version, counter_party_id, book_id, maturity_date, created_date, expired";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TradeStores stores;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    // detach | drop
+    private final String retentionAction;
+
+    public TradePartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     TradeStores stores,
+                                     @Value("${trade.partitions.enabled:true}") boolean enabled,
+                                     @Value("${trade.partitions.months-ahead:3}") int monthsAhead,
+                                     @Value("${trade.partitions.retention-months:12}") int retentionMonths,
+                                     @Value("${trade.partitions.retention-action:detach}") String retentionAction) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.stores = stores;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.retentionAction = retentionAction;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${trade.partitions.cron:0 0 2 * * ?}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            createAhead(today);
+            retireExpired(today);
+        } catch (Exception e) {
+            log.error("Trade partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    List<YearMonth> createAhead(LocalDate today) {
+        List<YearMonth> created = new ArrayList<>();
+        YearMonth current = YearMonth.from(today);
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> createPartition(month)))) {
+                created.add(month);
+            }
+        }
+        return created;
+    }
+
+    List<YearMonth> retireExpired(LocalDate today) {
+        List<YearMonth> retired = new ArrayList<>();
+        YearMonth cutoff = YearMonth.from(today).minusMonths(retentionMonths);
+        for (String partition : partitions()) {
+            YearMonth month = monthOf(partition);
+            if (month == null || !month.isBefore(cutoff)) {
+                continue;
+            }
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> retirePartition(partition, month)))) {
+                retired.add(month);
+            }
+        }
+        return retired;
+    }
+
+    private boolean createPartition(YearMonth month) {
+        String name = PARTITION_PREFIX + month.format(SUFFIX);
+        lock();
+        if (exists(name)) {
+            return false;
+        }
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        // Attaching next to a default partition fails while it holds rows for the new range, so move them first
+        jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE trades INCLUDING DEFAULTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                + " WHERE maturity_date >= '" + from + "' AND maturity_date < '" + to + "' RETURNING " + COLUMNS + ") "
+                + "INSERT INTO " + name + " (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved");
+        jdbcTemplate.execute("ALTER TABLE trades ATTACH PARTITION " + name
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        log.info("Created trade partition {} ({} rows moved from {})", name, moved, DEFAULT_PARTITION);
+        return true;
+    }
+
+    private boolean retirePartition(String partition, YearMonth month) {
+        lock();
+        if (!exists(partition)) {
+            return false;
+        }
+        // A partition is only retired once the expiry sweep has marked every row in it
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + partition + " WHERE expired = false)", Boolean.class))) {
+            log.warn("Trade partition {} is past retention but still holds unexpired trades", partition);
+            return false;
+        }
+        // Before the detach commits, so a failure here leaves the partition attached for the next run
+        retireFromOtherStores(month);
+        jdbcTemplate.execute("ALTER TABLE trades DETACH PARTITION " + partition);
+        if ("drop".equals(retentionAction)) {
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            log.info("Dropped expired trade partition {}", partition);
+        } else {
+            String archive = ARCHIVE_PREFIX + month.format(SUFFIX);
+            jdbcTemplate.execute("ALTER TABLE " + partition + " RENAME TO " + archive);
+            log.info("Detached expired trade partition {} as {}", partition, archive);
+        }
+        return true;
+    }
+
+    private void retireFromOtherStores(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        for (TradeStore store : stores.written()) {
+            if (store.kind() != TradeStore.Kind.POSTGRES) {
+                long deleted = store.deleteMaturingBetween(from, to);
+                log.info("Removed {} trades maturing in {} from {}", deleted, month, store.kind());
+            }
+        }
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = 'trades'::regclass ORDER BY c.relname", String.class);
+    }
+
+    private boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+
+    private void lock() {
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)::text", String.class, LOCK_KEY);
+    }
+
+    static YearMonth monthOf(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.tradestore.infrastructure.store;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.config.ConditionalOnDatabaseStorage;
+import com.tradestore.infrastructure.repository.BulkInsertFailure;
+import com.tradestore.infrastructure.repository.TradeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Component
+@ConditionalOnDatabaseStorage
+@RequiredArgsConstructor
+public class MongoTradeStore implements TradeStore {
+
+    private final TradeRepository mongoRepository;
+
+    @Override
+    public Kind kind() {
+        return Kind.MONGO;
+    }
+
+    @Override
+    public boolean transactional() {
+        return false;
+    }
+
+    @Override
+    public Trade insert(Trade trade) {
+        // The composite key makes the insert fail atomically on duplicates
+        return mongoRepository.insert(trade);
+    }
+
+    @Override
+    public List<BulkInsertFailure> insertAll(List<Trade> trades) {
+        return mongoRepository.bulkInsert(trades);
+    }
+
+    @Override
+    public void saveAll(List<Trade> trades) {
+        mongoRepository.saveAll(trades);
+    }
+
+    @Override
+    public void delete(Trade trade) {
+        mongoRepository.deleteById(trade.getTradeId().key());
+    }
+
+    @Override
+    public Optional<Trade> findById(String tradeId, int version) {
+        // Documents written before composite keys were introduced still carry an ObjectId
+        return mongoRepository.findById(new TradeId(tradeId, version).key())
+                .or(() -> mongoRepository.findByTradeIdAndVersion(tradeId, version));
+    }
+
+    @Override
+    public Optional<Trade> findLatest(String tradeId) {
+        return mongoRepository.findLatest(tradeId);
+    }
+
+    @Override
+    public List<Trade> findVersions(String tradeId) {
+        return mongoRepository.findByTradeIdOrderByVersionDesc(tradeId);
+    }
+
+    @Override
+    public List<Trade> findAll() {
+        return mongoRepository.findAll();
+    }
+
+    @Override
+    public List<Trade> findPageMatching(TradeFilter filter, TradeId after, int limit) {
+        return mongoRepository.findPageMatching(filter, after, limit);
+    }
+
+    @Override
+    public Stream<Trade> streamAll(int batchSize) {
+        return mongoRepository.streamAll(batchSize);
+    }
+
+    @Override
+    public List<LocalDate> findUnexpiredMaturityDatesBetween(LocalDate from, LocalDate to) {
+        return mongoRepository.findUnexpiredMaturityDatesBetween(from, to);
+    }
+
+    @Override
+    public Stream<Trade> streamUnexpiredByMaturityDate(LocalDate maturityDate, int batchSize) {
+        return mongoRepository.streamUnexpiredByMaturityDate(maturityDate, batchSize);
+    }
+
+    @Override
+    public List<Trade> findUnexpiredByTradeIds(Collection<TradeId> tradeIds) {
+        return mongoRepository.findUnexpiredByTradeIds(tradeIds);
+    }
+
+    @Override
+    public long expireByMaturityDate(LocalDate maturityDate) {
+        return mongoRepository.expireByMaturityDate(maturityDate);
+    }
+
+    @Override
+    public long expireAll(List<Trade> trades) {
+        return mongoRepository.expireByTradeIds(trades.stream().map(Trade::getTradeId).toList());
+    }
+
+    @Override
+    public Stream<TradeId> streamLatestVersions() {
+        return mongoRepository.streamLatestVersions();
+    }
+
+    @Override
+    public Stream<Trade> streamUnexpiredMaturities(int batchSize) {
+        return mongoRepository.streamUnexpiredMaturities(batchSize);
+    }
+
+    @Override
+    public Stream<Trade> streamExposureFields(int batchSize) {
+        return mongoRepository.streamExposureFields(batchSize);
+    }
+
+    @Override
+    public Stream<Trade> streamExpiredBefore(LocalDate cutoff, int batchSize) {
+        return mongoRepository.streamExpiredBefore(cutoff, batchSize);
+    }
+
+    @Override
+    public long deleteArchived(List<Trade> trades) {
+        return mongoRepository.deleteByTradeIds(trades.stream().map(Trade::getTradeId).toList());
+    }
+
+    @Override
+    public long deleteMaturingBetween(LocalDate from, LocalDate to) {
+        return mongoRepository.deleteByMaturityDateBetween(from, to);
+    }
+}
@@ -0,0 +1,175 @@
+package com.tradestore.infrastructure.store;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.config.ConditionalOnDatabaseStorage;
+import com.tradestore.infrastructure.mapper.TradeMapper;
+import com.tradestore.infrastructure.repository.BulkInsertFailure;
+import com.tradestore.infrastructure.repository.TradeJpaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@Component
+@ConditionalOnDatabaseStorage
+@RequiredArgsConstructor
+public class PostgresTradeStore implements TradeStore {
+
+    // Keys are small, so the startup scan of latest versions can take large pages
+    private static final int LATEST_VERSIONS_PAGE_SIZE = 5000;
+
+    private final TradeJpaRepository jpaRepository;
+    private final TradeMapper tradeMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public Kind kind() {
+        return Kind.POSTGRES;
+    }
+
+    @Override
+    public boolean transactional() {
+        return true;
+    }
+
+    @Override
+    public Trade insert(Trade trade) {
+        if (insertAllIfAbsent(List.of(trade)).isEmpty()) {
+            throw new DuplicateKeyException("Trade " + trade.getTradeId().key() + " already exists");
+        }
+        return trade;
+    }
+
+    @Override
+    public List<BulkInsertFailure> insertAll(List<Trade> trades) {
+        Set<TradeId> inserted = new HashSet<>(insertAllIfAbsent(trades));
+        List<BulkInsertFailure> failures = new ArrayList<>();
+        for (int i = 0; i < trades.size(); i++) {
+            if (!inserted.contains(trades.get(i).getTradeId())) {
+                failures.add(new BulkInsertFailure(i, true, "Trade with same ID and version already exists"));
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public void saveAll(List<Trade> trades) {
+        jpaRepository.upsertAll(trades.stream().map(tradeMapper::toEntity).toList());
+    }
+
+    @Override
+    public void delete(Trade trade) {
+        jpaRepository.deleteArchived(List.of(trade));
+    }
+
+    @Override
+    public Optional<Trade> findById(String tradeId, int version) {
+        return jpaRepository.findByTradeIdAndVersion(tradeId, version).map(tradeMapper::toDomain);
+    }
+
+    @Override
+    public Optional<Trade> findLatest(String tradeId) {
+        return jpaRepository.findFirstByTradeIdOrderByVersionDesc(tradeId).map(tradeMapper::toDomain);
+    }
+
+    @Override
+    public List<Trade> findVersions(String tradeId) {
+        return jpaRepository.findByTradeIdOrderByVersionDesc(tradeId).stream().map(tradeMapper::toDomain).toList();
+    }
+
+    @Override
+    public List<Trade> findAll() {
+        return jpaRepository.findAll().stream().map(tradeMapper::toDomain).toList();
+    }
+
+    @Override
+    public List<Trade> findPageMatching(TradeFilter filter, TradeId after, int limit) {
+        return jpaRepository.findPageMatching(filter, after, limit).stream().map(tradeMapper::toDomain).toList();
+    }
+
+    // Must be consumed inside a transaction for the driver to fetch in chunks
+    @Override
+    public Stream<Trade> streamAll(int batchSize) {
+        return jpaRepository.streamAll(batchSize).map(tradeMapper::toDomain);
+    }
+
+    @Override
+    public List<LocalDate> findUnexpiredMaturityDatesBetween(LocalDate from, LocalDate to) {
+        return jpaRepository.findUnexpiredMaturityDatesBetween(from, to);
+    }
+
+    @Override
+    public Stream<Trade> streamUnexpiredByMaturityDate(LocalDate maturityDate, int batchSize) {
+        return streamMatching(TradeFilter.builder().maturityFrom(maturityDate).maturityTo(maturityDate).expired(false).build(),
+                batchSize);
+    }
+
+    @Override
+    public List<Trade> findUnexpiredByTradeIds(Collection<TradeId> tradeIds) {
+        return jpaRepository.findUnexpiredByTradeIds(tradeIds).stream().map(tradeMapper::toDomain).toList();
+    }
+
+    @Override
+    public long expireByMaturityDate(LocalDate maturityDate) {
+        Integer expired = transactionTemplate.execute(status -> jpaRepository.expireByMaturityDate(maturityDate));
+        return expired == null ? 0 : expired;
+    }
+
+    @Override
+    public long expireAll(List<Trade> trades) {
+        return jpaRepository.expireAll(trades);
+    }
+
+    @Override
+    public Stream<TradeId> streamLatestVersions() {
+        return jpaRepository.streamLatestVersions(LATEST_VERSIONS_PAGE_SIZE);
+    }
+
+    @Override
+    public Stream<Trade> streamUnexpiredMaturities(int batchSize) {
+        return streamMatching(TradeFilter.builder().expired(false).build(), batchSize);
+    }
+
+    @Override
+    public Stream<Trade> streamExposureFields(int batchSize) {
+        return streamMatching(new TradeFilter(), batchSize);
+    }
+
+    @Override
+    public Stream<Trade> streamExpiredBefore(LocalDate cutoff, int batchSize) {
+        return streamMatching(TradeFilter.builder().maturityTo(cutoff.minusDays(1)).expired(true).build(), batchSize);
+    }
+
+    @Override
+    public long deleteArchived(List<Trade> trades) {
+        Integer deleted = transactionTemplate.execute(status -> jpaRepository.deleteArchived(trades));
+        return deleted == null ? 0 : deleted;
+    }
+
+    @Override
+    public long deleteMaturingBetween(LocalDate from, LocalDate to) {
+        Integer deleted = transactionTemplate.execute(status -> jpaRepository.deleteByMaturityDateBetween(from, to));
+        return deleted == null ? 0 : deleted;
+    }
+
+    // Joins the caller's transaction, or runs in its own on the parallel write executor, so the key locks are held
+    private List<TradeId> insertAllIfAbsent(List<Trade> trades) {
+        return transactionTemplate.execute(status ->
+                jpaRepository.insertAllIfAbsent(trades.stream().map(tradeMapper::toEntity).toList()));
+    }
+
+    private Stream<Trade> streamMatching(TradeFilter filter, int batchSize) {
+        return jpaRepository.streamMatching(filter, batchSize).map(tradeMapper::toDomain);
+    }
+}
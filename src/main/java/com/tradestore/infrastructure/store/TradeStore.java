@@ -0,0 +1,78 @@
+package com.tradestore.infrastructure.store;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.repository.BulkInsertFailure;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * One database holding trades. {@link TradeStores} decides which implementations are written, in what order,
+ * and which of them serve reads.
+ */
+public interface TradeStore {
+
+    enum Kind { MONGO, POSTGRES }
+
+    Kind kind();
+
+    // Whether writes join the surrounding Spring transaction and roll back with it
+    boolean transactional();
+
+    // Fails with DuplicateKeyException when this (tradeId, version) is already stored
+    Trade insert(Trade trade);
+
+    // One failure per trade that was not inserted; duplicates are flagged
+    List<BulkInsertFailure> insertAll(List<Trade> trades);
+
+    // Inserts or overwrites each trade version; copies writes to a secondary store
+    void saveAll(List<Trade> trades);
+
+    void delete(Trade trade);
+
+    Optional<Trade> findById(String tradeId, int version);
+
+    Optional<Trade> findLatest(String tradeId);
+
+    // Latest version first
+    List<Trade> findVersions(String tradeId);
+
+    List<Trade> findAll();
+
+    // Keyset page ordered by (tradeId, version); after may be null for the first page
+    List<Trade> findPageMatching(TradeFilter filter, TradeId after, int limit);
+
+    Stream<Trade> streamAll(int batchSize);
+
+    // Distinct maturity dates in [from, to) that still have unexpired trades, ascending; from may be null
+    List<LocalDate> findUnexpiredMaturityDatesBetween(LocalDate from, LocalDate to);
+
+    Stream<Trade> streamUnexpiredByMaturityDate(LocalDate maturityDate, int batchSize);
+
+    List<Trade> findUnexpiredByTradeIds(Collection<TradeId> tradeIds);
+
+    long expireByMaturityDate(LocalDate maturityDate);
+
+    long expireAll(List<Trade> trades);
+
+    // Highest stored version of every trade
+    Stream<TradeId> streamLatestVersions();
+
+    // At least tradeId and maturityDate are populated
+    Stream<Trade> streamUnexpiredMaturities(int batchSize);
+
+    // At least tradeId, bookId, counterPartyId, maturityDate and expired are populated
+    Stream<Trade> streamExposureFields(int batchSize);
+
+    Stream<Trade> streamExpiredBefore(LocalDate cutoff, int batchSize);
+
+    long deleteArchived(List<Trade> trades);
+
+    // Removes every trade maturing in [from, to)
+    long deleteMaturingBetween(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,201 @@
+package com.tradestore.infrastructure.store;
+
+import com.tradestore.domain.exception.TradeException;
+import com.tradestore.infrastructure.config.ConditionalOnDatabaseStorage;
+import com.tradestore.infrastructure.store.TradeStore.Kind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Applies the configured replication policy: which stores are written, which one is the primary, and whether
+ * the secondary is written in the request or in the background.
+ *
+ * <p>The primary detects duplicates and drives the expiry sweep and the startup index loads. Under
+ * async-secondary, background writes go through one thread so they reach the secondary in the order they
+ * were made, and the secondary only serves reads when the primary fails.
+ */
+@Slf4j
+@Component
+@ConditionalOnDatabaseStorage
+public class TradeStores {
+
+    public enum Policy { MONGO_ONLY, POSTGRES_ONLY, DUAL_WRITE, ASYNC_SECONDARY }
+
+    private final Map<Kind, TradeStore> stores = new EnumMap<>(Kind.class);
+    private final Policy policy;
+    private final TradeStore primary;
+    private final TradeStore secondary;
+    private final ThreadPoolExecutor replicator;
+    private final Counter replicationFailures;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+
+    public TradeStores(List<TradeStore> stores,
+                       MeterRegistry meterRegistry,
+                       @Value("${trade.storage.replication.policy:dual-write}") String policy,
+                       @Value("${trade.storage.replication.primary:mongo}") String primary,
+                       @Value("${trade.storage.replication.async.queue-capacity:10000}") int queueCapacity,
+                       @Value("${trade.storage.replication.async.max-attempts:5}") int maxAttempts,
+                       @Value("${trade.storage.replication.async.initial-backoff-ms:100}") long initialBackoffMs) {
+        stores.forEach(store -> this.stores.put(store.kind(), store));
+        this.policy = parse(Policy.class, policy);
+        this.primary = switch (this.policy) {
+            case MONGO_ONLY -> get(Kind.MONGO);
+            case POSTGRES_ONLY -> get(Kind.POSTGRES);
+            case DUAL_WRITE, ASYNC_SECONDARY -> get(parse(Kind.class, primary));
+        };
+        this.secondary = this.policy == Policy.DUAL_WRITE || this.policy == Policy.ASYNC_SECONDARY
+                ? get(this.primary.kind() == Kind.MONGO ? Kind.POSTGRES : Kind.MONGO)
+                : null;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.replicator = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "trade-replication");
+            thread.setDaemon(true);
+            return thread;
+        }, (runnable, executor) -> {
+            // A full queue holds the writer back rather than dropping or reordering writes
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Trade replication has shut down");
+            }
+            try {
+                executor.getQueue().put(runnable);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while queueing a replicated write", e);
+            }
+        });
+        this.replicationFailures = Counter.builder("trade.replication.failures")
+                .description("Writes that could not be copied to the secondary store")
+                .register(meterRegistry);
+        Gauge.builder("trade.replication.pending", queue, BlockingQueue::size)
+                .description("Writes waiting to be copied to the secondary store")
+                .register(meterRegistry);
+        log.info("Trade storage policy {} with primary {}", this.policy, this.primary.kind());
+    }
+
+    public Policy policy() {
+        return policy;
+    }
+
+    public TradeStore primary() {
+        return primary;
+    }
+
+    public Optional<TradeStore> secondary() {
+        return Optional.ofNullable(secondary);
+    }
+
+    // Every store this policy writes to, primary first
+    public List<TradeStore> written() {
+        List<TradeStore> written = new ArrayList<>(2);
+        written.add(primary);
+        if (secondary != null) {
+            written.add(secondary);
+        }
+        return written;
+    }
+
+    public TradeStore get(Kind kind) {
+        TradeStore store = stores.get(kind);
+        if (store == null) {
+            throw new TradeException("No trade store registered for " + kind);
+        }
+        return store;
+    }
+
+    // Both stores hold every committed write, so either may serve any read
+    public boolean isDualWrite() {
+        return policy == Policy.DUAL_WRITE;
+    }
+
+    public boolean isAsync() {
+        return policy == Policy.ASYNC_SECONDARY;
+    }
+
+    // The store to retry a failed read on, or null when no other store holds the trades
+    public Kind fallback(Kind kind) {
+        if (secondary == null) {
+            return null;
+        }
+        return kind == primary.kind() ? secondary.kind() : primary.kind();
+    }
+
+    /**
+     * Copies a write to the secondary store: in the caller under dual-write, queued under async-secondary, and
+     * not at all under the single-store policies.
+     */
+    public void replicate(String description, Consumer<TradeStore> write) {
+        if (secondary == null) {
+            return;
+        }
+        if (!isAsync()) {
+            write.accept(secondary);
+            return;
+        }
+        replicator.execute(() -> replicateWithRetry(description, write));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        replicator.shutdown();
+        if (!replicator.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("{} replicated writes were not copied to {} before shutdown",
+                    replicator.getQueue().size(), secondary == null ? null : secondary.kind());
+        }
+    }
+
+    private void replicateWithRetry(String description, Consumer<TradeStore> write) {
+        long backoffMs = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write.accept(secondary);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    replicationFailures.increment();
+                    log.error("Gave up copying {} to {} after {} attempts: {}",
+                            description, secondary.kind(), attempt, e.getMessage(), e);
+                    return;
+                }
+                log.warn("Copying {} to {} failed, retrying in {} ms: {}",
+                        description, secondary.kind(), backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs *= 2;
+            }
+        }
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new TradeException("Unknown " + type.getSimpleName() + " '" + value + "' in trade.storage.replication");
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.tradestore.infrastructure.tradelog;
+
+import com.tradestore.domain.exception.TradeException;
+import com.tradestore.domain.model.Trade;
+import com.tradestore.infrastructure.config.ConditionalOnEmbeddedStorage;
+import com.tradestore.infrastructure.messaging.TradeBinaryCodec;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Append-only trade store on local disk for the embedded backend. Every write, including expiry, appends a
+ * record to a memory-mapped segment; off-heap indexes map (tradeId, version) and tradeId to the newest record.
+ * On startup the segments are replayed to rebuild the indexes, and compaction rewrites segments that are
+ * mostly superseded records.
+ */
+@Slf4j
+@Component
+@ConditionalOnEmbeddedStorage
+public class TradeLog {
+
+    private static final String SEGMENT_PREFIX = "trades-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final NavigableMap<Integer, TradeLogSegment> segments = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private TradeLogIndex versions;
+    private TradeLogIndex latest;
+    // Versions in ascending order, only for trades with more than one; the rest have just their latest
+    private Map<String, int[]> history;
+    private TradeLogSegment active;
+
+    public TradeLog(MeterRegistry meterRegistry,
+                    @Value("${trade.log.directory:trade-log}") String directory,
+                    @Value("${trade.log.segment-bytes:67108864}") int segmentBytes) {
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+
+        Gauge.builder("trade.log.segments", this, tradeLog -> tradeLog.read(() -> tradeLog.segments.size()))
+                .description("Segment files in the embedded trade log")
+                .register(meterRegistry);
+        Gauge.builder("trade.log.index.bytes", this, tradeLog -> tradeLog.read(tradeLog::offHeapBytes))
+                .description("Off-heap memory held by the trade log indexes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() {
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(directory);
+            versions = new TradeLogIndex(1024);
+            latest = new TradeLogIndex(1024);
+            history = new HashMap<>();
+            long start = System.currentTimeMillis();
+            try (Stream<Path> files = Files.list(directory)) {
+                List<Path> segmentFiles = files.filter(TradeLog::isSegment)
+                        .sorted(Comparator.comparingInt(TradeLog::segmentId))
+                        .toList();
+                for (Path file : segmentFiles) {
+                    TradeLogSegment segment = TradeLogSegment.open(segmentId(file), file, segmentBytes);
+                    segments.put(segment.id(), segment);
+                    // Later records win, so replaying in segment order leaves the newest copy of each key indexed
+                    segment.recover((position, payload) -> index(segment, position, payload));
+                }
+            }
+            active = segments.isEmpty() ? roll() : segments.lastEntry().getValue();
+            log.info("Opened trade log in {} with {} segments and {} trade versions in {} ms",
+                    directory, segments.size(), versions.size(), System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            throw new TradeException("Failed to open trade log in " + directory + ": " + e.getMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            for (TradeLogSegment segment : segments.values()) {
+                segment.force();
+                segment.close();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close trade log cleanly: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void append(Trade trade) {
+        lock.writeLock().lock();
+        try {
+            write(trade);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Appends unless this (tradeId, version) is already stored; the check and the append are atomic
+    public boolean appendIfAbsent(Trade trade) {
+        lock.writeLock().lock();
+        try {
+            if (find(trade.getTradeId().getTradeId(), trade.getTradeId().getVersion()) != null) {
+                return false;
+            }
+            write(trade);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Trade> get(String tradeId, int version) {
+        return read(() -> Optional.ofNullable(find(tradeId, version)));
+    }
+
+    public Optional<Trade> getLatest(String tradeId) {
+        return read(() -> {
+            long address = latest.get(TradeLogIndex.hash(tradeId), candidate -> tradeId.equals(tradeIdAt(candidate)));
+            return address == TradeLogIndex.NOT_FOUND ? Optional.empty() : Optional.of(decode(address));
+        });
+    }
+
+    // Latest version first
+    public List<Trade> getVersions(String tradeId) {
+        return read(() -> {
+            List<Trade> trades = new ArrayList<>();
+            long address = latest.get(TradeLogIndex.hash(tradeId), candidate -> tradeId.equals(tradeIdAt(candidate)));
+            if (address == TradeLogIndex.NOT_FOUND) {
+                return trades;
+            }
+            int[] known = history.get(tradeId);
+            if (known == null) {
+                trades.add(decode(address));
+                return trades;
+            }
+            for (int i = known.length - 1; i >= 0; i--) {
+                trades.add(find(tradeId, known[i]));
+            }
+            return trades;
+        });
+    }
+
+    /**
+     * Current copy of every stored trade version. The segments are pinned when the stream is created, so it
+     * sees a consistent snapshot and does not hold up writes or compaction while it is consumed.
+     */
+    public Stream<Trade> stream() {
+        long[] snapshot;
+        Map<Integer, TradeLogSegment> pinned;
+        lock.readLock().lock();
+        try {
+            snapshot = new long[versions.size()];
+            int[] next = {0};
+            versions.forEach(address -> snapshot[next[0]++] = address);
+            pinned = new HashMap<>(segments);
+        } finally {
+            lock.readLock().unlock();
+        }
+        // A mapping stays readable after compaction closes and deletes its file, as long as it is referenced
+        return LongStream.of(snapshot)
+                .mapToObj(address -> TradeBinaryCodec.decode(pinned.get(segmentOf(address)).read(positionOf(address))));
+    }
+
+    public int size() {
+        return read(() -> versions.size());
+    }
+
+    public void flush() {
+        TradeLogSegment segment = read(() -> active);
+        segment.force();
+    }
+
+    /**
+     * Rewrites sealed segments in which at least minDeadRatio of the bytes are superseded records, copying
+     * their live records to the end of the log, and deletes them. Returns the number of segments removed.
+     */
+    public int compact(double minDeadRatio) {
+        List<TradeLogSegment> candidates = read(() -> segments.values().stream()
+                .filter(segment -> segment != active && segment.deadRatio() >= minDeadRatio)
+                .toList());
+        int compacted = 0;
+        for (TradeLogSegment segment : candidates) {
+            lock.writeLock().lock();
+            try {
+                segment.forEach((position, payload) -> {
+                    long address = addressOf(segment, position);
+                    Trade trade = TradeBinaryCodec.decode(payload);
+                    if (find(trade.getTradeId().getTradeId(), trade.getTradeId().getVersion(), address)) {
+                        write(trade);
+                    }
+                });
+                // The copies must be durable before the only other copy goes
+                active.force();
+                segments.remove(segment.id());
+                segment.delete();
+                compacted++;
+            } catch (IOException e) {
+                throw new TradeException("Failed to compact trade log segment " + segment.file() + ": " + e.getMessage(), e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Compacted trade log segment {}", segment.file());
+        }
+        return compacted;
+    }
+
+    private void write(Trade trade) {
+        byte[] payload = TradeBinaryCodec.encode(trade);
+        int position = active.append(payload);
+        if (position < 0) {
+            active.force();
+            active = roll();
+            position = active.append(payload);
+            if (position < 0) {
+                throw new TradeException("Trade record of " + payload.length + " bytes does not fit in a log segment");
+            }
+        }
+        index(active, position, payload);
+    }
+
+    private void index(TradeLogSegment segment, int position, byte[] payload) {
+        long address = addressOf(segment, position);
+        Trade trade = TradeBinaryCodec.decode(payload);
+        String tradeId = trade.getTradeId().getTradeId();
+        int version = trade.getTradeId().getVersion();
+
+        long previous = versions.put(TradeLogIndex.hash(tradeId, version), address,
+                candidate -> isKey(candidate, tradeId, version));
+        if (previous != TradeLogIndex.NOT_FOUND) {
+            TradeLogSegment superseded = segments.get(segmentOf(previous));
+            superseded.release(TradeLogSegment.HEADER_BYTES + superseded.read(positionOf(previous)).length);
+        }
+
+        long latestHash = TradeLogIndex.hash(tradeId);
+        long current = latest.get(latestHash, candidate -> tradeId.equals(tradeIdAt(candidate)));
+        if (current == TradeLogIndex.NOT_FOUND) {
+            latest.put(latestHash, address, candidate -> tradeId.equals(tradeIdAt(candidate)));
+            return;
+        }
+        int latestVersion = decode(current).getTradeId().getVersion();
+        if (previous == TradeLogIndex.NOT_FOUND) {
+            addVersion(tradeId, latestVersion, version);
+        }
+        if (latestVersion <= version) {
+            latest.put(latestHash, address, candidate -> tradeId.equals(tradeIdAt(candidate)));
+        }
+    }
+
+    // A trade without history so far has only its latest version
+    private void addVersion(String tradeId, int latestVersion, int version) {
+        history.compute(tradeId, (key, known) -> {
+            if (known == null) {
+                return latestVersion < version ? new int[] {latestVersion, version} : new int[] {version, latestVersion};
+            }
+            int insertAt = -Arrays.binarySearch(known, version) - 1;
+            int[] grown = new int[known.length + 1];
+            System.arraycopy(known, 0, grown, 0, insertAt);
+            grown[insertAt] = version;
+            System.arraycopy(known, insertAt, grown, insertAt + 1, known.length - insertAt);
+            return grown;
+        });
+    }
+
+    private Trade find(String tradeId, int version) {
+        long address = versions.get(TradeLogIndex.hash(tradeId, version), candidate -> isKey(candidate, tradeId, version));
+        return address == TradeLogIndex.NOT_FOUND ? null : decode(address);
+    }
+
+    // Whether the index still points at this exact record
+    private boolean find(String tradeId, int version, long address) {
+        return versions.get(TradeLogIndex.hash(tradeId, version), candidate -> isKey(candidate, tradeId, version)) == address;
+    }
+
+    private boolean isKey(long address, String tradeId, int version) {
+        Trade trade = decode(address);
+        return trade.getTradeId().getVersion() == version && tradeId.equals(trade.getTradeId().getTradeId());
+    }
+
+    private String tradeIdAt(long address) {
+        return decode(address).getTradeId().getTradeId();
+    }
+
+    private Trade decode(long address) {
+        return TradeBinaryCodec.decode(segments.get(segmentOf(address)).read(positionOf(address)));
+    }
+
+    private TradeLogSegment roll() {
+        int id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        Path file = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        try {
+            TradeLogSegment segment = TradeLogSegment.open(id, file, segmentBytes);
+            segments.put(id, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new TradeException("Failed to create trade log segment " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private long offHeapBytes() {
+        return versions == null ? 0 : versions.offHeapBytes() + latest.offHeapBytes();
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long addressOf(TradeLogSegment segment, int position) {
+        return ((long) segment.id() << 32) | position;
+    }
+
+    private static int segmentOf(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int positionOf(long address) {
+        return (int) address;
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static int segmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
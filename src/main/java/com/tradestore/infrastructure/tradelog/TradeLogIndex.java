@@ -0,0 +1,142 @@
+package com.tradestore.infrastructure.tradelog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Open-addressing hash table from a 64-bit key hash to a log address, held in a direct buffer so that
+ * millions of entries add nothing to the heap. Entries are never removed, only repointed.
+ *
+ * <p>Two keys can share a hash, so lookups confirm each candidate against the record it points to.
+ * Not thread-safe; {@link TradeLog} guards it with its lock.
+ */
+final class TradeLogIndex {
+
+    static final long NOT_FOUND = -1;
+
+    // 8-byte hash followed by 8-byte address; a zero hash marks an empty slot
+    private static final int ENTRY_BYTES = 16;
+    private static final double MAX_LOAD = 0.7;
+    // Largest power of two whose table still fits one direct buffer
+    private static final int MAX_CAPACITY = 1 << 26;
+
+    private ByteBuffer table;
+    private int capacity;
+    private int size;
+
+    TradeLogIndex(int initialCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(16, initialCapacity - 1) << 1);
+        this.table = ByteBuffer.allocateDirect(capacity * ENTRY_BYTES);
+    }
+
+    long get(long hash, LongPredicate matches) {
+        hash = nonZero(hash);
+        for (int slot = slot(hash); ; slot = next(slot)) {
+            long stored = table.getLong(slot * ENTRY_BYTES);
+            if (stored == 0) {
+                return NOT_FOUND;
+            }
+            long address = table.getLong(slot * ENTRY_BYTES + 8);
+            if (stored == hash && matches.test(address)) {
+                return address;
+            }
+        }
+    }
+
+    // Returns the address the key pointed to before, or NOT_FOUND if it is new
+    long put(long hash, long address, LongPredicate sameKey) {
+        hash = nonZero(hash);
+        for (int slot = slot(hash); ; slot = next(slot)) {
+            long stored = table.getLong(slot * ENTRY_BYTES);
+            if (stored == 0) {
+                table.putLong(slot * ENTRY_BYTES, hash);
+                table.putLong(slot * ENTRY_BYTES + 8, address);
+                if (++size > capacity * MAX_LOAD) {
+                    grow();
+                }
+                return NOT_FOUND;
+            }
+            long previous = table.getLong(slot * ENTRY_BYTES + 8);
+            if (stored == hash && sameKey.test(previous)) {
+                table.putLong(slot * ENTRY_BYTES + 8, address);
+                return previous;
+            }
+        }
+    }
+
+    void forEach(LongConsumer addresses) {
+        for (int slot = 0; slot < capacity; slot++) {
+            if (table.getLong(slot * ENTRY_BYTES) != 0) {
+                addresses.accept(table.getLong(slot * ENTRY_BYTES + 8));
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long offHeapBytes() {
+        return (long) capacity * ENTRY_BYTES;
+    }
+
+    static long hash(String tradeId) {
+        // FNV-1a over the UTF-8 bytes, then a murmur3 finalizer to spread the high bits into the slot
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : tradeId.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    static long hash(String tradeId, int version) {
+        return mix(hash(tradeId) ^ (version * 0x9E3779B97F4A7C15L));
+    }
+
+    private void grow() {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Trade log index is full at " + size + " entries");
+        }
+        ByteBuffer old = table;
+        int oldCapacity = capacity;
+        capacity <<= 1;
+        table = ByteBuffer.allocateDirect(capacity * ENTRY_BYTES);
+        // Hashes are stored, so rehashing never has to read the log
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            long hash = old.getLong(slot * ENTRY_BYTES);
+            if (hash == 0) {
+                continue;
+            }
+            int target = slot(hash);
+            while (table.getLong(target * ENTRY_BYTES) != 0) {
+                target = next(target);
+            }
+            table.putLong(target * ENTRY_BYTES, hash);
+            table.putLong(target * ENTRY_BYTES + 8, old.getLong(slot * ENTRY_BYTES + 8));
+        }
+    }
+
+    private int slot(long hash) {
+        return (int) (hash & (capacity - 1));
+    }
+
+    private int next(int slot) {
+        return (slot + 1) & (capacity - 1);
+    }
+
+    private static long nonZero(long hash) {
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,161 @@
+package com.tradestore.infrastructure.tradelog;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * One fixed-size, memory-mapped log file.
+ *
+ * <pre>
+ * record
+ *   length   int     payload length, written last so a torn append is never visible
+ *   crc      int     CRC32C of the payload
+ *   payload  byte[]  TradeBinaryCodec encoding
+ * </pre>
+ *
+ * The file is zero-filled when created, so a zero length marks the end of the log.
+ */
+final class TradeLogSegment {
+
+    static final int HEADER_BYTES = 8;
+
+    private final int id;
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int writePosition;
+    private long liveBytes;
+
+    private TradeLogSegment(int id, Path file, FileChannel channel, MappedByteBuffer buffer) {
+        this.id = id;
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static TradeLogSegment open(int id, Path file, int size) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // An existing segment keeps the size it was created with
+        long length = Math.max(channel.size(), size);
+        return new TradeLogSegment(id, file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, length));
+    }
+
+    // Returns the record's position, or -1 if the segment is full
+    int append(byte[] payload) {
+        int position = writePosition;
+        if (position + HEADER_BYTES + payload.length > buffer.capacity()) {
+            return -1;
+        }
+        buffer.put(position + HEADER_BYTES, payload);
+        buffer.putInt(position + 4, crc(payload));
+        buffer.putInt(position, payload.length);
+        writePosition = position + HEADER_BYTES + payload.length;
+        liveBytes += HEADER_BYTES + payload.length;
+        return position;
+    }
+
+    byte[] read(int position) {
+        byte[] payload = new byte[buffer.getInt(position)];
+        buffer.get(position + HEADER_BYTES, payload);
+        return payload;
+    }
+
+    /**
+     * Replays every intact record from the start and positions appends after the last one. Anything past a
+     * torn or corrupt record is zeroed, as it can only be a partial append from before a crash.
+     */
+    void recover(RecordVisitor visitor) {
+        int position = 0;
+        while (position + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            if (crc(payload) != buffer.getInt(position + 4)) {
+                break;
+            }
+            // Counted before the visit, which releases this record's bytes again if a newer copy was replayed
+            liveBytes += HEADER_BYTES + length;
+            visitor.visit(position, payload);
+            position += HEADER_BYTES + length;
+        }
+        writePosition = position;
+        // Only nonzero words are written, so an untouched tail stays clean in the page cache
+        for (int i = position; i < buffer.capacity(); i++) {
+            if (i + 8 <= buffer.capacity()) {
+                if (buffer.getLong(i) != 0) {
+                    buffer.putLong(i, 0);
+                }
+                i += 7;
+            } else if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+
+    void forEach(RecordVisitor visitor) {
+        int position = 0;
+        while (position < writePosition) {
+            byte[] payload = read(position);
+            visitor.visit(position, payload);
+            position += HEADER_BYTES + payload.length;
+        }
+    }
+
+    void release(int bytes) {
+        liveBytes -= bytes;
+    }
+
+    // Share of the written bytes that newer records have superseded
+    double deadRatio() {
+        return writePosition == 0 ? 0 : 1 - (double) liveBytes / writePosition;
+    }
+
+    int id() {
+        return id;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    long liveBytes() {
+        return liveBytes;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+        void visit(int position, byte[] payload);
+    }
+}
@@ -0,0 +1,50 @@
+-- Schema previously created by ddl-auto: update. Every statement tolerates objects that already exist,
+-- so databases created that way are brought under Flyway by running this script once (baseline-version 0).
+
+-- Matches the allocationSize of the TradeEntity sequence generator
+CREATE SEQUENCE IF NOT EXISTS trades_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS trades (
+    id               BIGINT       NOT NULL PRIMARY KEY,
+    trade_id         VARCHAR(255) NOT NULL,
+    version          INTEGER      NOT NULL,
+    counter_party_id VARCHAR(255) NOT NULL,
+    book_id          VARCHAR(255) NOT NULL,
+    maturity_date    DATE         NOT NULL,
+    created_date     DATE         NOT NULL,
+    expired          BOOLEAN      NOT NULL
+);
+
+-- Replace the identity column left by ddl-auto; JDBC batch inserts take ids from the sequence
+ALTER TABLE trades ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE trades ALTER COLUMN id SET DEFAULT nextval('trades_seq');
+SELECT setval('trades_seq', (SELECT COALESCE(MAX(id), 0) FROM trades) + 50);
+
+-- ddl-auto never enforced (trade_id, version); keep one row per key, preferring the expired one and then the latest
+DELETE FROM trades t
+USING trades keep
+WHERE keep.trade_id = t.trade_id
+  AND keep.version = t.version
+  AND (keep.expired, keep.id) > (t.expired, t.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_trades_trade_id_version ON trades (trade_id, version);
+CREATE INDEX IF NOT EXISTS idx_trades_unexpired_maturity ON trades (maturity_date) WHERE expired = false;
+
+CREATE TABLE IF NOT EXISTS trade_outbox (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    trade_id   VARCHAR(255)                NOT NULL,
+    version    INTEGER                     NOT NULL,
+    payload    VARCHAR(4000)               NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS trade_shard_lease (
+    shard       INTEGER NOT NULL PRIMARY KEY,
+    owner       VARCHAR(255),
+    lease_until TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE TABLE IF NOT EXISTS trade_expiry_watermark (
+    scope             VARCHAR(255) NOT NULL PRIMARY KEY,
+    processed_through DATE         NOT NULL
+);
@@ -0,0 +1,44 @@
+-- Range-partition trades by month of maturity_date. TradePartitionMaintenance creates partitions ahead of time
+-- and detaches fully expired ones; rows outside every monthly partition land in trades_default.
+
+ALTER TABLE trades RENAME TO trades_unpartitioned;
+ALTER TABLE trades_unpartitioned RENAME CONSTRAINT trades_pkey TO trades_unpartitioned_pkey;
+DROP INDEX IF EXISTS uk_trades_trade_id_version;
+DROP INDEX IF EXISTS idx_trades_unexpired_maturity;
+
+-- Unique constraints on a partitioned table must include the partition key
+CREATE TABLE trades (
+    id               BIGINT       NOT NULL DEFAULT nextval('trades_seq'),
+    trade_id         VARCHAR(255) NOT NULL,
+    version          INTEGER      NOT NULL,
+    counter_party_id VARCHAR(255) NOT NULL,
+    book_id          VARCHAR(255) NOT NULL,
+    maturity_date    DATE         NOT NULL,
+    created_date     DATE         NOT NULL,
+    expired          BOOLEAN      NOT NULL,
+    PRIMARY KEY (id, maturity_date)
+) PARTITION BY RANGE (maturity_date);
+
+CREATE UNIQUE INDEX uk_trades_trade_id_version_maturity ON trades (trade_id, version, maturity_date);
+CREATE INDEX idx_trades_unexpired_maturity ON trades (maturity_date) WHERE expired = false;
+
+CREATE TABLE trades_default PARTITION OF trades DEFAULT;
+
+DO $$
+DECLARE
+    month DATE;
+BEGIN
+    FOR month IN SELECT DISTINCT date_trunc('month', maturity_date)::date FROM trades_unpartitioned LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF trades FOR VALUES FROM (%L) TO (%L)',
+                       'trades_p' || to_char(month, 'YYYYMM'), month, (month + INTERVAL '1 month')::date);
+    END LOOP;
+END $$;
+
+-- One row per (trade_id, version), chosen as in V1
+INSERT INTO trades (id, trade_id, version, counter_party_id, book_id, maturity_date, created_date, expired)
+SELECT DISTINCT ON (trade_id, version)
+       id, trade_id, version, counter_party_id, book_id, maturity_date, created_date, expired
+FROM trades_unpartitioned
+ORDER BY trade_id, version, expired DESC, id DESC;
+
+DROP TABLE trades_unpartitioned;
@@ -0,0 +1,5 @@
+-- Filtered search: equality column first, then the (trade_id, version) keyset order. Maturity ranges are
+-- narrowed by partition pruning and checked from the index without visiting the heap.
+
+CREATE INDEX IF NOT EXISTS idx_trades_book_id_trade_key ON trades (book_id, trade_id, version, maturity_date);
+CREATE INDEX IF NOT EXISTS idx_trades_counter_party_id_trade_key ON trades (counter_party_id, trade_id, version, maturity_date);
@@ -0,0 +1,9 @@
+-- Keyset pages order trade_id byte-wise (COLLATE "C"), as MongoDB compares strings, so a cursor from one store
+-- continues correctly on the other. The keyset indexes are rebuilt in that collation so paging stays index-ordered.
+
+CREATE INDEX IF NOT EXISTS idx_trades_trade_key ON trades (trade_id COLLATE "C", version);
+
+DROP INDEX IF EXISTS idx_trades_book_id_trade_key;
+DROP INDEX IF EXISTS idx_trades_counter_party_id_trade_key;
+CREATE INDEX idx_trades_book_id_trade_key ON trades (book_id, trade_id COLLATE "C", version, maturity_date);
+CREATE INDEX idx_trades_counter_party_id_trade_key ON trades (counter_party_id, trade_id COLLATE "C", version, maturity_date);
@@ -0,0 +1,10 @@
+-- Outbox ids come from a sequence, matching the allocationSize of the TradeOutboxEntity generator, so Hibernate can
+-- batch the inserts; an identity column makes it insert row by row to read each id back.
+CREATE SEQUENCE IF NOT EXISTS trade_outbox_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE trade_outbox ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE trade_outbox ALTER COLUMN id SET DEFAULT nextval('trade_outbox_seq');
+SELECT setval('trade_outbox_seq', (SELECT COALESCE(MAX(id), 0) FROM trade_outbox) + 50);
+
+-- Set while a relay publishes the entries, so the row lock is only held to claim them
+ALTER TABLE trade_outbox ADD COLUMN IF NOT EXISTS claimed_until TIMESTAMP(6) WITH TIME ZONE;
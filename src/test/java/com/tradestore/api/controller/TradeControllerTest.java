@@ -3,7 +3,11 @@ package com.tradestore.api.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tradestore.domain.exception.TradeException;
 import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeExposure;
+import com.tradestore.domain.model.TradeFilter;
 import com.tradestore.domain.model.TradeId;
+import com.tradestore.domain.model.TradePage;
+import com.tradestore.domain.model.TradeResult;
 import com.tradestore.domain.service.TradeService;
 import com.tradestore.util.TestUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,13 +17,21 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -75,6 +87,26 @@ class TradeControllerTest {
                 .andExpect(jsonPath("$.message").value("Maturity date cannot be in the past"));
     }
 
+    @Test
+    void storeTrades_Batch_ReturnsResultPerTrade() throws Exception {
+        // Arrange
+        Trade secondTrade = validTrade.toBuilder()
+                .tradeId(new TradeId("T2", 1))
+                .build();
+        when(tradeService.storeTrades(any())).thenReturn(List.of(
+                TradeResult.accepted(validTrade.getTradeId()),
+                TradeResult.duplicate(secondTrade.getTradeId(), "Trade with same ID and version already exists")));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/trades/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(validTrade, secondTrade))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("ACCEPTED"))
+                .andExpect(jsonPath("$[1].tradeId.tradeId").value("T2"))
+                .andExpect(jsonPath("$[1].status").value("DUPLICATE"));
+    }
+
     @Test
     void getAllTrades_ReturnsListOfTrades() throws Exception {
         // Arrange
@@ -94,6 +126,57 @@ class TradeControllerTest {
                 .andExpect(jsonPath("$[1].tradeId.tradeId").value("T2"));
     }
 
+    @Test
+    void getTradesPage_ReturnsTradesAndCursor() throws Exception {
+        when(tradeService.getTradesPage("T0:1", 1)).thenReturn(TradePage.of(List.of(validTrade), 1));
+
+        mockMvc.perform(get("/api/trades").param("after", "T0:1").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trades[0].tradeId.tradeId").value("T1"))
+                .andExpect(jsonPath("$.nextCursor").value("T1:1"));
+    }
+
+    @Test
+    void streamTrades_UsesRoutedStream() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Consumer<Trade>>getArgument(0).accept(validTrade);
+            return null;
+        }).when(tradeService).streamTrades(any());
+
+        MvcResult result = mockMvc.perform(get("/api/trades").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(1, lines.length);
+        verify(tradeService, never()).streamMongoTrades(any());
+    }
+
+    @Test
+    void streamPostgresTrades_WritesOneJsonLinePerTrade() throws Exception {
+        Trade secondTrade = validTrade.toBuilder().tradeId(new TradeId("T2", 1)).build();
+        doAnswer(invocation -> {
+            Consumer<Trade> consumer = invocation.getArgument(0);
+            consumer.accept(validTrade);
+            consumer.accept(secondTrade);
+            return null;
+        }).when(tradeService).streamPostgresTrades(any());
+
+        MvcResult result = mockMvc.perform(get("/api/trades/postgres").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("T2",
+                objectMapper.readValue(lines[1], Trade.class).getTradeId().getTradeId());
+    }
+
     @Test
     void getTrade_ExistingTrade_ReturnsOk() throws Exception {
         when(tradeService.getTradeById("T1", 1))
@@ -131,6 +214,72 @@ class TradeControllerTest {
                 .andExpect(jsonPath("$[1].tradeId.version").value(2));
     }
 
+    @Test
+    void getLatestTrade_ReturnsSingleTrade() throws Exception {
+        // Arrange
+        Trade latest = validTrade.toBuilder().tradeId(new TradeId("T1", 2)).build();
+        when(tradeService.getLatestTrade("T1")).thenReturn(Optional.of(latest));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/trades/T1/latest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tradeId.version").value(2));
+        verify(tradeService, never()).getTradeById(anyString(), any());
+    }
+
+    @Test
+    void getLatestTrade_Unknown_ReturnsNotFound() throws Exception {
+        // Arrange
+        when(tradeService.getLatestTrade("T9")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/trades/T9/latest"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void searchTrades_PassesFiltersToService() throws Exception {
+        // Arrange
+        TradeFilter filter = new TradeFilter("B1", null, LocalDate.of(2030, 3, 1), LocalDate.of(2030, 3, 31), false);
+        when(tradeService.searchTrades(filter, null, 2)).thenReturn(TradePage.of(List.of(validTrade), 2));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/trades/search")
+                        .param("bookId", "B1")
+                        .param("maturityFrom", "2030-03-01")
+                        .param("maturityTo", "2030-03-31")
+                        .param("expired", "false")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trades[0].bookId").value("B1"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getBookExposure_Loaded_ReturnsCounts() throws Exception {
+        // Arrange
+        when(tradeService.isExposureLoaded()).thenReturn(true);
+        when(tradeService.getBookExposure("B1"))
+                .thenReturn(Optional.of(new TradeExposure("B1", 3, Map.of("2030-01", 3L))));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/trades/exposure/books/B1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.liveTrades").value(3))
+                .andExpect(jsonPath("$.maturityBuckets['2030-01']").value(3));
+    }
+
+    @Test
+    void getCounterpartyExposures_StillLoading_ReturnsServiceUnavailable() throws Exception {
+        // Arrange
+        when(tradeService.isExposureLoaded()).thenReturn(false);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/trades/exposure/counterparties"))
+                .andExpect(status().isServiceUnavailable());
+        verify(tradeService, never()).getCounterpartyExposures();
+    }
+
     @Test
     void getMongoTrades_ReturnsMongoTrades() throws Exception {
         // Arrange
@@ -0,0 +1,145 @@
+package com.tradestore.domain.service.impl;
+
+import com.tradestore.domain.exception.TradeException;
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.domain.model.TradePage;
+import com.tradestore.domain.model.TradeResult;
+import com.tradestore.infrastructure.cache.TradeExposureAggregates;
+import com.tradestore.infrastructure.tradelog.TradeLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class EmbeddedTradeServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private TradeLog tradeLog;
+    private EmbeddedTradeService tradeService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        tradeLog = new TradeLog(new SimpleMeterRegistry(), directory.toString(), 1 << 16);
+        tradeLog.open();
+        TradeExposureAggregates aggregates = new TradeExposureAggregates(mock(ObjectProvider.class),
+                mock(ObjectProvider.class), new SimpleMeterRegistry(), true, 100);
+        tradeService = new EmbeddedTradeService(tradeLog, aggregates);
+        ReflectionTestUtils.setField(tradeService, "maxBatchSize", 1000);
+        ReflectionTestUtils.setField(tradeService, "maxPageSize", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tradeLog.close();
+    }
+
+    @Test
+    void storeTrade_SameVersionTwice_RejectsDuplicate() {
+        tradeService.storeTrade(trade("T1", 1, "B1", LocalDate.now().plusDays(10)));
+
+        assertThrows(TradeException.class, () -> tradeService.storeTrade(trade("T1", 1, "B1", LocalDate.now().plusDays(10))));
+        assertEquals("T1:1", tradeService.getLatestTrade("T1").orElseThrow().getId());
+        assertEquals(1, tradeService.getBookExposure("B1").orElseThrow().getLiveTrades());
+    }
+
+    @Test
+    void storeTrades_ReportsEachOutcome() {
+        tradeService.storeTrade(trade("T1", 1, "B1", LocalDate.now().plusDays(10)));
+
+        List<TradeResult> results = tradeService.storeTrades(List.of(
+                trade("T1", 1, "B1", LocalDate.now().plusDays(10)),
+                trade("T2", 1, "B1", LocalDate.now().minusDays(1)),
+                trade("T3", 1, "B1", LocalDate.now().plusDays(10)),
+                trade("T3", 1, "B1", LocalDate.now().plusDays(10))));
+
+        assertEquals(List.of(TradeResult.Status.DUPLICATE, TradeResult.Status.REJECTED,
+                        TradeResult.Status.ACCEPTED, TradeResult.Status.DUPLICATE),
+                results.stream().map(TradeResult::getStatus).toList());
+    }
+
+    @Test
+    void getTradesPage_WalksKeysInOrder() {
+        for (String tradeId : List.of("T3", "T1", "T2")) {
+            tradeService.storeTrade(trade(tradeId, 1, "B1", LocalDate.now().plusDays(10)));
+        }
+        tradeService.storeTrade(trade("T1", 2, "B1", LocalDate.now().plusDays(10)));
+
+        TradePage first = tradeService.getTradesPage(null, 2);
+        TradePage second = tradeService.getTradesPage(first.getNextCursor(), 2);
+
+        assertEquals(List.of("T1:1", "T1:2"), keys(first));
+        assertEquals(List.of("T2:1", "T3:1"), keys(second));
+    }
+
+    @Test
+    void searchTrades_AppliesFilter() {
+        tradeService.storeTrade(trade("T1", 1, "B1", LocalDate.now().plusDays(10)));
+        tradeService.storeTrade(trade("T2", 1, "B2", LocalDate.now().plusDays(10)));
+        tradeService.storeTrade(trade("T3", 1, "B1", LocalDate.now().plusDays(40)));
+
+        TradePage page = tradeService.searchTrades(TradeFilter.builder()
+                .bookId("B1")
+                .maturityTo(LocalDate.now().plusDays(20))
+                .build(), null, 10);
+
+        assertEquals(List.of("T1:1"), keys(page));
+    }
+
+    @Test
+    void expireTrades_MarksOnlyUnexpired() {
+        tradeService.storeTrade(trade("T1", 1, "B1", LocalDate.now().plusDays(10)));
+
+        assertEquals(1, tradeService.expireTrades(List.of(new TradeId("T1", 1), new TradeId("T9", 1))));
+        assertEquals(0, tradeService.expireTrades(List.of(new TradeId("T1", 1))));
+        assertTrue(tradeService.getTradeById("T1", 1).orElseThrow().isExpired());
+        assertTrue(tradeService.getBookExposure("B1").isEmpty());
+    }
+
+    @Test
+    void streamTrades_ReadsTradeLog() {
+        tradeService.storeTrade(trade("T1", 1, "B1", LocalDate.now().plusDays(10)));
+        tradeService.storeTrade(trade("T2", 1, "B1", LocalDate.now().plusDays(10)));
+        List<String> streamed = new ArrayList<>();
+
+        tradeService.streamTrades(trade -> streamed.add(trade.getTradeId().key()));
+
+        assertEquals(Set.of("T1:1", "T2:1"), Set.copyOf(streamed));
+    }
+
+    @Test
+    void getMongoTrades_NotAvailable() {
+        assertThrows(TradeException.class, () -> tradeService.getMongoTrades());
+    }
+
+    private static List<String> keys(TradePage page) {
+        return page.getTrades().stream().map(trade -> trade.getTradeId().key()).toList();
+    }
+
+    private static Trade trade(String tradeId, int version, String bookId, LocalDate maturityDate) {
+        return Trade.builder()
+                .tradeId(new TradeId(tradeId, version))
+                .counterPartyId("CP-1")
+                .bookId(bookId)
+                .maturityDate(maturityDate)
+                .createdDate(LocalDate.now())
+                .expired(false)
+                .build();
+    }
+}
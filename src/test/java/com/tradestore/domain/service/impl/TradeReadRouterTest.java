@@ -0,0 +1,162 @@
+package com.tradestore.domain.service.impl;
+
+import com.tradestore.infrastructure.store.TradeStore;
+import com.tradestore.infrastructure.store.TradeStore.Kind;
+import com.tradestore.infrastructure.store.TradeStores;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TradeReadRouterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TradeReadRouter router;
+
+    @AfterEach
+    void tearDown() {
+        if (router != null) {
+            router.shutdown();
+        }
+    }
+
+    @Test
+    void choose_Disabled_AlwaysMongo() {
+        router = new TradeReadRouter(meterRegistry, stores("dual-write"), false, 1.0, 0.5, 5, 200, 2);
+
+        assertEquals(Kind.MONGO, router.choose());
+        assertThrows(IllegalStateException.class, () -> router.read(store -> {
+            throw new IllegalStateException("down");
+        }));
+    }
+
+    @Test
+    void read_PrimaryFails_FallsBackToOtherStore() {
+        router = new TradeReadRouter(meterRegistry, stores("dual-write"), true, 0.0, 0.5, 5, 200, 2);
+
+        String result = router.read(store -> {
+            if (store == Kind.MONGO) {
+                throw new IllegalStateException("down");
+            }
+            return "postgres";
+        });
+
+        assertEquals("postgres", result);
+        assertEquals(1.0, meterRegistry.get("trade.read.errors").tag("store", "mongo").counter().count());
+    }
+
+    @Test
+    void choose_PrefersFasterStore() {
+        router = new TradeReadRouter(meterRegistry, stores("dual-write"), true, 0.0, 0.5, 5, 200, 2);
+
+        // The first read goes to Mongo and is slow; the fallback records Postgres as fast
+        router.read(store -> {
+            if (store == Kind.MONGO) {
+                sleep(20);
+                throw new IllegalStateException("timeout");
+            }
+            return "postgres";
+        });
+
+        assertEquals(Kind.POSTGRES, router.choose());
+    }
+
+    @Test
+    void hedgedRead_SlowPrimary_ReturnsOtherStore() {
+        router = new TradeReadRouter(meterRegistry, stores("dual-write"), true, 0.0, 0.5, 1, 5, 2);
+
+        Optional<String> result = router.hedgedRead(store -> {
+            if (store == Kind.MONGO) {
+                sleep(500);
+                return Optional.of("mongo");
+            }
+            return Optional.of("postgres");
+        }, Optional::isPresent);
+
+        assertEquals(Optional.of("postgres"), result);
+        assertEquals(1.0, meterRegistry.get("trade.read.hedges").tag("store", "postgres").counter().count());
+    }
+
+    @Test
+    void hedgedRead_NotFoundOnPrimary_AsksOtherStore() {
+        router = new TradeReadRouter(meterRegistry, stores("dual-write"), true, 0.0, 0.5, 200, 200, 2);
+        AtomicInteger reads = new AtomicInteger();
+
+        Optional<String> result = router.hedgedRead(store -> {
+            reads.incrementAndGet();
+            return store == Kind.MONGO ? Optional.empty() : Optional.of("postgres");
+        }, Optional::isPresent);
+
+        assertEquals(Optional.of("postgres"), result);
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    void hedgedRead_NotFoundAnywhere_ReturnsEmpty() {
+        router = new TradeReadRouter(meterRegistry, stores("dual-write"), true, 0.0, 0.5, 1, 5, 2);
+
+        Optional<String> result = router.hedgedRead(store -> {
+            if (store == Kind.MONGO) {
+                sleep(50);
+            }
+            return Optional.empty();
+        }, Optional::isPresent);
+
+        assertEquals(Optional.empty(), result);
+    }
+
+    @Test
+    void read_SingleStorePolicy_DoesNotFallBack() {
+        router = new TradeReadRouter(meterRegistry, stores("postgres-only"), true, 0.0, 0.5, 5, 200, 2);
+        AtomicInteger reads = new AtomicInteger();
+
+        assertEquals(Kind.POSTGRES, router.choose());
+        assertThrows(IllegalStateException.class, () -> router.read(store -> {
+            reads.incrementAndGet();
+            throw new IllegalStateException("down");
+        }));
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    void hedgedRead_AsyncSecondary_ReadsPrimaryOnly() {
+        router = new TradeReadRouter(meterRegistry, stores("async-secondary"), true, 0.0, 0.5, 1, 5, 2);
+        AtomicInteger reads = new AtomicInteger();
+
+        // The secondary may lag, so a miss on the primary is not retried there
+        Optional<String> result = router.hedgedRead(store -> {
+            reads.incrementAndGet();
+            sleep(20);
+            return Optional.<String>empty();
+        }, Optional::isPresent);
+
+        assertEquals(Optional.empty(), result);
+        assertEquals(1, reads.get());
+    }
+
+    private TradeStores stores(String policy) {
+        return new TradeStores(List.of(store(Kind.MONGO), store(Kind.POSTGRES)), meterRegistry, policy, "mongo",
+                10, 1, 1);
+    }
+
+    private static TradeStore store(Kind kind) {
+        TradeStore store = mock(TradeStore.class);
+        when(store.kind()).thenReturn(kind);
+        return store;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
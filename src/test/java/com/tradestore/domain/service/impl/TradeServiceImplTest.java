@@ -2,67 +2,156 @@ package com.tradestore.domain.service.impl;
 
 import com.tradestore.domain.exception.TradeException;
 import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeFilter;
 import com.tradestore.domain.model.TradeId;
-import com.tradestore.infrastructure.repository.TradeRepository;
+import com.tradestore.domain.model.TradePage;
+import com.tradestore.domain.model.TradeResult;
+import com.tradestore.infrastructure.repository.BulkInsertFailure;
 import com.tradestore.domain.service.TradeService;
-import com.tradestore.infrastructure.entity.TradeEntity;
-import com.tradestore.infrastructure.messaging.TradeEventProducer;
-import com.tradestore.infrastructure.repository.TradeJpaRepository;
-import com.tradestore.infrastructure.mapper.TradeMapper;
+import com.tradestore.infrastructure.archive.TradeArchive;
+import com.tradestore.infrastructure.cache.LatestTradeCache;
+import com.tradestore.infrastructure.cache.TradeCache;
+import com.tradestore.infrastructure.cache.TradeExposureAggregates;
+import com.tradestore.infrastructure.cache.TradeMaturityIndex;
+import com.tradestore.infrastructure.cache.TradeVersionIndex;
+import com.tradestore.infrastructure.ingest.TradeWriteExecutor;
+import com.tradestore.infrastructure.messaging.TradeOutbox;
+import com.tradestore.infrastructure.scheduler.TradeExpiryShards;
+import com.tradestore.infrastructure.scheduler.TradeExpiryWatermark;
+import com.tradestore.infrastructure.store.TradeStore;
+import com.tradestore.infrastructure.store.TradeStores;
 import com.tradestore.util.TestUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class TradeServiceImplTest {
 
     @Mock
-    private TradeRepository tradeRepository;
+    private TradeStores stores;
 
     @Mock
-    private TradeJpaRepository jpaRepository;
+    private TradeStore mongoStore;
 
     @Mock
-    private TradeMapper tradeMapper;
+    private TradeStore postgresStore;
 
     @Mock
-    private TradeEventProducer eventProducer;
+    private TradeOutbox tradeOutbox;
+
+    @Mock
+    private TradeVersionIndex versionIndex;
+
+    @Mock
+    private TradeMaturityIndex maturityIndex;
+
+    @Mock
+    private TradeWriteExecutor writeExecutor;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TradeExpiryShards expiryShards;
+
+    @Mock
+    private TradeExpiryWatermark expiryWatermark;
+
+    @Mock
+    private TradeArchive tradeArchive;
+
+    @Mock
+    private TradeCache tradeCache;
+
+    @Mock
+    private LatestTradeCache latestTradeCache;
+
+    @Mock
+    private TradeReadRouter readRouter;
+
+    @Mock
+    private TradeExposureAggregates exposureAggregates;
 
     @InjectMocks
     private TradeServiceImpl tradeService;
 
     private Trade validTrade;
     private Trade expiredTrade;
-    private TradeEntity validTradeEntity;
+    private TradeStore.Kind routedStore = TradeStore.Kind.MONGO;
 
     @BeforeEach
     void setUp() {
         validTrade = TestUtils.createValidTrade();
         expiredTrade = TestUtils.createExpiredTrade();
-        validTradeEntity = TestUtils.createValidTradeEntity();
+        ReflectionTestUtils.setField(tradeService, "maxBatchSize", 1000);
+        ReflectionTestUtils.setField(tradeService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(tradeService, "fetchSize", 50);
         
         // Use lenient() for setup stubbings that might not be used in every test
-        lenient().when(tradeRepository.save(any(Trade.class))).thenReturn(validTrade);
-        lenient().when(tradeRepository.findByTradeIdAndVersion(anyString(), anyInt())).thenReturn(Optional.empty());
-        lenient().when(tradeRepository.findAll()).thenReturn(Arrays.asList(validTrade, expiredTrade));
-        lenient().when(tradeMapper.toEntity(any(Trade.class))).thenReturn(validTradeEntity);
-        lenient().when(tradeMapper.toDomain(any(TradeEntity.class))).thenReturn(validTrade);
+        // Dual write with MongoDB as the primary, the default policy
+        lenient().when(mongoStore.kind()).thenReturn(TradeStore.Kind.MONGO);
+        lenient().when(postgresStore.kind()).thenReturn(TradeStore.Kind.POSTGRES);
+        lenient().when(postgresStore.transactional()).thenReturn(true);
+        lenient().when(stores.primary()).thenReturn(mongoStore);
+        lenient().when(stores.get(TradeStore.Kind.MONGO)).thenReturn(mongoStore);
+        lenient().when(stores.get(TradeStore.Kind.POSTGRES)).thenReturn(postgresStore);
+        lenient().when(stores.written()).thenReturn(List.of(mongoStore, postgresStore));
+        lenient().when(stores.isDualWrite()).thenReturn(true);
+        lenient().doAnswer(invocation -> {
+            invocation.getArgument(1, Consumer.class).accept(postgresStore);
+            return null;
+        }).when(stores).replicate(anyString(), any());
+        lenient().when(mongoStore.insert(any(Trade.class))).thenReturn(validTrade);
+        lenient().when(mongoStore.findAll()).thenReturn(Arrays.asList(validTrade, expiredTrade));
+        lenient().when(versionIndex.check(any(TradeId.class))).thenReturn(TradeVersionIndex.Decision.UNKNOWN);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(writeExecutor.supply(any())).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync((Supplier<?>) invocation.getArgument(0), Runnable::run));
+        lenient().when(tradeCache.get(anyString(), anyInt(), any())).thenAnswer(invocation ->
+                invocation.getArgument(2, Supplier.class).get());
+        lenient().when(latestTradeCache.get(anyString(), any())).thenAnswer(invocation ->
+                invocation.getArgument(1, Supplier.class).get());
+        lenient().when(readRouter.read(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, Function.class).apply(routedStore));
+        lenient().when(readRouter.hedgedRead(any(), any())).thenAnswer(invocation ->
+                invocation.getArgument(0, Function.class).apply(routedStore));
     }
 
     @Test
@@ -72,20 +161,136 @@ class TradeServiceImplTest {
 
         // Assert
         assertNotNull(result);
-        verify(tradeRepository).save(any(Trade.class));
-        verify(jpaRepository).save(any(TradeEntity.class));
-        verify(eventProducer).sendTradeEvent(any(Trade.class));
+        verify(mongoStore).insert(argThat((Trade trade) -> "T1:1".equals(trade.getId())));
+        verify(mongoStore, never()).findById(anyString(), anyInt());
+        verify(postgresStore).saveAll(argThat((List<Trade> trades) -> "T1:1".equals(trades.get(0).getId())));
+        verify(tradeOutbox).enqueue(any(Trade.class));
+        verify(latestTradeCache).record(validTrade);
+        verify(exposureAggregates).record(validTrade);
     }
 
     @Test
     void storeTrade_ExistingTrade_ThrowsException() {
         // Setup mocks
-        when(tradeRepository.findByTradeIdAndVersion(eq(validTrade.getTradeId().getTradeId()), eq(validTrade.getTradeId().getVersion())))
-                .thenReturn(Optional.of(validTrade));
+        when(mongoStore.insert(any(Trade.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+
+        // Execute and verify
+        assertThrows(TradeException.class, () -> tradeService.storeTrade(validTrade));
+        verify(tradeOutbox, never()).enqueue(any(Trade.class));
+    }
+
+    @Test
+    void storeTrade_IndexKnowsVersion_ThrowsWithoutLookup() {
+        // Setup mocks
+        when(versionIndex.check(validTrade.getTradeId())).thenReturn(TradeVersionIndex.Decision.DUPLICATE);
 
         // Execute and verify
         assertThrows(TradeException.class, () -> tradeService.storeTrade(validTrade));
-        verify(eventProducer, never()).sendTradeEvent(any(Trade.class));
+        verify(mongoStore, never()).insert(any(Trade.class));
+    }
+
+    @Test
+    void storeTrade_IndexReportsNewVersion_RecordsVersion() {
+        // Setup mocks
+        when(versionIndex.check(validTrade.getTradeId())).thenReturn(TradeVersionIndex.Decision.NEW);
+
+        // Execute
+        tradeService.storeTrade(validTrade);
+
+        // Verify
+        verify(versionIndex).record(validTrade.getTradeId());
+        verify(maturityIndex).add(validTrade.getTradeId(), validTrade.getMaturityDate());
+    }
+
+    @Test
+    void storeTrade_PostgresFails_RemovesMongoDocument() {
+        // Setup mocks
+        doThrow(new DataIntegrityViolationException("constraint")).when(postgresStore).saveAll(anyList());
+
+        // Execute and verify
+        assertThrows(TradeException.class, () -> tradeService.storeTrade(validTrade));
+        verify(mongoStore).delete(argThat(trade -> "T1:1".equals(trade.getId())));
+        verify(tradeOutbox, never()).enqueue(any(Trade.class));
+    }
+
+    @Test
+    void storeTrade_PostgresPrimaryMongoFails_LeavesRollbackToTransaction() {
+        // Setup mocks
+        when(stores.primary()).thenReturn(postgresStore);
+        when(postgresStore.insert(any(Trade.class))).thenReturn(validTrade);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, Consumer.class).accept(mongoStore);
+            return null;
+        }).when(stores).replicate(anyString(), any());
+        doThrow(new DataIntegrityViolationException("down")).when(mongoStore).saveAll(anyList());
+
+        // Execute and verify
+        assertThrows(TradeException.class, () -> tradeService.storeTrade(validTrade));
+        verify(postgresStore, never()).delete(any(Trade.class));
+        verify(mongoStore, never()).delete(any(Trade.class));
+    }
+
+    @Test
+    void storeTrade_ParallelMode_WritesBothStores() {
+        ReflectionTestUtils.setField(tradeService, "writeMode", "parallel");
+
+        // Act
+        Trade result = tradeService.storeTrade(validTrade);
+
+        // Assert
+        assertNotNull(result);
+        verify(writeExecutor).supply(any());
+        verify(mongoStore).insert(argThat((Trade trade) -> "T1:1".equals(trade.getId())));
+        verify(postgresStore).saveAll(anyList());
+        verify(mongoStore, never()).delete(any(Trade.class));
+        verify(tradeOutbox).enqueue(any(Trade.class));
+    }
+
+    @Test
+    void storeTrade_ParallelModeSingleStore_WritesSequentially() {
+        ReflectionTestUtils.setField(tradeService, "writeMode", "parallel");
+        when(stores.isDualWrite()).thenReturn(false);
+
+        // Act
+        tradeService.storeTrade(validTrade);
+
+        // Assert
+        verify(writeExecutor, never()).supply(any());
+        verify(mongoStore).insert(any(Trade.class));
+    }
+
+    @Test
+    void storeTrade_ParallelModePostgresFails_RemovesMongoDocument() {
+        ReflectionTestUtils.setField(tradeService, "writeMode", "parallel");
+        doThrow(new DataIntegrityViolationException("constraint")).when(postgresStore).saveAll(anyList());
+
+        // Execute and verify
+        assertThrows(TradeException.class, () -> tradeService.storeTrade(validTrade));
+        verify(mongoStore).delete(argThat(trade -> "T1:1".equals(trade.getId())));
+    }
+
+    @Test
+    void storeTrade_ParallelModeDuplicateInMongo_KeepsExistingDocument() {
+        ReflectionTestUtils.setField(tradeService, "writeMode", "parallel");
+        when(mongoStore.insert(any(Trade.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+
+        // Execute and verify
+        TradeException e = assertThrows(TradeException.class, () -> tradeService.storeTrade(validTrade));
+        assertTrue(e.getMessage().contains("Trade with same ID and version already exists"));
+        verify(mongoStore, never()).delete(any(Trade.class));
+        verify(tradeOutbox, never()).enqueue(any(Trade.class));
+    }
+
+    @Test
+    void storeTrade_VersionAlreadyArchived_ThrowsDuplicate() {
+        when(tradeArchive.find("T1", 1)).thenReturn(Optional.of(validTrade.toBuilder().expired(true).build()));
+
+        TradeException e = assertThrows(TradeException.class, () -> tradeService.storeTrade(validTrade));
+        assertTrue(e.getMessage().contains("Trade with same ID and version already exists"));
+        verify(mongoStore, never()).insert(any(Trade.class));
+        verify(tradeOutbox, never()).enqueue(any(Trade.class));
     }
 
     @Test
@@ -97,7 +302,7 @@ class TradeServiceImplTest {
 
         // Execute and verify
         assertThrows(TradeException.class, () -> tradeService.storeTrade(pastMaturityTrade));
-        verify(eventProducer, never()).sendTradeEvent(any(Trade.class));
+        verify(tradeOutbox, never()).enqueue(any(Trade.class));
     }
 
     @Test
@@ -108,16 +313,13 @@ class TradeServiceImplTest {
         // Assert
         assertNotNull(result);
         assertEquals(2, result.size());
-        verify(tradeRepository).findAll();
+        verify(mongoStore).findAll();
     }
 
     @Test
     void getTradeById_ExistingTrade_ReturnsTrade() {
         // Setup mocks
-        when(tradeRepository.findByTradeIdAndVersion(
-            validTrade.getTradeId().getTradeId(), 
-            validTrade.getTradeId().getVersion()))
-            .thenReturn(Optional.of(validTrade));
+        when(mongoStore.findById("T1", 1)).thenReturn(Optional.of(validTrade));
 
         // Act
         Optional<Trade> result = tradeService.getTradeById(
@@ -127,71 +329,554 @@ class TradeServiceImplTest {
         // Assert
         assertTrue(result.isPresent());
         assertEquals(validTrade.getTradeId().getTradeId(), result.get().getTradeId().getTradeId());
-        verify(tradeRepository).findByTradeIdAndVersion(
-            validTrade.getTradeId().getTradeId(), 
-            validTrade.getTradeId().getVersion());
+        verify(mongoStore).findById("T1", 1);
+        verifyNoInteractions(tradeArchive);
+    }
+
+    @Test
+    void getTradeById_Archived_FallsBackToArchive() {
+        // Setup mocks
+        when(mongoStore.findById("T1", 1)).thenReturn(Optional.empty());
+        when(tradeArchive.find("T1", 1)).thenReturn(Optional.of(validTrade));
+
+        // Act
+        Optional<Trade> result = tradeService.getTradeById("T1", 1);
+
+        // Assert
+        assertEquals(Optional.of(validTrade), result);
+    }
+
+    @Test
+    void getTradeById_RoutedToPostgres_ReadsPostgres() {
+        // Setup mocks
+        routedStore = TradeStore.Kind.POSTGRES;
+        when(postgresStore.findById("T1", 1)).thenReturn(Optional.of(validTrade));
+
+        // Act
+        Optional<Trade> result = tradeService.getTradeById("T1", 1);
+
+        // Assert
+        assertEquals(Optional.of(validTrade), result);
+        verify(mongoStore, never()).findById(anyString(), anyInt());
+    }
+
+    @Test
+    void getTradesByTradeId_MergesArchivedVersions() {
+        // Setup mocks
+        Trade latest = validTrade.toBuilder().tradeId(new TradeId("T1", 3)).build();
+        Trade archivedCopy = validTrade.toBuilder().tradeId(new TradeId("T1", 3)).expired(true).build();
+        Trade oldest = validTrade.toBuilder().tradeId(new TradeId("T1", 1)).expired(true).build();
+        when(mongoStore.findVersions("T1")).thenReturn(List.of(latest));
+        when(tradeArchive.findByTradeId("T1")).thenReturn(List.of(archivedCopy, oldest));
+
+        // Execute
+        List<Trade> result = tradeService.getTradesByTradeId("T1");
+
+        // Verify
+        assertEquals(List.of(latest, oldest), result);
+    }
+
+    @Test
+    void getLatestTrade_Miss_QueriesLatestVersion() {
+        // Setup mocks
+        when(mongoStore.findLatest("T1")).thenReturn(Optional.of(validTrade));
+
+        // Act
+        Optional<Trade> result = tradeService.getLatestTrade("T1");
+
+        // Assert
+        assertEquals(Optional.of(validTrade), result);
+        verify(mongoStore, never()).findVersions(anyString());
+    }
+
+    @Test
+    void getLatestTrade_OnlyArchived_FallsBackToArchive() {
+        // Setup mocks
+        when(mongoStore.findLatest("T1")).thenReturn(Optional.empty());
+        when(tradeArchive.findByTradeId("T1")).thenReturn(List.of(expiredTrade));
+
+        // Act & Assert
+        assertEquals(Optional.of(expiredTrade), tradeService.getLatestTrade("T1"));
     }
 
     @Test
     void getTradesByTradeId_ReturnsAllVersions() {
         // Setup mocks
         List<Trade> expectedTrades = Arrays.asList(validTrade);
-        when(tradeRepository.findByTradeIdOrderByVersionDesc(anyString()))
-                .thenReturn(expectedTrades);
+        when(mongoStore.findVersions(anyString())).thenReturn(expectedTrades);
 
         // Execute
         List<Trade> result = tradeService.getTradesByTradeId("T1");
 
         // Verify
         assertEquals(expectedTrades.size(), result.size());
-        verify(tradeRepository).findByTradeIdOrderByVersionDesc("T1");
+        verify(mongoStore).findVersions("T1");
+    }
+
+    @Test
+    void updateExpiredTrades_ShouldExpireEachMaturityDateInBulk() {
+        // Arrange
+        LocalDate first = LocalDate.now().minusDays(2);
+        LocalDate second = LocalDate.now().minusDays(1);
+        when(mongoStore.findUnexpiredMaturityDatesBetween(any(), any(LocalDate.class))).thenReturn(List.of(first, second));
+        when(mongoStore.streamUnexpiredByMaturityDate(first, 50)).thenReturn(Stream.of(expiredTrade));
+        when(mongoStore.streamUnexpiredByMaturityDate(second, 50)).thenReturn(Stream.empty());
+        when(mongoStore.expireByMaturityDate(any(LocalDate.class))).thenReturn(1L);
+
+        // Act
+        tradeService.updateExpiredTrades();
+
+        // Assert
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(postgresStore).expireByMaturityDate(first);
+        verify(postgresStore).expireByMaturityDate(second);
+        verify(mongoStore).expireByMaturityDate(first);
+        verify(mongoStore).expireByMaturityDate(second);
+        verify(tradeCache).invalidateMaturingOn(first);
+        verify(tradeCache).invalidateMaturingOn(second);
+        verify(exposureAggregates).expireMaturingOn(first);
+        verify(exposureAggregates).expireMaturingOn(second);
+        verify(tradeOutbox).enqueueAll(argThat((List<Trade> trades) ->
+                trades.size() == 1 && trades.get(0).isExpired()));
+        verify(mongoStore, never()).saveAll(anyList());
+        verify(postgresStore, never()).saveAll(anyList());
+    }
+
+    @Test
+    void updateExpiredTrades_EnqueuesEventsInFetchSizeGroups() {
+        // Arrange
+        ReflectionTestUtils.setField(tradeService, "fetchSize", 2);
+        LocalDate maturityDate = LocalDate.now().minusDays(1);
+        when(mongoStore.findUnexpiredMaturityDatesBetween(any(), any(LocalDate.class))).thenReturn(List.of(maturityDate));
+        when(mongoStore.streamUnexpiredByMaturityDate(maturityDate, 2))
+                .thenReturn(Stream.of(expiredTrade, expiredTrade, expiredTrade));
+
+        // Act
+        tradeService.updateExpiredTrades();
+
+        // Assert
+        verify(tradeOutbox).enqueueAll(argThat((List<Trade> trades) -> trades.size() == 2));
+        verify(tradeOutbox).enqueueAll(argThat((List<Trade> trades) -> trades.size() == 1));
+    }
+
+    @Test
+    void updateExpiredTrades_PostgresFails_LeavesMongoUntouched() {
+        // Arrange
+        LocalDate maturityDate = LocalDate.now().minusDays(1);
+        when(mongoStore.findUnexpiredMaturityDatesBetween(any(), any(LocalDate.class))).thenReturn(List.of(maturityDate));
+        when(postgresStore.expireByMaturityDate(maturityDate)).thenThrow(new DataIntegrityViolationException("down"));
+
+        // Act & Assert
+        assertThrows(TradeException.class, () -> tradeService.updateExpiredTrades());
+        verify(mongoStore, never()).expireByMaturityDate(any(LocalDate.class));
+    }
+
+    @Test
+    void updateExpiredTrades_Sharded_ExpiresOnlyOwnedShards() {
+        // Arrange
+        LocalDate maturityDate = LocalDate.now().minusDays(1);
+        Trade otherShard = expiredTrade.toBuilder().tradeId(new TradeId("T3", 1)).build();
+        when(expiryShards.isEnabled()).thenReturn(true);
+        when(expiryShards.getOwnedShards()).thenReturn(Set.of(1));
+        when(expiryShards.ownsShard(1)).thenReturn(true);
+        when(expiryShards.owns(expiredTrade.getTradeId())).thenReturn(true);
+        when(expiryShards.owns(otherShard.getTradeId())).thenReturn(false);
+        when(mongoStore.findUnexpiredMaturityDatesBetween(any(), any(LocalDate.class))).thenReturn(List.of(maturityDate));
+        when(mongoStore.streamUnexpiredByMaturityDate(maturityDate, 50))
+                .thenReturn(Stream.of(expiredTrade, otherShard));
+
+        // Act
+        tradeService.updateExpiredTrades();
+
+        // Assert
+        verify(postgresStore).expireAll(List.of(expiredTrade.toBuilder().expired(true).build()));
+        verify(mongoStore).expireAll(List.of(expiredTrade.toBuilder().expired(true).build()));
+        verify(postgresStore, never()).expireByMaturityDate(any(LocalDate.class));
+        verify(mongoStore, never()).expireByMaturityDate(any(LocalDate.class));
+        verify(expiryWatermark, atLeastOnce()).advance(List.of("shard-1"), maturityDate);
+        verify(tradeCache).invalidate(List.of(expiredTrade.getTradeId()));
+        verify(latestTradeCache).recordExpired(List.of(expiredTrade.toBuilder().expired(true).build()));
+        verify(exposureAggregates).recordExpired(List.of(expiredTrade.toBuilder().expired(true).build()));
     }
 
     @Test
-    void updateExpiredTrades_ShouldMarkExpiredTrades() {
+    void updateExpiredTrades_Sharded_NoShardsOwned_SkipsSweep() {
         // Arrange
-        List<Trade> expiredTrades = Arrays.asList(expiredTrade);
-        when(tradeRepository.findByMaturityDateBeforeAndExpiredFalse(any(LocalDate.class)))
-            .thenReturn(expiredTrades);
-        when(tradeRepository.save(any(Trade.class))).thenReturn(expiredTrade);
+        when(expiryShards.isEnabled()).thenReturn(true);
+        when(expiryShards.getOwnedShards()).thenReturn(Set.of());
 
         // Act
         tradeService.updateExpiredTrades();
 
         // Assert
-        verify(tradeRepository).findByMaturityDateBeforeAndExpiredFalse(any(LocalDate.class));
-        verify(tradeRepository).save(any(Trade.class));
-        verify(jpaRepository).save(any(TradeEntity.class));
-        verify(eventProducer).sendTradeEvent(any(Trade.class));
+        verify(mongoStore, never()).findUnexpiredMaturityDatesBetween(any(), any());
+        verifyNoInteractions(expiryWatermark);
+    }
+
+    @Test
+    void updateExpiredTrades_ResumesFromWatermarkAndAdvancesPerDate() {
+        // Arrange
+        LocalDate watermark = LocalDate.now().minusDays(5);
+        LocalDate maturityDate = LocalDate.now().minusDays(3);
+        when(expiryWatermark.lowerBound(List.of("all"))).thenReturn(watermark);
+        when(mongoStore.findUnexpiredMaturityDatesBetween(watermark, LocalDate.now())).thenReturn(List.of(maturityDate));
+        when(mongoStore.streamUnexpiredByMaturityDate(maturityDate, 50)).thenReturn(Stream.empty());
+
+        // Act
+        tradeService.updateExpiredTrades();
+
+        // Assert
+        InOrder inOrder = inOrder(mongoStore, expiryWatermark);
+        inOrder.verify(mongoStore).expireByMaturityDate(maturityDate);
+        inOrder.verify(expiryWatermark).advance(List.of("all"), maturityDate);
+        inOrder.verify(expiryWatermark).advance(List.of("all"), LocalDate.now().minusDays(1));
+    }
+
+    @Test
+    void updateExpiredTrades_ChunkFails_DoesNotAdvanceWatermark() {
+        // Arrange
+        LocalDate maturityDate = LocalDate.now().minusDays(1);
+        when(mongoStore.findUnexpiredMaturityDatesBetween(any(), any(LocalDate.class))).thenReturn(List.of(maturityDate));
+        when(postgresStore.expireByMaturityDate(maturityDate)).thenThrow(new DataIntegrityViolationException("down"));
+
+        // Act & Assert
+        assertThrows(TradeException.class, () -> tradeService.updateExpiredTrades());
+        verify(expiryWatermark, never()).advance(anyList(), any(LocalDate.class));
+    }
+
+    @Test
+    void expireTrades_UnexpiredTrades_ExpiresBothStoresAndQueuesEvents() {
+        // Arrange
+        List<TradeId> due = List.of(expiredTrade.getTradeId(), new TradeId("T9", 1));
+        when(mongoStore.findUnexpiredByTradeIds(due)).thenReturn(List.of(expiredTrade));
+
+        // Act
+        int expired = tradeService.expireTrades(due);
+
+        // Assert
+        assertEquals(1, expired);
+        verify(postgresStore).expireAll(List.of(expiredTrade.toBuilder().expired(true).build()));
+        verify(tradeOutbox).enqueueAll(argThat((List<Trade> trades) -> trades.get(0).isExpired()));
+        verify(mongoStore).expireAll(List.of(expiredTrade.toBuilder().expired(true).build()));
+    }
+
+    @Test
+    void expireTrades_AlreadyExpired_DoesNothing() {
+        // Arrange
+        when(mongoStore.findUnexpiredByTradeIds(anyList())).thenReturn(List.of());
+
+        // Act
+        int expired = tradeService.expireTrades(List.of(expiredTrade.getTradeId()));
+
+        // Assert
+        assertEquals(0, expired);
+        verifyNoInteractions(transactionTemplate, tradeOutbox);
+        verify(mongoStore, never()).expireAll(anyList());
     }
 
     @Test
     void getMongoTrades_ReturnsAllMongoTrades() {
         // Setup mocks
         List<Trade> expectedTrades = Arrays.asList(validTrade, expiredTrade);
-        when(tradeRepository.findAll()).thenReturn(expectedTrades);
+        when(mongoStore.findAll()).thenReturn(expectedTrades);
 
         // Execute
         List<Trade> result = tradeService.getMongoTrades();
 
         // Verify
         assertEquals(expectedTrades.size(), result.size());
-        verify(tradeRepository).findAll();
+        verify(mongoStore).findAll();
+    }
+
+    @Test
+    void getMongoTradesPage_FullPage_ReturnsCursorOfLastTrade() {
+        // Setup mocks
+        when(mongoStore.findPageMatching(new TradeFilter(), new TradeId("T1", 1), 2)).thenReturn(List.of(validTrade, expiredTrade));
+
+        // Execute
+        TradePage page = tradeService.getMongoTradesPage("T1:1", 2);
+
+        // Verify
+        assertEquals(2, page.getTrades().size());
+        assertEquals("T2:1", page.getNextCursor());
+    }
+
+    @Test
+    void getMongoTradesPage_LastPage_ReturnsNoCursor() {
+        // Setup mocks
+        when(mongoStore.findPageMatching(new TradeFilter(), null, 10)).thenReturn(List.of(validTrade));
+
+        // Execute
+        TradePage page = tradeService.getMongoTradesPage(null, 10);
+
+        // Verify
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getTradesPage_RoutedToPostgres_UsesPostgresKeyset() {
+        // Setup mocks
+        routedStore = TradeStore.Kind.POSTGRES;
+        when(postgresStore.findPageMatching(any(TradeFilter.class), isNull(), eq(5))).thenReturn(List.of(validTrade));
+
+        // Execute
+        TradePage page = tradeService.getTradesPage(null, 5);
+
+        // Verify
+        assertEquals(List.of(validTrade), page.getTrades());
+        verify(mongoStore, never()).findPageMatching(any(), any(), anyInt());
+    }
+
+    @Test
+    void searchTrades_RoutedToPostgres_PassesFilterAndCursor() {
+        // Setup mocks
+        routedStore = TradeStore.Kind.POSTGRES;
+        TradeFilter filter = TradeFilter.builder().bookId("B1").expired(false).build();
+        when(postgresStore.findPageMatching(filter, new TradeId("T1", 1), 1)).thenReturn(List.of(validTrade));
+
+        // Execute
+        TradePage page = tradeService.searchTrades(filter, "T1:1", 1);
+
+        // Verify
+        assertEquals(List.of(validTrade), page.getTrades());
+        assertEquals("T1:1", page.getNextCursor());
+    }
+
+    @Test
+    void searchTrades_InvertedMaturityRange_ThrowsException() {
+        TradeFilter filter = TradeFilter.builder()
+                .maturityFrom(LocalDate.now().plusDays(5))
+                .maturityTo(LocalDate.now())
+                .build();
+
+        assertThrows(TradeException.class, () -> tradeService.searchTrades(filter, null, 10));
+        verify(mongoStore, never()).findPageMatching(any(), any(), anyInt());
+    }
+
+    @Test
+    void getMongoTradesPage_LimitTooLarge_ThrowsException() {
+        assertThrows(TradeException.class, () -> tradeService.getMongoTradesPage(null, 101));
+        verify(mongoStore, never()).findPageMatching(any(), any(), anyInt());
+    }
+
+    @Test
+    void getPostgresTradesPage_AfterCursor_QueriesKeyset() {
+        // Setup mocks
+        when(postgresStore.findPageMatching(new TradeFilter(), new TradeId("T1", 1), 5)).thenReturn(List.of(validTrade));
+
+        // Execute
+        TradePage page = tradeService.getPostgresTradesPage("T1:1", 5);
+
+        // Verify
+        assertEquals(List.of(validTrade), page.getTrades());
+        verify(mongoStore, never()).findPageMatching(any(), any(), anyInt());
+    }
+
+    @Test
+    void getPostgresTradesPage_InvalidCursor_ThrowsException() {
+        assertThrows(TradeException.class, () -> tradeService.getPostgresTradesPage("T1", 5));
+    }
+
+    @Test
+    void streamTrades_RouterPrefersPostgres_StreamsFromPostgresInTransaction() {
+        // Setup mocks
+        when(readRouter.choose()).thenReturn(TradeStore.Kind.POSTGRES);
+        when(postgresStore.streamAll(50)).thenReturn(Stream.of(validTrade));
+        List<Trade> received = new ArrayList<>();
+
+        // Execute
+        tradeService.streamTrades(received::add);
+
+        // Verify
+        assertEquals(List.of(validTrade), received);
+        verify(transactionTemplate).executeWithoutResult(any());
+        verify(mongoStore, never()).streamAll(anyInt());
+    }
+
+    @Test
+    void streamTrades_RouterPrefersMongo_StreamsFromMongo() {
+        // Setup mocks
+        when(readRouter.choose()).thenReturn(TradeStore.Kind.MONGO);
+        when(mongoStore.streamAll(50)).thenReturn(Stream.of(validTrade));
+        List<Trade> received = new ArrayList<>();
+
+        // Execute
+        tradeService.streamTrades(received::add);
+
+        // Verify
+        assertEquals(List.of(validTrade), received);
+        verify(postgresStore, never()).streamAll(anyInt());
+    }
+
+    @Test
+    void streamMongoTrades_PassesEachTradeToConsumer() {
+        // Setup mocks
+        when(mongoStore.streamAll(50)).thenReturn(Stream.of(validTrade, expiredTrade));
+        List<Trade> received = new ArrayList<>();
+
+        // Execute
+        tradeService.streamMongoTrades(received::add);
+
+        // Verify
+        assertEquals(List.of(validTrade, expiredTrade), received);
+    }
+
+    @Test
+    void streamPostgresTrades_PassesEachTradeToConsumer() {
+        // Setup mocks
+        when(postgresStore.streamAll(50)).thenReturn(Stream.of(validTrade));
+        List<Trade> received = new ArrayList<>();
+
+        // Execute
+        tradeService.streamPostgresTrades(received::add);
+
+        // Verify
+        assertEquals(List.of(validTrade), received);
     }
 
     @Test
     void getPostgresTrades_ReturnsAllPostgresTrades() {
         // Setup mocks
-        List<TradeEntity> entities = Arrays.asList(validTradeEntity);
-        when(jpaRepository.findAll()).thenReturn(entities);
-        when(tradeMapper.toDomain(any(TradeEntity.class))).thenReturn(validTrade);
+        when(postgresStore.findAll()).thenReturn(List.of(validTrade));
 
         // Execute
         List<Trade> result = tradeService.getPostgresTrades();
 
         // Verify
-        assertEquals(entities.size(), result.size());
-        verify(jpaRepository).findAll();
-        verify(tradeMapper).toDomain(any(TradeEntity.class));
+        assertEquals(List.of(validTrade), result);
+        verify(mongoStore, never()).findAll();
+    }
+
+    @Test
+    void storeTrades_MixedBatch_ReturnsResultPerTrade() {
+        // Arrange
+        Trade newTrade = validTrade.toBuilder().tradeId(new TradeId("T3", 1)).build();
+        Trade existingTrade = validTrade.toBuilder().tradeId(new TradeId("T4", 2)).build();
+        Trade pastMaturityTrade = validTrade.toBuilder()
+                .tradeId(new TradeId("T5", 1))
+                .maturityDate(LocalDate.now().minusDays(1))
+                .build();
+        Trade repeatedTrade = newTrade.toBuilder().build();
+        when(versionIndex.check(existingTrade.getTradeId())).thenReturn(TradeVersionIndex.Decision.DUPLICATE);
+        when(mongoStore.insertAll(anyList())).thenReturn(List.of());
+
+        // Act
+        List<TradeResult> results = tradeService.storeTrades(
+                List.of(newTrade, existingTrade, pastMaturityTrade, repeatedTrade));
+
+        // Assert
+        assertEquals(4, results.size());
+        assertEquals(TradeResult.Status.ACCEPTED, results.get(0).getStatus());
+        assertEquals(TradeResult.Status.DUPLICATE, results.get(1).getStatus());
+        assertEquals(TradeResult.Status.REJECTED, results.get(2).getStatus());
+        assertEquals("Maturity date cannot be in the past", results.get(2).getMessage());
+        assertEquals(TradeResult.Status.DUPLICATE, results.get(3).getStatus());
+        Trade keyedTrade = newTrade.toBuilder().id("T3:1").build();
+        verify(mongoStore).insertAll(List.of(keyedTrade));
+        verify(postgresStore).saveAll(List.of(keyedTrade));
+        verify(tradeOutbox).enqueueAll(List.of(keyedTrade));
+    }
+
+    @Test
+    void storeTrades_MissingRequiredColumns_RejectsOnlyThoseTrades() {
+        // Arrange
+        Trade noCreatedDate = validTrade.toBuilder().tradeId(new TradeId("T3", 1)).createdDate(null).build();
+        Trade noBook = validTrade.toBuilder().tradeId(new TradeId("T4", 1)).bookId(null).build();
+        Trade blankCounterparty = validTrade.toBuilder().tradeId(new TradeId("T5", 1)).counterPartyId(" ").build();
+        when(mongoStore.insertAll(anyList())).thenReturn(List.of());
+
+        // Act
+        List<TradeResult> results = tradeService.storeTrades(List.of(noCreatedDate, validTrade, noBook, blankCounterparty));
+
+        // Assert
+        assertEquals(List.of(TradeResult.Status.REJECTED, TradeResult.Status.ACCEPTED,
+                        TradeResult.Status.REJECTED, TradeResult.Status.REJECTED),
+                results.stream().map(TradeResult::getStatus).toList());
+        assertEquals("Created date is required", results.get(0).getMessage());
+        assertEquals("Book ID is required", results.get(2).getMessage());
+        assertEquals("Counterparty ID is required", results.get(3).getMessage());
+        verify(mongoStore).insertAll(List.of(validTrade.toBuilder().id("T1:1").build()));
+    }
+
+    @Test
+    void storeTrades_DuplicateKeyOnInsert_MarksTradeAsDuplicate() {
+        // Arrange
+        Trade otherTrade = validTrade.toBuilder().tradeId(new TradeId("T3", 1)).build();
+        when(mongoStore.insertAll(anyList()))
+                .thenReturn(List.of(new BulkInsertFailure(0, true, "E11000 duplicate key")));
+
+        // Act
+        List<TradeResult> results = tradeService.storeTrades(List.of(validTrade, otherTrade));
+
+        // Assert
+        assertEquals(TradeResult.Status.DUPLICATE, results.get(0).getStatus());
+        assertEquals(TradeResult.Status.ACCEPTED, results.get(1).getStatus());
+        verify(postgresStore).saveAll(List.of(otherTrade.toBuilder().id("T3:1").build()));
+        verify(tradeOutbox).enqueueAll(List.of(otherTrade.toBuilder().id("T3:1").build()));
+    }
+
+    @Test
+    void storeTrades_VersionAlreadyArchived_MarksTradeAsDuplicate() {
+        // Arrange
+        Trade otherTrade = validTrade.toBuilder().tradeId(new TradeId("T3", 1)).build();
+        when(tradeArchive.find("T1", 1)).thenReturn(Optional.of(validTrade.toBuilder().expired(true).build()));
+
+        // Act
+        List<TradeResult> results = tradeService.storeTrades(List.of(validTrade, otherTrade));
+
+        // Assert
+        assertEquals(TradeResult.Status.DUPLICATE, results.get(0).getStatus());
+        assertEquals(TradeResult.Status.ACCEPTED, results.get(1).getStatus());
+        verify(mongoStore).insertAll(List.of(otherTrade.toBuilder().id("T3:1").build()));
+    }
+
+    @Test
+    void storeTrades_ParallelMode_AlignsSecondaryWithPrimary() {
+        // Arrange
+        ReflectionTestUtils.setField(tradeService, "writeMode", "parallel");
+        Trade duplicateInMongo = validTrade.toBuilder().tradeId(new TradeId("T3", 1)).build();
+        Trade missingFromPostgres = validTrade.toBuilder().tradeId(new TradeId("T4", 1)).build();
+        when(mongoStore.insertAll(anyList()))
+                .thenReturn(List.of(new BulkInsertFailure(1, true, "E11000 duplicate key")));
+        when(postgresStore.insertAll(anyList()))
+                .thenReturn(List.of(new BulkInsertFailure(2, true, "Trade with same ID and version already exists")));
+
+        // Act
+        List<TradeResult> results = tradeService.storeTrades(List.of(validTrade, duplicateInMongo, missingFromPostgres));
+
+        // Assert
+        assertEquals(List.of(TradeResult.Status.ACCEPTED, TradeResult.Status.DUPLICATE, TradeResult.Status.ACCEPTED),
+                results.stream().map(TradeResult::getStatus).toList());
+        verify(writeExecutor).supply(any());
+        verify(postgresStore).insertAll(anyList());
+        verify(postgresStore).delete(duplicateInMongo.toBuilder().id("T3:1").build());
+        verify(postgresStore).saveAll(List.of(missingFromPostgres.toBuilder().id("T4:1").build()));
+        verify(mongoStore, never()).delete(any(Trade.class));
+    }
+
+    @Test
+    void storeTrades_ParallelModePostgresFails_RemovesMongoDocuments() {
+        // Arrange
+        ReflectionTestUtils.setField(tradeService, "writeMode", "parallel");
+        Trade otherTrade = validTrade.toBuilder().tradeId(new TradeId("T3", 1)).build();
+        when(mongoStore.insertAll(anyList()))
+                .thenReturn(List.of(new BulkInsertFailure(1, true, "E11000 duplicate key")));
+        when(postgresStore.insertAll(anyList())).thenThrow(new DataIntegrityViolationException("constraint"));
+
+        // Execute and verify
+        assertThrows(TradeException.class, () -> tradeService.storeTrades(List.of(validTrade, otherTrade)));
+        verify(mongoStore).delete(validTrade.toBuilder().id("T1:1").build());
+        verify(mongoStore, never()).delete(otherTrade.toBuilder().id("T3:1").build());
+        verify(tradeOutbox, never()).enqueueAll(anyList());
+    }
+
+    @Test
+    void storeTrades_BatchTooLarge_ThrowsException() {
+        // Arrange
+        ReflectionTestUtils.setField(tradeService, "maxBatchSize", 1);
+
+        // Execute and verify
+        assertThrows(TradeException.class, () -> tradeService.storeTrades(List.of(validTrade, expiredTrade)));
+        verify(mongoStore, never()).insertAll(anyList());
     }
-} 
\ No newline at end of file
+}
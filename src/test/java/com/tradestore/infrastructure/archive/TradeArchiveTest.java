@@ -0,0 +1,100 @@
+package com.tradestore.infrastructure.archive;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeId;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void archive_ThenFind_ReturnsArchivedTrade() {
+        TradeArchive archive = newArchive();
+        archive.archive(List.of(trade("T2", 1), trade("T1", 2), trade("T1", 1)));
+
+        Optional<Trade> found = archive.find("T1", 2);
+
+        assertTrue(found.isPresent());
+        assertEquals(trade("T1", 2), found.get());
+        assertTrue(archive.find("T1", 3).isEmpty());
+        assertTrue(archive.find("T9", 1).isEmpty());
+    }
+
+    @Test
+    void findByTradeId_AcrossSegments_LatestVersionFirstWithoutDuplicates() {
+        TradeArchive archive = newArchive();
+        archive.archive(List.of(trade("T1", 1), trade("T1", 2)));
+        archive.archive(List.of(trade("T1", 2), trade("T1", 3)));
+
+        List<Trade> versions = archive.findByTradeId("T1");
+
+        assertEquals(List.of(3, 2, 1), versions.stream().map(trade -> trade.getTradeId().getVersion()).toList());
+    }
+
+    @Test
+    void load_AfterRestart_ReadsCommittedSegmentsOnly() throws Exception {
+        newArchive().archive(List.of(trade("T1", 1)));
+        // A segment without an index was interrupted before it was committed
+        Files.writeString(directory.resolve("segment-0-0.seg"), "partial");
+
+        TradeArchive reopened = newArchive();
+        reopened.load();
+
+        assertEquals(1, reopened.segmentCount());
+        assertTrue(reopened.find("T1", 1).isPresent());
+    }
+
+    @Test
+    void segment_DictionaryEncodesRepeatedColumns() throws Exception {
+        List<Trade> trades = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            trades.add(trade(String.format("T%04d", i), 1));
+        }
+        Path file = directory.resolve("bulk.seg");
+
+        TradeSegment.write(file, trades);
+
+        assertEquals(trades, TradeSegment.readAll(file));
+        assertTrue(Files.size(file) < 1000 * 20, "segment should be compressed");
+    }
+
+    @Test
+    void segmentIndex_RejectsIdsOutsideRangeAndBloom() {
+        TradeSegmentIndex index = TradeSegmentIndex.build(directory.resolve("x.seg"),
+                List.of(trade("B1", 1), trade("B5", 1), trade("B9", 1)));
+
+        assertTrue(index.mightContain("B5"));
+        assertFalse(index.mightContain("A1"));
+        assertFalse(index.mightContain("C1"));
+    }
+
+    private TradeArchive newArchive() {
+        return new TradeArchive(directory.toString(), new SimpleMeterRegistry());
+    }
+
+    private static Trade trade(String tradeId, int version) {
+        TradeId id = new TradeId(tradeId, version);
+        return Trade.builder()
+                .id(id.key())
+                .tradeId(id)
+                .counterPartyId("CP-1")
+                .bookId("B1")
+                .maturityDate(LocalDate.of(2023, 6, 30))
+                .createdDate(LocalDate.of(2023, 1, 2))
+                .expired(true)
+                .build();
+    }
+}
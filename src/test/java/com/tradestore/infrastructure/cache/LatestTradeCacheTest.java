@@ -0,0 +1,80 @@
+package com.tradestore.infrastructure.cache;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeId;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatestTradeCacheTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 15);
+
+    private LatestTradeCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new LatestTradeCache(new SimpleMeterRegistry(), true, 100, 60000,
+                Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    @Test
+    void record_KeepsHighestVersion() {
+        cache.record(trade(2, TODAY.plusDays(5)));
+        cache.record(trade(1, TODAY.plusDays(5)));
+
+        Optional<Trade> latest = cache.get("T1", () -> fail("should be served from the cache"));
+
+        assertEquals(2, latest.orElseThrow().getTradeId().getVersion());
+    }
+
+    @Test
+    void get_Miss_LoadsAndCaches() {
+        Trade trade = trade(3, TODAY.plusDays(5));
+
+        assertEquals(Optional.of(trade), cache.get("T1", () -> Optional.of(trade)));
+        assertEquals(Optional.of(trade), cache.get("T1", () -> fail("should be served from the cache")));
+    }
+
+    @Test
+    void recordExpired_ReplacesMatchingVersionOnly() {
+        cache.record(trade(2, TODAY.plusDays(5)));
+
+        cache.recordExpired(List.of(trade(1, TODAY.minusDays(1)).toBuilder().expired(true).build()));
+        assertFalse(cache.get("T1", Optional::empty).orElseThrow().isExpired());
+
+        cache.recordExpired(List.of(trade(2, TODAY.plusDays(5)).toBuilder().expired(true).build()));
+        assertTrue(cache.get("T1", Optional::empty).orElseThrow().isExpired());
+    }
+
+    @Test
+    void get_MaturedButUnexpired_Reloads() {
+        cache.record(trade(1, TODAY.minusDays(1)));
+        Trade expired = trade(1, TODAY.minusDays(1)).toBuilder().expired(true).build();
+
+        assertEquals(Optional.of(expired), cache.get("T1", () -> Optional.of(expired)));
+    }
+
+    @Test
+    void invalidateMaturingOn_DropsEntries() {
+        cache.record(trade(1, TODAY));
+
+        cache.invalidateMaturingOn(TODAY);
+
+        assertEquals(0, cache.size());
+    }
+
+    private static Trade trade(int version, LocalDate maturityDate) {
+        TradeId id = new TradeId("T1", version);
+        return Trade.builder().id(id.key()).tradeId(id).counterPartyId("CP-1").bookId("B1")
+                .maturityDate(maturityDate).createdDate(TODAY.minusDays(10)).build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.tradestore.infrastructure.cache;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeId;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeCacheTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 15);
+
+    private SimpleMeterRegistry meterRegistry;
+    private TradeCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TradeCache(meterRegistry, true, 100, 0,
+                Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_RepeatedRead_LoadsOnce() {
+        Trade trade = trade("T1", TODAY.plusDays(30), false);
+
+        cache.get("T1", 1, loader(trade));
+        Optional<Trade> second = cache.get("T1", 1, loader(trade));
+
+        assertEquals(Optional.of(trade), second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "trades").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void get_Miss_IsNotCached() {
+        cache.get("T1", 1, loader(null));
+        cache.get("T1", 1, loader(null));
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void get_MaturedButUnexpiredEntry_Reloads() {
+        Trade matured = trade("T1", TODAY.minusDays(1), false);
+        Trade expired = matured.toBuilder().expired(true).build();
+
+        cache.get("T1", 1, loader(matured));
+        Optional<Trade> reloaded = cache.get("T1", 1, loader(expired));
+        cache.get("T1", 1, loader(expired));
+
+        assertTrue(reloaded.orElseThrow().isExpired());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_RemovesExpiredTrades() {
+        Trade trade = trade("T1", TODAY.plusDays(1), false);
+        cache.get("T1", 1, loader(trade));
+
+        cache.invalidate(List.of(trade.getTradeId()));
+        cache.get("T1", 1, loader(trade));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidateMaturingOn_RemovesOnlyThatDate() {
+        cache.get("T1", 1, loader(trade("T1", TODAY, false)));
+        cache.get("T2", 1, loader(trade("T2", TODAY.plusDays(1), false)));
+
+        cache.invalidateMaturingOn(TODAY);
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void get_Disabled_AlwaysLoads() {
+        cache = new TradeCache(meterRegistry, false, 100, 0, Clock.systemDefaultZone());
+        Trade trade = trade("T1", TODAY.plusDays(30), false);
+
+        cache.get("T1", 1, loader(trade));
+        cache.get("T1", 1, loader(trade));
+
+        assertEquals(2, loads.get());
+    }
+
+    private Supplier<Optional<Trade>> loader(Trade trade) {
+        return () -> {
+            loads.incrementAndGet();
+            return Optional.ofNullable(trade);
+        };
+    }
+
+    private static Trade trade(String tradeId, LocalDate maturityDate, boolean expired) {
+        TradeId id = new TradeId(tradeId, 1);
+        return Trade.builder().id(id.key()).tradeId(id).counterPartyId("CP-1").bookId("B1")
+                .maturityDate(maturityDate).createdDate(TODAY.minusDays(10)).expired(expired).build();
+    }
+}
@@ -0,0 +1,223 @@
+package com.tradestore.infrastructure.cache;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeExposure;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.store.TradeStore;
+import com.tradestore.infrastructure.store.TradeStores;
+import com.tradestore.infrastructure.tradelog.TradeLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeExposureAggregatesTest {
+
+    private static final LocalDate MARCH = LocalDate.of(2030, 3, 15);
+    private static final LocalDate JUNE = LocalDate.of(2030, 6, 1);
+
+    @Mock
+    private TradeStore primaryStore;
+
+    @Mock
+    private TradeStores stores;
+
+    @Mock
+    private ObjectProvider<TradeStores> storesProvider;
+
+    @Mock
+    private ObjectProvider<TradeLog> tradeLogProvider;
+
+    @Mock
+    private TradeLog tradeLog;
+
+    private TradeExposureAggregates aggregates;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(storesProvider.getIfAvailable()).thenReturn(stores);
+        lenient().when(stores.primary()).thenReturn(primaryStore);
+        aggregates = new TradeExposureAggregates(storesProvider, tradeLogProvider, new SimpleMeterRegistry(), true, 100);
+    }
+
+    @Test
+    void record_CountsTradesByBookAndMaturityMonth() {
+        // Act
+        aggregates.record(trade("T1", 1, "B1", "CP1", MARCH, false));
+        aggregates.record(trade("T2", 1, "B1", "CP2", JUNE, false));
+
+        // Assert
+        TradeExposure book = aggregates.book("B1").orElseThrow();
+        assertEquals(2, book.getLiveTrades());
+        assertEquals(Map.of("2030-03", 1L, "2030-06", 1L), book.getMaturityBuckets());
+        assertEquals(List.of("CP1", "CP2"), aggregates.counterparties().stream().map(TradeExposure::getKey).toList());
+    }
+
+    @Test
+    void record_NewVersion_MovesTradeToNewBook() {
+        // Act
+        aggregates.record(trade("T1", 1, "B1", "CP1", MARCH, false));
+        aggregates.record(trade("T1", 2, "B2", "CP1", JUNE, false));
+        aggregates.record(trade("T1", 1, "B1", "CP1", MARCH, false));
+
+        // Assert
+        assertEquals(Optional.empty(), aggregates.book("B1"));
+        assertEquals(Map.of("2030-06", 1L), aggregates.book("B2").orElseThrow().getMaturityBuckets());
+        assertEquals(1, aggregates.counterparty("CP1").orElseThrow().getLiveTrades());
+    }
+
+    @Test
+    void recordExpired_RemovesTradeAndIgnoresStaleUnexpiredCopy() {
+        // Arrange
+        Trade live = trade("T1", 1, "B1", "CP1", MARCH, false);
+        aggregates.record(live);
+
+        // Act
+        aggregates.recordExpired(List.of(live.toBuilder().expired(true).build()));
+        aggregates.record(live);
+
+        // Assert
+        assertTrue(aggregates.books().isEmpty());
+    }
+
+    @Test
+    void expireMaturingOn_RemovesOnlyThatDate() {
+        // Arrange
+        aggregates.record(trade("T1", 1, "B1", "CP1", MARCH, false));
+        aggregates.record(trade("T2", 1, "B1", "CP1", JUNE, false));
+
+        // Act
+        aggregates.expireMaturingOn(MARCH);
+
+        // Assert
+        assertEquals(Map.of("2030-06", 1L), aggregates.book("B1").orElseThrow().getMaturityBuckets());
+    }
+
+    @Test
+    void rebuild_StreamsTradesAndMarksLoaded() {
+        // Arrange
+        when(primaryStore.streamExposureFields(100)).thenReturn(Stream.of(
+                trade("T1", 1, "B1", "CP1", MARCH, false),
+                trade("T1", 2, "B1", "CP1", MARCH, true),
+                trade("T2", 1, "B2", "CP1", JUNE, false)));
+
+        // Act
+        aggregates.rebuild();
+
+        // Assert
+        assertTrue(aggregates.isLoaded());
+        assertEquals(Optional.empty(), aggregates.book("B1"));
+        assertEquals(1, aggregates.counterparty("CP1").orElseThrow().getLiveTrades());
+    }
+
+    @Test
+    void refresh_WritesAndExpiryOnOtherNode_CountedAfterRebuild() {
+        // Arrange: two nodes over the same primary, node A writes T1 and later expires it
+        List<Trade> primary = new ArrayList<>();
+        when(primaryStore.streamExposureFields(100)).thenAnswer(invocation -> List.copyOf(primary).stream());
+        TradeExposureAggregates nodeA = aggregates;
+        TradeExposureAggregates nodeB = new TradeExposureAggregates(
+                storesProvider, tradeLogProvider, new SimpleMeterRegistry(), true, 100);
+        Trade written = trade("T1", 1, "B1", "CP1", MARCH, false);
+        primary.add(written);
+        nodeA.record(written);
+
+        // Act
+        nodeB.refresh();
+
+        // Assert
+        assertEquals(1, nodeB.book("B1").orElseThrow().getLiveTrades());
+
+        // Act
+        Trade expired = written.toBuilder().expired(true).build();
+        primary.set(0, expired);
+        nodeA.recordExpired(List.of(expired));
+        nodeB.refresh();
+
+        // Assert
+        assertTrue(nodeB.books().isEmpty());
+    }
+
+    @Test
+    void rebuild_WriteRecordedMidRebuild_KeptAfterSwap() {
+        // Arrange
+        Trade written = trade("T2", 1, "B2", "CP2", JUNE, false);
+        when(primaryStore.streamExposureFields(100)).thenAnswer(invocation -> Stream.of(
+                trade("T1", 1, "B1", "CP1", MARCH, false)).peek(trade -> aggregates.record(written)));
+
+        // Act
+        aggregates.rebuild();
+
+        // Assert
+        assertEquals(1, aggregates.book("B1").orElseThrow().getLiveTrades());
+        assertEquals(1, aggregates.book("B2").orElseThrow().getLiveTrades());
+    }
+
+    @Test
+    void refresh_EmbeddedBackend_SkipsRebuild() {
+        // Arrange
+        when(storesProvider.getIfAvailable()).thenReturn(null);
+
+        // Act
+        aggregates.refresh();
+
+        // Assert
+        assertFalse(aggregates.isLoaded());
+        verifyNoInteractions(tradeLogProvider);
+    }
+
+    @Test
+    void rebuild_EmbeddedBackend_ReadsTradeLog() {
+        // Arrange
+        when(storesProvider.getIfAvailable()).thenReturn(null);
+        when(tradeLogProvider.getIfAvailable()).thenReturn(tradeLog);
+        when(tradeLog.stream()).thenReturn(Stream.of(trade("T1", 1, "B1", "CP1", LocalDate.now().plusDays(30), false)));
+
+        // Act
+        aggregates.rebuild();
+
+        // Assert
+        assertTrue(aggregates.isLoaded());
+        assertEquals(1, aggregates.book("B1").orElseThrow().getLiveTrades());
+    }
+
+    @Test
+    void rebuild_Disabled_NeverLoads() {
+        // Arrange
+        aggregates = new TradeExposureAggregates(storesProvider, tradeLogProvider, new SimpleMeterRegistry(), false, 100);
+
+        // Act
+        aggregates.rebuild();
+        aggregates.record(trade("T1", 1, "B1", "CP1", MARCH, false));
+
+        // Assert
+        assertFalse(aggregates.isLoaded());
+        assertTrue(aggregates.books().isEmpty());
+        verifyNoInteractions(stores);
+    }
+
+    private static Trade trade(String tradeId, int version, String bookId, String counterPartyId,
+                               LocalDate maturityDate, boolean expired) {
+        return Trade.builder()
+                .tradeId(new TradeId(tradeId, version))
+                .bookId(bookId)
+                .counterPartyId(counterPartyId)
+                .maturityDate(maturityDate)
+                .expired(expired)
+                .build();
+    }
+}
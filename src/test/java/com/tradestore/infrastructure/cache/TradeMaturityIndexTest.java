@@ -0,0 +1,132 @@
+package com.tradestore.infrastructure.cache;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.store.TradeStore;
+import com.tradestore.infrastructure.store.TradeStores;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeMaturityIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 15);
+
+    @Mock
+    private TradeStore primaryStore;
+
+    @Mock
+    private TradeStores stores;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TradeMaturityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(stores.primary()).thenReturn(primaryStore);
+        meterRegistry = new SimpleMeterRegistry();
+        index = new TradeMaturityIndex(stores, meterRegistry, true, 100);
+    }
+
+    @Test
+    void pollDue_ReturnsOnlyTradesMaturedBeforeToday() {
+        // Arrange
+        index.add(new TradeId("T1", 1), TODAY.minusDays(2));
+        index.add(new TradeId("T2", 1), TODAY.minusDays(1));
+        index.add(new TradeId("T3", 1), TODAY);
+
+        // Act
+        List<TradeId> due = index.pollDue(TODAY, 10);
+
+        // Assert
+        assertEquals(List.of(new TradeId("T1", 1), new TradeId("T2", 1)), due);
+        assertEquals(1, index.size());
+        assertEquals(1.0, meterRegistry.get("trade.maturity.index.size").gauge().value());
+    }
+
+    @Test
+    void pollDue_StopsAtBatchSize() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            index.add(new TradeId("T" + i, 1), TODAY.minusDays(1));
+        }
+
+        // Act & Assert
+        assertEquals(3, index.pollDue(TODAY, 3).size());
+        assertEquals(2, index.pollDue(TODAY, 3).size());
+        assertTrue(index.pollDue(TODAY, 3).isEmpty());
+    }
+
+    @Test
+    void pollDue_FilterRejects_EvictsTrade() {
+        index.add(new TradeId("T1", 1), TODAY.minusDays(1));
+        index.add(new TradeId("T2", 1), TODAY.minusDays(1));
+        index.add(new TradeId("T3", 1), TODAY);
+
+        List<TradeId> due = index.pollDue(TODAY, 10, tradeId -> tradeId.getTradeId().equals("T1"));
+
+        assertEquals(List.of(new TradeId("T1", 1)), due);
+        assertEquals(1, index.size());
+        assertEquals(List.of(), index.pollDue(TODAY, 10));
+    }
+
+    @Test
+    void loadDue_AddsOnlyMatchingTradesFromPrimary() {
+        // Arrange
+        Trade mine = Trade.builder().tradeId(new TradeId("T1", 1)).maturityDate(TODAY.minusDays(2)).build();
+        Trade theirs = Trade.builder().tradeId(new TradeId("T2", 1)).maturityDate(TODAY.minusDays(2)).build();
+        when(primaryStore.findUnexpiredMaturityDatesBetween(null, TODAY)).thenReturn(List.of(TODAY.minusDays(2)));
+        when(primaryStore.streamUnexpiredByMaturityDate(TODAY.minusDays(2), 100)).thenReturn(Stream.of(mine, theirs));
+
+        // Act
+        int loaded = index.loadDue(TODAY, tradeId -> tradeId.getTradeId().equals("T1"));
+
+        // Assert
+        assertEquals(1, loaded);
+        assertEquals(List.of(new TradeId("T1", 1)), index.pollDue(TODAY, 10));
+    }
+
+    @Test
+    void add_SameTradeTwice_CountsOnce() {
+        index.add(new TradeId("T1", 1), TODAY);
+        index.add(new TradeId("T1", 1), TODAY);
+
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void rebuild_LoadsUnexpiredTradesFromMongo() {
+        // Arrange
+        Trade trade = Trade.builder().tradeId(new TradeId("T1", 2)).maturityDate(TODAY.minusDays(1)).build();
+        when(primaryStore.streamUnexpiredMaturities(100)).thenReturn(Stream.of(trade));
+
+        // Act
+        index.rebuild();
+
+        // Assert
+        assertTrue(index.isLoaded());
+        assertEquals(List.of(new TradeId("T1", 2)), index.pollDue(TODAY, 10));
+    }
+
+    @Test
+    void disabled_IgnoresWrites() {
+        index = new TradeMaturityIndex(stores, new SimpleMeterRegistry(), false, 100);
+
+        index.add(new TradeId("T1", 1), TODAY.minusDays(1));
+        index.rebuild();
+
+        assertEquals(0, index.size());
+        verifyNoInteractions(stores);
+    }
+}
@@ -0,0 +1,90 @@
+package com.tradestore.infrastructure.cache;
+
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.store.TradeStore;
+import com.tradestore.infrastructure.store.TradeStores;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeVersionIndexTest {
+
+    @Mock
+    private TradeStore primaryStore;
+
+    @Mock
+    private TradeStores stores;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TradeVersionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(stores.primary()).thenReturn(primaryStore);
+        meterRegistry = new SimpleMeterRegistry();
+        index = new TradeVersionIndex(stores, meterRegistry, true);
+    }
+
+    @Test
+    void check_BeforeRebuild_ReturnsUnknown() {
+        assertEquals(TradeVersionIndex.Decision.UNKNOWN, index.check(new TradeId("T1", 1)));
+        assertEquals(0.0, index.hitRate());
+    }
+
+    @Test
+    void check_AfterRebuild_AnswersFromIndex() {
+        // Arrange
+        when(primaryStore.streamLatestVersions()).thenReturn(Stream.of(new TradeId("T1", 3)));
+
+        // Act
+        index.rebuild();
+
+        // Assert
+        assertTrue(index.isLoaded());
+        assertEquals(TradeVersionIndex.Decision.DUPLICATE, index.check(new TradeId("T1", 3)));
+        assertEquals(TradeVersionIndex.Decision.NEW, index.check(new TradeId("T1", 4)));
+        assertEquals(TradeVersionIndex.Decision.NEW, index.check(new TradeId("T2", 1)));
+        assertEquals(TradeVersionIndex.Decision.UNKNOWN, index.check(new TradeId("T1", 2)));
+        assertEquals(0.75, index.hitRate());
+    }
+
+    @Test
+    void record_KeepsHighestVersion() {
+        // Arrange
+        when(primaryStore.streamLatestVersions()).thenReturn(Stream.empty());
+        index.rebuild();
+
+        // Act
+        index.record(new TradeId("T1", 5));
+        index.record(new TradeId("T1", 2));
+
+        // Assert
+        assertEquals(1, index.size());
+        assertEquals(TradeVersionIndex.Decision.DUPLICATE, index.check(new TradeId("T1", 5)));
+        assertEquals(1.0, meterRegistry.get("trade.version.index.size").gauge().value());
+    }
+
+    @Test
+    void rebuild_Disabled_NeverLoads() {
+        // Arrange
+        index = new TradeVersionIndex(stores, meterRegistry, false);
+
+        // Act
+        index.rebuild();
+        index.record(new TradeId("T1", 1));
+
+        // Assert
+        assertFalse(index.isLoaded());
+        assertEquals(0, index.size());
+        verifyNoInteractions(stores);
+    }
+}
@@ -0,0 +1,177 @@
+package com.tradestore.infrastructure.ingest;
+
+import com.tradestore.domain.exception.TradeException;
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.domain.model.TradeResult;
+import com.tradestore.domain.service.TradeService;
+import com.tradestore.util.TestUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeIngestPipelineTest {
+
+    @Mock
+    private TradeService tradeService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TradeIngestPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pipeline = new TradeIngestPipeline(tradeService, meterRegistry, 2, 100, 50, 1000, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void submit_AcceptedTrade_CompletesWithKeyedTrade() {
+        when(tradeService.storeTrades(anyList())).thenAnswer(invocation -> acceptAll(invocation.getArgument(0)));
+
+        Trade saved = pipeline.submit(TestUtils.createValidTrade()).join();
+
+        assertEquals("T1:1", saved.getId());
+    }
+
+    @Test
+    void submit_RejectedTrade_CompletesExceptionally() {
+        when(tradeService.storeTrades(anyList())).thenAnswer(invocation -> {
+            List<Trade> trades = invocation.getArgument(0);
+            return List.of(TradeResult.duplicate(trades.get(0).getTradeId(), "Trade with same ID and version already exists"));
+        });
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> pipeline.submit(TestUtils.createValidTrade()).join());
+
+        assertInstanceOf(TradeException.class, e.getCause());
+        assertEquals("Trade with same ID and version already exists", e.getCause().getMessage());
+    }
+
+    @Test
+    void submit_BatchFails_CompletesEachTradeFromItsOwnWrite() throws Exception {
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        when(tradeService.storeTrades(anyList())).thenAnswer(invocation -> {
+            List<Trade> trades = invocation.getArgument(0);
+            if (firstWriteStarted.getCount() > 0) {
+                firstWriteStarted.countDown();
+                releaseFirstWrite.await(5, TimeUnit.SECONDS);
+                return acceptAll(trades);
+            }
+            throw new TradeException("Error storing trades: constraint violated");
+        });
+        when(tradeService.storeTrade(any(Trade.class))).thenAnswer(invocation -> {
+            Trade trade = invocation.getArgument(0);
+            if (trade.getTradeId().getVersion() == 3) {
+                throw new TradeException("Error storing trade: constraint violated");
+            }
+            return trade.toBuilder().id(trade.getTradeId().key()).build();
+        });
+
+        CompletableFuture<Trade> first = pipeline.submit(version(1));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Trade> second = pipeline.submit(version(2));
+        CompletableFuture<Trade> third = pipeline.submit(version(3));
+        releaseFirstWrite.countDown();
+
+        assertEquals("T1:1", first.join().getId());
+        assertEquals("T1:2", second.join().getId());
+        CompletionException e = assertThrows(CompletionException.class, third::join);
+        assertEquals("Error storing trade: constraint violated", e.getCause().getMessage());
+    }
+
+    @Test
+    void submit_DrainLargerThanBatchLimit_WrittenInBatchesOfTheLimit() throws Exception {
+        pipeline.shutdown();
+        pipeline = new TradeIngestPipeline(tradeService, meterRegistry, 1, 100, 50, 1000, 2);
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        when(tradeService.storeTrades(anyList())).thenAnswer(invocation -> {
+            List<Trade> trades = invocation.getArgument(0);
+            batchSizes.add(trades.size());
+            if (firstWriteStarted.getCount() > 0) {
+                firstWriteStarted.countDown();
+                releaseFirstWrite.await(5, TimeUnit.SECONDS);
+            }
+            return acceptAll(trades);
+        });
+
+        CompletableFuture<Trade> first = pipeline.submit(version(1));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<Trade>> queued = List.of(
+                pipeline.submit(version(2)), pipeline.submit(version(3)), pipeline.submit(version(4)));
+        releaseFirstWrite.countDown();
+        first.join();
+        queued.forEach(CompletableFuture::join);
+
+        assertEquals(List.of(1, 2, 1), batchSizes);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submit_QueuedVersionsOfOneTrade_WrittenInVersionOrder() throws Exception {
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        when(tradeService.storeTrades(anyList())).thenAnswer(invocation -> {
+            List<Trade> trades = invocation.getArgument(0);
+            if (firstWriteStarted.getCount() > 0) {
+                firstWriteStarted.countDown();
+                releaseFirstWrite.await(5, TimeUnit.SECONDS);
+            }
+            return acceptAll(trades);
+        });
+
+        CompletableFuture<Trade> first = pipeline.submit(version(1));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Trade> third = pipeline.submit(version(3));
+        CompletableFuture<Trade> second = pipeline.submit(version(2));
+        releaseFirstWrite.countDown();
+        CompletableFuture.allOf(first, second, third).join();
+
+        ArgumentCaptor<List<Trade>> captor = ArgumentCaptor.forClass(List.class);
+        verify(tradeService, times(2)).storeTrades(captor.capture());
+        assertEquals(List.of(2, 3), captor.getAllValues().get(1).stream()
+                .map(trade -> trade.getTradeId().getVersion())
+                .toList());
+    }
+
+    @Test
+    void constructor_RegistersQueueDepthPerPartition() {
+        assertEquals(2, pipeline.partitionCount());
+        assertEquals(2, meterRegistry.find("trade.ingest.queue.depth").gauges().size());
+    }
+
+    private static Trade version(int version) {
+        return TestUtils.createValidTrade().toBuilder()
+                .tradeId(new TradeId("T1", version))
+                .build();
+    }
+
+    private static List<TradeResult> acceptAll(List<Trade> trades) {
+        return trades.stream().map(trade -> TradeResult.accepted(trade.getTradeId())).toList();
+    }
+}
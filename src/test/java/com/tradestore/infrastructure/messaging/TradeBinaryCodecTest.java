@@ -0,0 +1,78 @@
+package com.tradestore.infrastructure.messaging;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.util.TestUtils;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeBinaryCodecTest {
+
+    @Test
+    void encodeDecode_RoundTripsAllFields() {
+        Trade trade = TestUtils.createValidTrade().toBuilder()
+                .id("T1:1")
+                .expired(true)
+                .build();
+
+        Trade decoded = TradeBinaryCodec.decode(TradeBinaryCodec.encode(trade));
+
+        assertEquals(trade, decoded);
+    }
+
+    @Test
+    void encodeDecode_PreservesNullsAndHistoricDates() {
+        Trade trade = Trade.builder()
+                .tradeId(new TradeId("TR-é", 70000))
+                .maturityDate(LocalDate.of(1901, 3, 4))
+                .build();
+
+        Trade decoded = TradeBinaryCodec.decode(TradeBinaryCodec.encode(trade));
+
+        assertEquals(trade, decoded);
+        assertNull(decoded.getId());
+        assertNull(decoded.getCreatedDate());
+    }
+
+    @Test
+    void encode_IsSmallerThanJson() {
+        Trade trade = TestUtils.createValidTrade();
+        try (JsonSerializer<Trade> json = new JsonSerializer<>()) {
+            assertTrue(TradeBinaryCodec.encode(trade).length * 2 < json.serialize("trades", trade).length);
+        }
+    }
+
+    @Test
+    void decode_RejectsUnknownSchemaVersion() {
+        byte[] data = TradeBinaryCodec.encode(TestUtils.createValidTrade());
+        data[1] = 2;
+
+        assertThrows(SerializationException.class, () -> TradeBinaryCodec.decode(data));
+    }
+
+    @Test
+    void decode_RejectsTruncatedPayload() {
+        byte[] data = TradeBinaryCodec.encode(TestUtils.createValidTrade());
+
+        assertThrows(SerializationException.class,
+                () -> TradeBinaryCodec.decode(Arrays.copyOf(data, data.length - 1)));
+    }
+
+    @Test
+    void serializer_AddsFormatHeader() {
+        RecordHeaders headers = new RecordHeaders();
+        try (TradeBinarySerializer serializer = new TradeBinarySerializer()) {
+            serializer.serialize("trades", headers, TestUtils.createValidTrade());
+        }
+
+        assertEquals(TradeBinaryCodec.FORMAT,
+                new String(headers.lastHeader(TradeBinaryCodec.FORMAT_HEADER).value()));
+    }
+}
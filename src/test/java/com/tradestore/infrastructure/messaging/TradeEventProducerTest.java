@@ -30,7 +30,7 @@ class TradeEventProducerTest {
     void shouldSendTradeEvent() {
         // Arrange
         Trade trade = TestUtils.createValidTrade();
-        when(kafkaTemplate.send(eq("trades"), eq(trade.getTradeId().toString()), eq(trade)))
+        when(kafkaTemplate.send(eq("trades"), eq(trade.getTradeId().getTradeId()), eq(trade)))
             .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
 
         // Act & Assert
@@ -41,7 +41,7 @@ class TradeEventProducerTest {
     void shouldSendTradeEventWithExpiredTrade() {
         // Arrange
         Trade expiredTrade = TestUtils.createExpiredTrade();
-        when(kafkaTemplate.send(eq("trades"), eq(expiredTrade.getTradeId().toString()), eq(expiredTrade)))
+        when(kafkaTemplate.send(eq("trades"), eq(expiredTrade.getTradeId().getTradeId()), eq(expiredTrade)))
             .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
 
         // Act & Assert
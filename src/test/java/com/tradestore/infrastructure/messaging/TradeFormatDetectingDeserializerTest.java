@@ -0,0 +1,50 @@
+package com.tradestore.infrastructure.messaging;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.util.TestUtils;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeFormatDetectingDeserializerTest {
+
+    private final TradeFormatDetectingDeserializer deserializer = new TradeFormatDetectingDeserializer();
+
+    @AfterEach
+    void tearDown() {
+        deserializer.close();
+    }
+
+    @Test
+    void deserialize_ReadsJsonRecords() {
+        Trade trade = TestUtils.createValidTrade();
+        RecordHeaders headers = new RecordHeaders();
+        byte[] data;
+        try (JsonSerializer<Trade> json = new JsonSerializer<>()) {
+            data = json.serialize("trades", headers, trade);
+        }
+
+        assertEquals(trade, deserializer.deserialize("trades", headers, data));
+    }
+
+    @Test
+    void deserialize_ReadsBinaryRecords() {
+        Trade trade = TestUtils.createValidTrade();
+        RecordHeaders headers = new RecordHeaders();
+        byte[] data;
+        try (TradeBinarySerializer binary = new TradeBinarySerializer()) {
+            data = binary.serialize("trades", headers, trade);
+        }
+
+        assertEquals(trade, deserializer.deserialize("trades", headers, data));
+        assertEquals(trade, deserializer.deserialize("trades", TradeBinaryCodec.encode(trade)));
+    }
+
+    @Test
+    void deserialize_ReturnsNullForTombstones() {
+        assertNull(deserializer.deserialize("trades", new RecordHeaders(), (byte[]) null));
+    }
+}
@@ -0,0 +1,151 @@
+package com.tradestore.infrastructure.messaging;
+
+import com.tradestore.domain.exception.TradeException;
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.domain.model.TradeResult;
+import com.tradestore.domain.service.TradeService;
+import com.tradestore.util.TestUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeInboundListenerTest {
+
+    @Mock
+    private TradeService tradeService;
+
+    @Mock
+    private KafkaTemplate<String, Trade> kafkaTemplate;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TradeInboundListener listener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new TradeInboundListener(tradeService, kafkaTemplate, meterRegistry);
+        ReflectionTestUtils.setField(listener, "dltTopic", "trades.inbound.dlt");
+        ReflectionTestUtils.setField(listener, "sendTimeoutMs", 1000L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onTrades_RejectedTrade_SentToDeadLetterThenAcknowledged() {
+        Trade accepted = TestUtils.createValidTrade();
+        Trade rejected = TestUtils.createExpiredTrade();
+        when(tradeService.storeTrades(List.of(accepted, rejected))).thenReturn(List.of(
+                TradeResult.accepted(accepted.getTradeId()),
+                TradeResult.rejected(rejected.getTradeId(), "Maturity date cannot be in the past")));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        listener.onTrades(List.of(record(0, accepted), record(1, rejected)), acknowledgment);
+
+        ArgumentCaptor<ProducerRecord<String, Trade>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        assertEquals("trades.inbound.dlt", captor.getValue().topic());
+        assertEquals(rejected, captor.getValue().value());
+        assertEquals("Maturity date cannot be in the past",
+                new String(captor.getValue().headers().lastHeader(TradeInboundListener.REJECT_REASON_HEADER).value()));
+        verify(acknowledgment).acknowledge();
+        assertEquals(1.0, meterRegistry.get("trade.inbound.records").tag("result", "accepted").counter().count());
+    }
+
+    @Test
+    void onTrades_DuplicateTrade_AcknowledgedWithoutDeadLetter() {
+        Trade trade = TestUtils.createValidTrade();
+        when(tradeService.storeTrades(List.of(trade))).thenReturn(List.of(
+                TradeResult.duplicate(trade.getTradeId(), "Trade with same ID and version already exists")));
+
+        listener.onTrades(List.of(record(0, trade)), acknowledgment);
+
+        verifyNoInteractions(kafkaTemplate);
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void onTrades_StoreFails_FailsOnlyTheFailingRecord() {
+        Trade stored = TestUtils.createValidTrade();
+        Trade failing = TestUtils.createValidTrade();
+        failing.setTradeId(new TradeId("T2", 1));
+        when(tradeService.storeTrades(List.of(stored, failing))).thenThrow(new TradeException("Error storing trades: down"));
+        when(tradeService.storeTrades(List.of(stored))).thenReturn(List.of(TradeResult.accepted(stored.getTradeId())));
+        when(tradeService.storeTrades(List.of(failing))).thenThrow(new TradeException("Error storing trades: down"));
+
+        List<ConsumerRecord<String, Trade>> records = List.of(record(0, stored), record(1, failing));
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> listener.onTrades(records, acknowledgment));
+
+        assertSame(records.get(1), e.getRecord());
+        assertInstanceOf(TradeException.class, e.getCause());
+        verify(acknowledgment, never()).acknowledge();
+        assertEquals(1.0, meterRegistry.get("trade.inbound.records").tag("result", "accepted").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onTrades_DeadLetterSendFails_FailsTheRejectedRecord() {
+        Trade rejected = TestUtils.createExpiredTrade();
+        when(tradeService.storeTrades(List.of(rejected))).thenReturn(List.of(
+                TradeResult.rejected(rejected.getTradeId(), "Maturity date cannot be in the past")));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        List<ConsumerRecord<String, Trade>> records = List.of(record(0, rejected));
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> listener.onTrades(records, acknowledgment));
+
+        assertSame(records.get(0), e.getRecord());
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void onTrades_UndecodableRecord_FailsThatRecordAfterStoringThoseBefore() {
+        Trade trade = TestUtils.createValidTrade();
+        ConsumerRecord<String, Trade> undecodable = record(1, null);
+        undecodable.headers().add(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, new byte[0]);
+        when(tradeService.storeTrades(List.of(trade))).thenReturn(List.of(TradeResult.accepted(trade.getTradeId())));
+
+        List<ConsumerRecord<String, Trade>> records = new ArrayList<>(
+                List.of(record(0, trade), undecodable, record(2, TestUtils.createValidTrade())));
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> listener.onTrades(records, acknowledgment));
+
+        assertSame(undecodable, e.getRecord());
+        assertInstanceOf(DeserializationException.class, e.getCause());
+        verify(tradeService).storeTrades(List.of(trade));
+        verify(acknowledgment, never()).acknowledge();
+        assertEquals(1.0, meterRegistry.get("trade.inbound.undecodable").counter().count());
+    }
+
+    private static ConsumerRecord<String, Trade> record(long offset, Trade trade) {
+        TradeId tradeId = trade == null ? null : trade.getTradeId();
+        return new ConsumerRecord<>("trades.inbound", 0, offset, String.valueOf(tradeId), trade);
+    }
+}
@@ -0,0 +1,159 @@
+package com.tradestore.infrastructure.messaging;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.infrastructure.entity.TradeOutboxEntity;
+import com.tradestore.infrastructure.repository.TradeOutboxRepository;
+import com.tradestore.util.TestUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeOutboxRelayTest {
+
+    @Mock
+    private TradeOutboxRepository outboxRepository;
+
+    @Mock
+    private TradeOutbox tradeOutbox;
+
+    @Mock
+    private TradeEventProducer tradeEventProducer;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TradeOutboxRelay relay;
+
+    private final Trade first = TestUtils.createValidTrade();
+    private final Trade second = TestUtils.createExpiredTrade();
+    private final TradeOutboxEntity firstEntry = TradeOutboxEntity.builder().id(1L).payload("first").build();
+    private final TradeOutboxEntity secondEntry = TradeOutboxEntity.builder().id(2L).payload("second").build();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new TradeOutboxRelay(outboxRepository, tradeOutbox, tradeEventProducer, transactionTemplate, meterRegistry);
+        ReflectionTestUtils.setField(relay, "enabled", true);
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(relay, "initialBackoffMs", 60000L);
+        ReflectionTestUtils.setField(relay, "maxBackoffMs", 60000L);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(tradeOutbox.readPayload(firstEntry)).thenReturn(first);
+        lenient().when(tradeOutbox.readPayload(secondEntry)).thenReturn(second);
+    }
+
+    @Test
+    void relay_AllAcknowledged_DeletesWholeBatch() {
+        // Arrange
+        when(outboxRepository.findNextBatch(any(Pageable.class))).thenReturn(List.of(firstEntry, secondEntry));
+        when(tradeEventProducer.sendTradeEvent(any(Trade.class)))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        InOrder inOrder = inOrder(transactionTemplate, tradeEventProducer);
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(tradeEventProducer, times(2)).sendTradeEvent(any(Trade.class));
+        inOrder.verify(transactionTemplate).executeWithoutResult(any());
+        verify(outboxRepository).claim(eq(List.of(1L, 2L)), any(Instant.class));
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxRepository, never()).release(anyList());
+        assertEquals(2.0, meterRegistry.get("trade.outbox.relayed").counter().count());
+        assertEquals(0.0, meterRegistry.get("trade.outbox.failures").counter().count());
+    }
+
+    @Test
+    void relay_SendFails_KeepsFailedTailAndBacksOff() {
+        // Arrange
+        when(outboxRepository.findNextBatch(any(Pageable.class))).thenReturn(List.of(firstEntry, secondEntry));
+        when(tradeEventProducer.sendTradeEvent(first))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+        when(tradeEventProducer.sendTradeEvent(second))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        // Act
+        relay.relay();
+        relay.relay();
+
+        // Assert
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L));
+        verify(outboxRepository).release(List.of(2L));
+        verify(outboxRepository, times(1)).findNextBatch(any(Pageable.class));
+        assertEquals(1.0, meterRegistry.get("trade.outbox.failures").counter().count());
+    }
+
+    @Test
+    void relay_HeadClaimedByAnotherRelay_SendsNothing() {
+        // Arrange
+        TradeOutboxEntity claimed = firstEntry.toBuilder().claimedUntil(Instant.now().plusSeconds(30)).build();
+        when(outboxRepository.findNextBatch(any(Pageable.class))).thenReturn(List.of(claimed, secondEntry));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(outboxRepository, never()).claim(anyList(), any(Instant.class));
+        verifyNoInteractions(tradeEventProducer);
+    }
+
+    @Test
+    void relay_ExpiredClaim_SendsAgain() {
+        // Arrange
+        TradeOutboxEntity abandoned = firstEntry.toBuilder().claimedUntil(Instant.now().minusSeconds(1)).build();
+        when(outboxRepository.findNextBatch(any(Pageable.class))).thenReturn(List.of(abandoned));
+        when(tradeOutbox.readPayload(abandoned)).thenReturn(first);
+        when(tradeEventProducer.sendTradeEvent(first))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(outboxRepository).claim(eq(List.of(1L)), any(Instant.class));
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    void relay_EmptyOutbox_DeletesNothing() {
+        // Arrange
+        when(outboxRepository.findNextBatch(any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+        verifyNoInteractions(tradeEventProducer);
+    }
+}
@@ -0,0 +1,76 @@
+package com.tradestore.infrastructure.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tradestore.domain.exception.TradeException;
+import com.tradestore.domain.model.Trade;
+import com.tradestore.infrastructure.entity.TradeOutboxEntity;
+import com.tradestore.infrastructure.repository.TradeOutboxRepository;
+import com.tradestore.util.TestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeOutboxTest {
+
+    @Mock
+    private TradeOutboxRepository outboxRepository;
+
+    private TradeOutbox tradeOutbox;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        tradeOutbox = new TradeOutbox(outboxRepository, objectMapper);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enqueueAll_WritesOneEntryPerTradeThatReadsBack() {
+        // Arrange
+        Trade trade = TestUtils.createValidTrade();
+        ArgumentCaptor<List<TradeOutboxEntity>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        tradeOutbox.enqueueAll(List.of(trade, TestUtils.createExpiredTrade()));
+
+        // Assert
+        verify(outboxRepository).saveAll(captor.capture());
+        List<TradeOutboxEntity> entries = captor.getValue();
+        assertEquals(2, entries.size());
+        assertEquals("T1", entries.get(0).getTradeId());
+        assertEquals(1, entries.get(0).getVersion());
+        assertNotNull(entries.get(0).getCreatedAt());
+        assertEquals(trade, tradeOutbox.readPayload(entries.get(0)));
+    }
+
+    @Test
+    void enqueueAll_EmptyList_WritesNothing() {
+        // Act
+        tradeOutbox.enqueueAll(List.of());
+
+        // Assert
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    void readPayload_CorruptPayload_ThrowsTradeException() {
+        // Arrange
+        TradeOutboxEntity entry = TradeOutboxEntity.builder().id(7L).payload("{not json").build();
+
+        // Act & Assert
+        assertThrows(TradeException.class, () -> tradeOutbox.readPayload(entry));
+    }
+}
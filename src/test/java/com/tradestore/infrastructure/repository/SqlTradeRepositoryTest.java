@@ -7,6 +7,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 
@@ -67,6 +68,29 @@ class SqlTradeRepositoryTest {
         assertEquals(savedEntity.getId(), found.get().getId());
     }
 
+    @Test
+    void saveAllAndFlush_DuplicateTradeIdAndVersion_ViolatesUniqueIndex() {
+        // Arrange
+        TradeEntity duplicate = validTradeEntity.toBuilder().build();
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class,
+                () -> tradeRepository.saveAllAndFlush(List.of(validTradeEntity, duplicate)));
+    }
+
+    @Test
+    void saveAll_AssignsIdsFromPooledSequence() {
+        // Arrange
+        TradeEntity first = validTradeEntity;
+        TradeEntity second = validTradeEntity.toBuilder().version(validTradeEntity.getVersion() + 1).build();
+
+        // Act
+        List<TradeEntity> saved = tradeRepository.saveAllAndFlush(List.of(first, second));
+
+        // Assert
+        assertEquals(saved.get(0).getId() + 1, saved.get(1).getId());
+    }
+
     @Test
     void findByTradeIdAndVersion_NonExistingTrade_ReturnsEmpty() {
         // Act
@@ -95,6 +119,23 @@ class SqlTradeRepositoryTest {
         assertEquals(1, versions.get(1).getVersion());
     }
 
+    @Test
+    void findFirstByTradeIdOrderByVersionDesc_ReturnsLatestVersion() {
+        // Arrange
+        for (int version : new int[] {1, 3, 2}) {
+            TradeEntity entity = TestUtils.createValidTradeEntity();
+            entity.setVersion(version);
+            tradeRepository.save(entity);
+        }
+
+        // Act
+        Optional<TradeEntity> latest = tradeRepository.findFirstByTradeIdOrderByVersionDesc(validTradeEntity.getTradeId());
+
+        // Assert
+        assertEquals(3, latest.orElseThrow().getVersion());
+        assertTrue(tradeRepository.findFirstByTradeIdOrderByVersionDesc("missing").isEmpty());
+    }
+
     @Test
     void findByMaturityDateBeforeAndExpiredFalse_ReturnsExpiredTrades() {
         // Arrange
@@ -112,4 +153,20 @@ class SqlTradeRepositoryTest {
         assertTrue(expiredTrades.stream().anyMatch(trade -> 
             trade.getTradeId().equals(expiredTrade.getTradeId())));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void expireByMaturityDate_MarksOnlyUnexpiredTradesOnThatDate() {
+        // Arrange
+        LocalDate maturityDate = LocalDate.now().minusDays(1);
+        tradeRepository.save(validTradeEntity.toBuilder().tradeId("T1").maturityDate(maturityDate).build());
+        tradeRepository.save(validTradeEntity.toBuilder().tradeId("T2").maturityDate(maturityDate).build());
+        tradeRepository.save(validTradeEntity.toBuilder().tradeId("T3").maturityDate(maturityDate.minusDays(1)).build());
+
+        // Act
+        int updated = tradeRepository.expireByMaturityDate(maturityDate);
+
+        // Assert
+        assertEquals(2, updated);
+        assertEquals(0, tradeRepository.expireByMaturityDate(maturityDate));
+    }
+}
@@ -0,0 +1,161 @@
+package com.tradestore.infrastructure.repository;
+
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.entity.TradeEntity;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the keyset search against the migrated, partitioned schema.
+ */
+@Testcontainers
+class TradeJpaRepositoryCustomImplIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:13-alpine"));
+
+    private static final LocalDate NEXT_MONTH = LocalDate.now().plusMonths(1).withDayOfMonth(1);
+
+    private static TradeJpaRepositoryCustomImpl repository;
+    private static TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgreSQLContainer.getJdbcUrl(), postgreSQLContainer.getUsername(), postgreSQLContainer.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        repository = new TradeJpaRepositoryCustomImpl(new JdbcTemplate(dataSource), 500);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        // Maturities spread over several monthly partitions and the default one
+        repository.upsertAll(List.of(
+                entity("T1", 1, "B1", "CP1", NEXT_MONTH, false),
+                entity("T1", 2, "B1", "CP1", NEXT_MONTH.plusMonths(1), false),
+                entity("T2", 1, "B1", "CP2", NEXT_MONTH.plusMonths(2), false),
+                entity("T3", 1, "B1", "CP1", NEXT_MONTH.plusMonths(2), true),
+                entity("T4", 1, "B2", "CP1", NEXT_MONTH.plusMonths(1), false),
+                entity("T5", 1, "B1", "CP2", NEXT_MONTH.plusYears(5), false),
+                entity("T6", 1, "B1", "CP1", NEXT_MONTH.plusMonths(3), false)));
+    }
+
+    @Test
+    void findPageMatching_AllFiltersSet_PagesThroughOnlyMatchingTrades() {
+        TradeFilter filter = TradeFilter.builder()
+                .bookId("B1")
+                .maturityFrom(NEXT_MONTH.plusMonths(1))
+                .maturityTo(NEXT_MONTH.plusMonths(3))
+                .expired(false)
+                .build();
+
+        List<TradeId> found = new ArrayList<>();
+        TradeId after = null;
+        List<TradeEntity> page;
+        do {
+            page = repository.findPageMatching(filter, after, 2);
+            page.forEach(entity -> found.add(new TradeId(entity.getTradeId(), entity.getVersion())));
+            after = found.isEmpty() ? null : found.get(found.size() - 1);
+        } while (page.size() == 2);
+
+        assertEquals(List.of(new TradeId("T1", 2), new TradeId("T2", 1), new TradeId("T6", 1)), found);
+    }
+
+    @Test
+    void findPageMatching_CursorWithinTrade_ContinuesFromNextVersion() {
+        TradeFilter filter = TradeFilter.builder().counterPartyId("CP1").build();
+
+        List<TradeEntity> page = repository.findPageMatching(filter, new TradeId("T1", 1), 2);
+
+        assertEquals(List.of(new TradeId("T1", 2), new TradeId("T3", 1)),
+                page.stream().map(entity -> new TradeId(entity.getTradeId(), entity.getVersion())).toList());
+    }
+
+    @Test
+    void streamMatching_MaturityOnlyInDefaultPartition_FindsIt() {
+        TradeFilter filter = TradeFilter.builder().maturityFrom(NEXT_MONTH.plusYears(1)).build();
+
+        List<String> tradeIds;
+        try (Stream<TradeEntity> trades = repository.streamMatching(filter, 2)) {
+            tradeIds = trades.map(TradeEntity::getTradeId).toList();
+        }
+
+        assertEquals(List.of("T5"), tradeIds);
+    }
+
+    @Test
+    void insertAllIfAbsent_SameKeyWithOtherMaturityInConcurrentTransaction_InsertsOnce() throws Exception {
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<TradeId>> first = executor.submit(() -> transactionTemplate.execute(status -> {
+                List<TradeId> keys = repository.insertAllIfAbsent(
+                        List.of(entity("T9", 1, "B1", "CP1", NEXT_MONTH, false)));
+                inserted.countDown();
+                await(commit);
+                return keys;
+            }));
+            await(inserted);
+            // Different maturity date, so a different partition: only the key lock keeps this out
+            Future<List<TradeId>> second = executor.submit(() -> transactionTemplate.execute(status ->
+                    repository.insertAllIfAbsent(List.of(entity("T9", 1, "B1", "CP1", NEXT_MONTH.plusMonths(1), false)))));
+
+            assertThrows(TimeoutException.class, () -> second.get(500, TimeUnit.MILLISECONDS));
+            commit.countDown();
+
+            assertEquals(List.of(new TradeId("T9", 1)), first.get(10, TimeUnit.SECONDS));
+            assertEquals(List.of(), second.get(10, TimeUnit.SECONDS));
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+        try (Stream<TradeEntity> trades = repository.streamMatching(TradeFilter.builder().build(), 100)) {
+            assertEquals(1, trades.filter(trade -> trade.getTradeId().equals("T9")).count());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static TradeEntity entity(String tradeId, int version, String bookId, String counterPartyId,
+                                      LocalDate maturityDate, boolean expired) {
+        return TradeEntity.builder()
+                .tradeId(tradeId)
+                .version(version)
+                .counterPartyId(counterPartyId)
+                .bookId(bookId)
+                .maturityDate(maturityDate)
+                .createdDate(LocalDate.now())
+                .expired(expired)
+                .build();
+    }
+}
@@ -0,0 +1,191 @@
+package com.tradestore.infrastructure.repository;
+
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.entity.TradeEntity;
+import com.tradestore.util.TestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeJpaRepositoryCustomImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private TradeJpaRepositoryCustomImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TradeJpaRepositoryCustomImpl(jdbcTemplate, 2);
+    }
+
+    @Test
+    void upsertAll_UsesJdbcBatchWithConfiguredSize() {
+        // Arrange
+        List<TradeEntity> entities = List.of(TestUtils.createValidTradeEntity(), TestUtils.createValidTradeEntity());
+
+        // Act
+        repository.upsertAll(entities);
+
+        // Assert
+        verify(jdbcTemplate).batchUpdate(contains("ON CONFLICT (trade_id, version, maturity_date) DO UPDATE"), eq(entities), eq(2),
+                ArgumentMatchers.<ParameterizedPreparedStatementSetter<TradeEntity>>any());
+    }
+
+    @Test
+    void findPageMatching_BindsOnlyTheFiltersThatAreSet() {
+        // Arrange
+        TradeFilter filter = TradeFilter.builder()
+                .bookId("B1")
+                .maturityTo(LocalDate.of(2030, 3, 31))
+                .expired(false)
+                .build();
+
+        // Act
+        repository.findPageMatching(filter, new TradeId("T5", 2), 10);
+
+        // Assert
+        verify(jdbcTemplate).query(
+                eq("SELECT id, trade_id, version, counter_party_id, book_id, maturity_date, created_date, expired "
+                        + "FROM trades WHERE true AND book_id = ? AND maturity_date <= ? AND expired = ? "
+                        + "AND (trade_id COLLATE \"C\", version) > (?, ?) ORDER BY trade_id COLLATE \"C\", version LIMIT ?"),
+                ArgumentMatchers.<RowMapper<TradeEntity>>any(),
+                eq("B1"), eq(Date.valueOf("2030-03-31")), eq(false), eq("T5"), eq(2), eq(10));
+    }
+
+    @Test
+    void streamAll_SetsFetchSizeOnStatement() throws Exception {
+        // Arrange
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(jdbcTemplate.queryForStream(any(PreparedStatementCreator.class), ArgumentMatchers.<RowMapper<TradeEntity>>any()))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(0, PreparedStatementCreator.class).createPreparedStatement(connection);
+                    return Stream.empty();
+                });
+
+        // Act
+        repository.streamAll(250).close();
+
+        // Assert
+        verify(statement).setFetchSize(250);
+    }
+
+    @Test
+    void upsert_BindsEntityIntoUpsertStatement() throws Exception {
+        // Arrange
+        TradeEntity entity = TestUtils.createValidTradeEntity();
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(jdbcTemplate.update(contains("ON CONFLICT"), any(PreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(1, PreparedStatementSetter.class).setValues(statement);
+                    return 1;
+                });
+
+        // Act
+        repository.upsert(entity);
+
+        // Assert
+        verify(statement).setString(1, entity.getTradeId());
+        verify(statement).setInt(2, entity.getVersion());
+        verify(statement).setBoolean(7, entity.isExpired());
+    }
+
+    @Test
+    void upsertAll_EmptyList_SkipsDatabase() {
+        // Act
+        repository.upsertAll(List.of());
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void insertAllIfAbsent_LocksKeysThenInsertsBatchInOneStatement() throws Exception {
+        // Arrange
+        List<TradeEntity> entities = List.of(TestUtils.createValidTradeEntity());
+        Connection connection = mock(Connection.class);
+        PreparedStatement lockStatement = mock(PreparedStatement.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(contains("pg_advisory_xact_lock"))).thenReturn(lockStatement);
+        when(connection.prepareStatement(contains("WHERE NOT EXISTS"))).thenReturn(statement);
+        List<String> executed = new ArrayList<>();
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), ArgumentMatchers.<RowMapper<TradeId>>any()))
+                .thenAnswer(invocation -> {
+                    PreparedStatement prepared = invocation.getArgument(0, PreparedStatementCreator.class)
+                            .createPreparedStatement(connection);
+                    executed.add(prepared == lockStatement ? "lock" : "insert");
+                    return List.of(new TradeId("T1", 1));
+                });
+
+        // Act
+        List<TradeId> inserted = repository.insertAllIfAbsent(entities);
+
+        // Assert
+        assertEquals(List.of(new TradeId("T1", 1)), inserted);
+        assertEquals(List.of("lock", "insert"), executed);
+        verify(connection, times(2)).createArrayOf("varchar", new Object[]{"T1"});
+        verify(connection, times(2)).createArrayOf("int4", new Object[]{1});
+        verify(lockStatement, times(2)).setArray(anyInt(), any());
+        verify(statement, times(7)).setArray(anyInt(), any());
+    }
+
+    @Test
+    void streamLatestVersions_PagesAfterLastTradeId() {
+        // Arrange
+        when(jdbcTemplate.query(contains("GROUP BY trade_id ORDER BY trade_id LIMIT ?"),
+                ArgumentMatchers.<RowMapper<TradeId>>any(), eq(2)))
+                .thenReturn(List.of(new TradeId("T1", 3), new TradeId("T2", 1)));
+        when(jdbcTemplate.query(contains("WHERE trade_id > ?"), ArgumentMatchers.<RowMapper<TradeId>>any(), eq("T2"), eq(2)))
+                .thenReturn(List.of(new TradeId("T3", 2)));
+
+        // Act
+        List<TradeId> versions;
+        try (Stream<TradeId> stream = repository.streamLatestVersions(2)) {
+            versions = stream.toList();
+        }
+
+        // Assert
+        assertEquals(List.of(new TradeId("T1", 3), new TradeId("T2", 1), new TradeId("T3", 2)), versions);
+    }
+
+    @Test
+    void findUnexpiredMaturityDatesBetween_NoLowerBound_OnlyBindsUpperBound() {
+        // Act
+        repository.findUnexpiredMaturityDatesBetween(null, LocalDate.of(2030, 3, 31));
+
+        // Assert
+        verify(jdbcTemplate).query(
+                eq("SELECT DISTINCT maturity_date FROM trades WHERE expired = false AND maturity_date < ? "
+                        + "ORDER BY maturity_date"),
+                ArgumentMatchers.<RowMapper<LocalDate>>any(), eq(Date.valueOf("2030-03-31")));
+    }
+}
@@ -0,0 +1,146 @@
+package com.tradestore.infrastructure.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.entity.TradeEntity;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pages through the same trades in MongoDB and PostgreSQL, switching store between pages as the read router may.
+ */
+@Testcontainers
+class TradeKeysetPagingIntegrationTest {
+
+    @Container
+    static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse("mongo:4.0.21"));
+
+    @Container
+    static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:13-alpine"));
+
+    // Mixed case and multi-byte ids, which a linguistic collation orders differently from a byte-wise one
+    private static final List<String> TRADE_IDS = List.of(
+            "t1", "T1", "T2", "b7", "B7", "_x", "Zed", "éclair", "Ébène", "zz", "日本", "straße", "STRASSE");
+
+    private static final LocalDate MATURITY_DATE = LocalDate.now().plusMonths(1);
+
+    private static MongoClient mongoClient;
+    private static TradeRepositoryCustomImpl mongoRepository;
+    private static TradeJpaRepositoryCustomImpl postgresRepository;
+
+    @BeforeAll
+    static void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgreSQLContainer.getJdbcUrl(), postgreSQLContainer.getUsername(), postgreSQLContainer.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        postgresRepository = new TradeJpaRepositoryCustomImpl(new JdbcTemplate(dataSource), 500);
+
+        mongoClient = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        MongoTemplate mongoTemplate = new MongoTemplate(mongoClient, "testdb");
+        mongoRepository = new TradeRepositoryCustomImpl(mongoTemplate);
+
+        List<Trade> trades = TRADE_IDS.stream()
+                .flatMap(tradeId -> Stream.of(trade(tradeId, 1), trade(tradeId, 2)))
+                .toList();
+        mongoTemplate.insertAll(trades);
+        postgresRepository.upsertAll(trades.stream().map(TradeKeysetPagingIntegrationTest::toEntity).toList());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        mongoClient.close();
+    }
+
+    @Test
+    void findPageMatching_BothStores_SameOrder() {
+        assertEquals(expectedOrder(), mongoPage(null, 100));
+        assertEquals(expectedOrder(), postgresPage(null, 100));
+    }
+
+    @Test
+    void findPageMatching_CursorPassedBetweenStores_VisitsEveryTradeOnce() {
+        List<TradeId> visited = new ArrayList<>();
+        TradeId after = null;
+        for (int page = 0; ; page++) {
+            List<TradeId> trades = page % 2 == 0 ? mongoPage(after, 3) : postgresPage(after, 3);
+            visited.addAll(trades);
+            if (trades.size() < 3) {
+                break;
+            }
+            after = trades.get(trades.size() - 1);
+        }
+
+        assertEquals(expectedOrder(), visited);
+    }
+
+    private static List<TradeId> mongoPage(TradeId after, int limit) {
+        return mongoRepository.findPageMatching(new TradeFilter(), after, limit).stream()
+                .map(Trade::getTradeId)
+                .toList();
+    }
+
+    private static List<TradeId> postgresPage(TradeId after, int limit) {
+        return postgresRepository.findPageMatching(new TradeFilter(), after, limit).stream()
+                .map(entity -> new TradeId(entity.getTradeId(), entity.getVersion()))
+                .toList();
+    }
+
+    // MongoDB compares strings by their UTF-8 bytes
+    private static List<TradeId> expectedOrder() {
+        Comparator<String> byteWise = (a, b) -> Arrays.compareUnsigned(
+                a.getBytes(StandardCharsets.UTF_8), b.getBytes(StandardCharsets.UTF_8));
+        return TRADE_IDS.stream()
+                .sorted(byteWise)
+                .flatMap(tradeId -> Stream.of(new TradeId(tradeId, 1), new TradeId(tradeId, 2)))
+                .toList();
+    }
+
+    private static Trade trade(String tradeId, int version) {
+        TradeId id = new TradeId(tradeId, version);
+        return Trade.builder()
+                .id(id.key())
+                .tradeId(id)
+                .counterPartyId("CP-1")
+                .bookId("B1")
+                .maturityDate(MATURITY_DATE)
+                .createdDate(LocalDate.now())
+                .expired(false)
+                .build();
+    }
+
+    private static TradeEntity toEntity(Trade trade) {
+        return TradeEntity.builder()
+                .tradeId(trade.getTradeId().getTradeId())
+                .version(trade.getTradeId().getVersion())
+                .counterPartyId(trade.getCounterPartyId())
+                .bookId(trade.getBookId())
+                .maturityDate(trade.getMaturityDate())
+                .createdDate(trade.getCreatedDate())
+                .expired(trade.isExpired())
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.tradestore.infrastructure.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Migrates a schema left by ddl-auto that holds duplicate (trade_id, version) rows.
+ */
+@Testcontainers
+class TradeMigrationIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:13-alpine"));
+
+    @Test
+    void migrate_DuplicateTrades_KeepsExpiredThenLatestRow() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgreSQLContainer.getJdbcUrl(), postgreSQLContainer.getUsername(), postgreSQLContainer.getPassword());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE trades (
+                    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    trade_id         VARCHAR(255) NOT NULL,
+                    version          INTEGER      NOT NULL,
+                    counter_party_id VARCHAR(255) NOT NULL,
+                    book_id          VARCHAR(255) NOT NULL,
+                    maturity_date    DATE         NOT NULL,
+                    created_date     DATE         NOT NULL,
+                    expired          BOOLEAN      NOT NULL
+                )""");
+        jdbcTemplate.execute("""
+                INSERT INTO trades (id, trade_id, version, counter_party_id, book_id, maturity_date, created_date, expired)
+                VALUES (1, 'T1', 1, 'CP-1', 'B1', '2030-01-10', '2024-01-01', false),
+                       (2, 'T1', 1, 'CP-1', 'B1', '2030-01-10', '2024-01-01', true),
+                       (3, 'T1', 1, 'CP-1', 'B1', '2030-02-10', '2024-01-01', false),
+                       (4, 'T2', 1, 'CP-1', 'B1', '2030-01-10', '2024-01-01', false),
+                       (5, 'T2', 1, 'CP-2', 'B1', '2030-03-10', '2024-01-01', false),
+                       (6, 'T2', 2, 'CP-1', 'B1', '2030-01-10', '2024-01-01', false)""");
+
+        Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("0").load().migrate();
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM trades ORDER BY id", Long.class);
+        assertEquals(List.of(2L, 5L, 6L), ids);
+    }
+}
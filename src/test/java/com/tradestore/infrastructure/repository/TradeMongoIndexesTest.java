@@ -0,0 +1,106 @@
+package com.tradestore.infrastructure.repository;
+
+import com.tradestore.domain.model.Trade;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeMongoIndexesTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations indexOps;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(mongoTemplate.indexOps(Trade.class)).thenReturn(indexOps);
+    }
+
+    @Test
+    void definitions_UniqueTradeIdVersionAndPartialMaturityDate() {
+        List<Index> indexes = TradeMongoIndexes.definitions();
+
+        Document unique = indexes.get(0).getIndexOptions();
+        assertEquals(new Document("tradeId.tradeId", 1).append("tradeId.version", 1), indexes.get(0).getIndexKeys());
+        assertEquals(true, unique.get("unique"));
+
+        Document partial = indexes.get(1).getIndexOptions();
+        assertEquals(new Document("maturityDate", 1), indexes.get(1).getIndexKeys());
+        assertEquals(new Document("expired", false), partial.get("partialFilterExpression"));
+    }
+
+    @Test
+    void definitions_SearchIndexesPutEqualityBeforeSortBeforeRange() {
+        List<Index> indexes = TradeMongoIndexes.definitions();
+
+        assertEquals(new Document("bookId", 1).append("tradeId.tradeId", 1).append("tradeId.version", 1)
+                .append("maturityDate", 1), indexes.get(2).getIndexKeys());
+        assertEquals("counterPartyId", indexes.get(3).getIndexKeys().keySet().iterator().next());
+    }
+
+    @Test
+    void health_BeforeBuild_ReportsPending() {
+        TradeMongoIndexes indexes = new TradeMongoIndexes(mongoTemplate, true);
+
+        Health health = indexes.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(TradeMongoIndexes.State.PENDING, health.getDetails().get(TradeMongoIndexes.TRADE_ID_VERSION));
+    }
+
+    @Test
+    void ensureIndexes_AllBuilt_ReportsReady() {
+        TradeMongoIndexes indexes = new TradeMongoIndexes(mongoTemplate, true);
+
+        indexes.ensureIndexes();
+
+        verify(indexOps, times(TradeMongoIndexes.definitions().size())).ensureIndex(any(IndexDefinition.class));
+        assertEquals(TradeMongoIndexes.State.READY, indexes.getState(TradeMongoIndexes.TRADE_ID_VERSION));
+        assertEquals(TradeMongoIndexes.State.READY, indexes.getState(TradeMongoIndexes.UNEXPIRED_MATURITY));
+        assertEquals(Status.UP, indexes.health().getStatus());
+    }
+
+    @Test
+    void ensureIndexes_OneFails_ContinuesAndReportsDown() {
+        when(indexOps.ensureIndex(argThat(index ->
+                TradeMongoIndexes.TRADE_ID_VERSION.equals(index.getIndexOptions().get("name")))))
+                .thenThrow(new IllegalStateException("E11000 duplicate key"));
+        TradeMongoIndexes indexes = new TradeMongoIndexes(mongoTemplate, true);
+
+        indexes.ensureIndexes();
+
+        assertEquals(TradeMongoIndexes.State.FAILED, indexes.getState(TradeMongoIndexes.TRADE_ID_VERSION));
+        assertEquals(TradeMongoIndexes.State.READY, indexes.getState(TradeMongoIndexes.UNEXPIRED_MATURITY));
+        Health health = indexes.health();
+        assertEquals(Status.DOWN, health.getStatus());
+        assertEquals("E11000 duplicate key", health.getDetails().get(TradeMongoIndexes.TRADE_ID_VERSION + ".error"));
+    }
+
+    @Test
+    void ensureIndexes_Disabled_DoesNothing() {
+        TradeMongoIndexes indexes = new TradeMongoIndexes(mongoTemplate, false);
+
+        indexes.ensureIndexes();
+
+        verifyNoInteractions(mongoTemplate);
+        assertEquals(TradeMongoIndexes.State.DISABLED, indexes.getState(TradeMongoIndexes.TRADE_ID_VERSION));
+    }
+}
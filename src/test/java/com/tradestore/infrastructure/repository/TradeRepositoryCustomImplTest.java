@@ -0,0 +1,177 @@
+package com.tradestore.infrastructure.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.DeleteResult;
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeFilter;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.util.TestUtils;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeRepositoryCustomImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private TradeRepositoryCustomImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TradeRepositoryCustomImpl(mongoTemplate);
+    }
+
+    @Test
+    void bulkInsert_AllInserted_ReturnsNoFailures() {
+        // Arrange
+        List<Trade> trades = List.of(TestUtils.createValidTrade(), TestUtils.createExpiredTrade());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Trade.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(trades)).thenReturn(bulkOperations);
+
+        // Act
+        List<BulkInsertFailure> failures = repository.bulkInsert(trades);
+
+        // Assert
+        assertTrue(failures.isEmpty());
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void bulkInsert_DuplicateKey_ReturnsFailureForIndex() {
+        // Arrange
+        List<Trade> trades = List.of(TestUtils.createValidTrade(), TestUtils.createExpiredTrade());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Trade.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        BulkWriteError error = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1);
+        BulkOperationException exception = mock(BulkOperationException.class);
+        when(exception.getErrors()).thenReturn(List.of(error));
+        when(bulkOperations.execute()).thenThrow(exception);
+
+        // Act
+        List<BulkInsertFailure> failures = repository.bulkInsert(trades);
+
+        // Assert
+        assertEquals(1, failures.size());
+        assertEquals(1, failures.get(0).index());
+        assertTrue(failures.get(0).duplicateKey());
+    }
+
+    @Test
+    void findPageAfter_Cursor_QueriesPastCursorInKeyOrder() {
+        // Arrange
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(captor.capture(), eq(Trade.class))).thenReturn(List.of());
+
+        // Act
+        repository.findPageAfter(new TradeId("T1", 3), 10);
+
+        // Assert
+        Query query = captor.getValue();
+        assertEquals(10, query.getLimit());
+        assertEquals(1, query.getSortObject().getInteger("tradeId.tradeId"));
+        assertEquals(1, query.getSortObject().getInteger("tradeId.version"));
+        assertTrue(query.getQueryObject().containsKey("$or"));
+    }
+
+    @Test
+    void findLatest_QueriesHighestVersionOnly() {
+        // Arrange
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.findOne(captor.capture(), eq(Trade.class))).thenReturn(null);
+
+        // Act
+        assertTrue(repository.findLatest("T1").isEmpty());
+
+        // Assert
+        Query query = captor.getValue();
+        assertEquals(1, query.getLimit());
+        assertEquals("T1", query.getQueryObject().getString("tradeId.tradeId"));
+        assertEquals(-1, query.getSortObject().getInteger("tradeId.version"));
+    }
+
+    @Test
+    void findPageAfter_FirstPage_HasNoCriteria() {
+        // Arrange
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(captor.capture(), eq(Trade.class))).thenReturn(List.of());
+
+        // Act
+        repository.findPageAfter(null, 10);
+
+        // Assert
+        assertTrue(captor.getValue().getQueryObject().isEmpty());
+    }
+
+    @Test
+    void findPageMatching_FiltersInQuery() {
+        // Arrange
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(captor.capture(), eq(Trade.class))).thenReturn(List.of());
+        TradeFilter filter = TradeFilter.builder()
+                .counterPartyId("CP1")
+                .maturityFrom(LocalDate.of(2030, 3, 1))
+                .maturityTo(LocalDate.of(2030, 3, 31))
+                .build();
+
+        // Act
+        repository.findPageMatching(filter, null, 10);
+
+        // Assert
+        Document criteria = captor.getValue().getQueryObject();
+        assertEquals("CP1", criteria.get("counterPartyId"));
+        assertEquals(2, criteria.get("maturityDate", Document.class).size());
+        assertFalse(criteria.containsKey("bookId"));
+        assertFalse(criteria.containsKey("expired"));
+    }
+
+    @Test
+    void deleteByTradeIds_MatchesEmbeddedIdNotDocumentId() {
+        // Arrange
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.remove(captor.capture(), eq(Trade.class))).thenReturn(DeleteResult.acknowledged(2));
+
+        // Act
+        long deleted = repository.deleteByTradeIds(List.of(new TradeId("T1", 1), new TradeId("T2", 3)));
+
+        // Assert
+        assertEquals(2, deleted);
+        Document criteria = captor.getValue().getQueryObject();
+        assertFalse(criteria.containsKey("_id"));
+        List<Document> matches = criteria.getList("$or", Document.class);
+        assertEquals(new Document("tradeId.tradeId", "T1").append("tradeId.version", 1), matches.get(0));
+        assertEquals(new Document("tradeId.tradeId", "T2").append("tradeId.version", 3), matches.get(1));
+    }
+
+    @Test
+    void bulkInsert_EmptyList_SkipsDatabase() {
+        // Act
+        List<BulkInsertFailure> failures = repository.bulkInsert(List.of());
+
+        // Assert
+        assertTrue(failures.isEmpty());
+        verifyNoInteractions(mongoTemplate);
+    }
+}
@@ -0,0 +1,92 @@
+package com.tradestore.infrastructure.scheduler;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.archive.TradeArchive;
+import com.tradestore.infrastructure.store.TradeStore;
+import com.tradestore.infrastructure.store.TradeStores;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeArchiverTest {
+
+    private static final LocalDate CUTOFF = LocalDate.of(2024, 1, 1);
+
+    @Mock
+    private TradeStores stores;
+
+    @Mock
+    private TradeStore mongoStore;
+
+    @Mock
+    private TradeStore postgresStore;
+
+    @Mock
+    private TradeArchive archive;
+
+    private TradeArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(stores.primary()).thenReturn(mongoStore);
+        lenient().when(stores.written()).thenAnswer(invocation -> new ArrayList<>(List.of(mongoStore, postgresStore)));
+        archiver = new TradeArchiver(stores, archive, true, 90, 2, 50);
+    }
+
+    @Test
+    void archiveExpiredBefore_WritesSegmentsThenDeletesHotCopies() {
+        Trade t1 = trade("T1");
+        Trade t2 = trade("T2");
+        Trade t3 = trade("T3");
+        when(mongoStore.streamExpiredBefore(CUTOFF, 50)).thenReturn(Stream.of(t1, t2, t3));
+
+        long archived = archiver.archiveExpiredBefore(CUTOFF);
+
+        assertEquals(3, archived);
+        InOrder inOrder = inOrder(archive, postgresStore, mongoStore);
+        inOrder.verify(archive).archive(List.of(t1, t2));
+        inOrder.verify(postgresStore).deleteArchived(List.of(t1, t2));
+        inOrder.verify(mongoStore).deleteArchived(List.of(t1, t2));
+        inOrder.verify(archive).archive(List.of(t3));
+        inOrder.verify(postgresStore).deleteArchived(List.of(t3));
+        inOrder.verify(mongoStore).deleteArchived(List.of(t3));
+    }
+
+    @Test
+    void archiveExpiredBefore_ArchiveFails_KeepsHotCopies() {
+        when(mongoStore.streamExpiredBefore(CUTOFF, 50)).thenReturn(Stream.of(trade("T1")));
+        doThrow(new IllegalStateException("disk full")).when(archive).archive(anyList());
+
+        assertThrows(IllegalStateException.class, () -> archiver.archiveExpiredBefore(CUTOFF));
+        verifyNoInteractions(postgresStore);
+        verify(mongoStore, never()).deleteArchived(anyList());
+    }
+
+    @Test
+    void archiveExpiredTrades_Disabled_DoesNothing() {
+        archiver = new TradeArchiver(stores, archive, false, 90, 2, 50);
+
+        archiver.archiveExpiredTrades();
+
+        verifyNoInteractions(stores, archive);
+    }
+
+    private static Trade trade(String tradeId) {
+        TradeId id = new TradeId(tradeId, 1);
+        return Trade.builder().id(id.key()).tradeId(id).maturityDate(CUTOFF.minusDays(1)).expired(true).build();
+    }
+}
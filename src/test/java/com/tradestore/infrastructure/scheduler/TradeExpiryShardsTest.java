@@ -0,0 +1,124 @@
+package com.tradestore.infrastructure.scheduler;
+
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.entity.TradeShardLeaseEntity;
+import com.tradestore.infrastructure.repository.TradeShardLeaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeExpiryShardsTest {
+
+    @Mock
+    private TradeShardLeaseRepository leaseRepository;
+
+    private TradeExpiryShards shards;
+
+    @BeforeEach
+    void setUp() {
+        shards = new TradeExpiryShards(leaseRepository, new SimpleMeterRegistry(), true, 4, 30000);
+    }
+
+    @Test
+    void heartbeat_AloneInCluster_ClaimsEveryShard() {
+        when(leaseRepository.findAll()).thenReturn(List.of(free(0), free(1), free(2), free(3)));
+        when(leaseRepository.claim(anyInt(), anyString(), any(Instant.class), any(Instant.class))).thenReturn(1);
+
+        shards.heartbeat();
+
+        assertEquals(Set.of(0, 1, 2, 3), shards.getOwnedShards());
+        assertTrue(shards.owns(new TradeId("T1", 1)));
+    }
+
+    @Test
+    void heartbeat_FirstRun_CreatesMissingShardRows() {
+        when(leaseRepository.findAll()).thenReturn(List.of(free(0), free(1)));
+
+        shards.heartbeat();
+
+        verify(leaseRepository).insertIfMissing(2);
+        verify(leaseRepository).insertIfMissing(3);
+        verify(leaseRepository, never()).insertIfMissing(0);
+    }
+
+    @Test
+    void heartbeat_OtherLiveNode_ClaimsOnlyFairShare() {
+        when(leaseRepository.findAll()).thenReturn(List.of(
+                heldBy("other", 0), heldBy("other", 1), free(2), free(3)));
+        when(leaseRepository.claim(anyInt(), anyString(), any(Instant.class), any(Instant.class))).thenReturn(1);
+
+        shards.heartbeat();
+
+        assertEquals(Set.of(2, 3), shards.getOwnedShards());
+    }
+
+    @Test
+    void heartbeat_DeadNodeLeaseExpired_ReclaimsShard() {
+        TradeShardLeaseEntity stale = heldBy("dead", 0).toBuilder().leaseUntil(Instant.now().minusSeconds(60)).build();
+        when(leaseRepository.findAll()).thenReturn(List.of(stale));
+        when(leaseRepository.claim(eq(0), anyString(), any(Instant.class), any(Instant.class))).thenReturn(1);
+
+        shards.heartbeat();
+
+        assertEquals(Set.of(0), shards.getOwnedShards());
+    }
+
+    @Test
+    void heartbeat_HoldingMoreThanFairShare_ReleasesOne() {
+        String me = shards.getNodeId();
+        when(leaseRepository.findAll()).thenReturn(List.of(
+                heldBy(me, 0), heldBy(me, 1), heldBy(me, 2), heldBy("other", 3)));
+        when(leaseRepository.release(2, me)).thenReturn(1);
+
+        shards.heartbeat();
+
+        assertEquals(Set.of(0, 1), shards.getOwnedShards());
+    }
+
+    @Test
+    void heartbeat_DatabaseDown_DropsOwnership() {
+        when(leaseRepository.findAll()).thenThrow(new RuntimeException("down"));
+
+        shards.heartbeat();
+
+        assertTrue(shards.getOwnedShards().isEmpty());
+        assertFalse(shards.owns(new TradeId("T1", 1)));
+    }
+
+    @Test
+    void owns_Disabled_OwnsEverything() {
+        shards = new TradeExpiryShards(leaseRepository, new SimpleMeterRegistry(), false, 4, 30000);
+
+        shards.heartbeat();
+
+        assertTrue(shards.owns(new TradeId("T1", 1)));
+        verifyNoInteractions(leaseRepository);
+    }
+
+    private static TradeShardLeaseEntity free(int shard) {
+        return TradeShardLeaseEntity.builder().shard(shard).build();
+    }
+
+    private static TradeShardLeaseEntity heldBy(String owner, int shard) {
+        return TradeShardLeaseEntity.builder()
+                .shard(shard)
+                .owner(owner)
+                .leaseUntil(Instant.now().plusSeconds(30))
+                .build();
+    }
+}
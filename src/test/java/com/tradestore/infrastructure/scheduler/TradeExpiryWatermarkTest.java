@@ -0,0 +1,70 @@
+package com.tradestore.infrastructure.scheduler;
+
+import com.tradestore.infrastructure.entity.TradeExpiryWatermarkEntity;
+import com.tradestore.infrastructure.repository.TradeExpiryWatermarkRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeExpiryWatermarkTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 15);
+
+    @Mock
+    private TradeExpiryWatermarkRepository watermarkRepository;
+
+    @InjectMocks
+    private TradeExpiryWatermark watermark;
+
+    @Test
+    void lowerBound_ReturnsEarliestAcrossScopes() {
+        when(watermarkRepository.findAllById(List.of("shard-0", "shard-1"))).thenReturn(List.of(
+                new TradeExpiryWatermarkEntity("shard-0", DAY),
+                new TradeExpiryWatermarkEntity("shard-1", DAY.minusDays(2))));
+
+        assertEquals(DAY.minusDays(2), watermark.lowerBound(List.of("shard-0", "shard-1")));
+    }
+
+    @Test
+    void lowerBound_ScopeNeverProcessed_ReturnsNull() {
+        when(watermarkRepository.findAllById(List.of("shard-0", "shard-1")))
+                .thenReturn(List.of(new TradeExpiryWatermarkEntity("shard-0", DAY)));
+
+        assertNull(watermark.lowerBound(List.of("shard-0", "shard-1")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void advance_OnlyMovesForward() {
+        when(watermarkRepository.findAllById(List.of("shard-0", "shard-1", "shard-2"))).thenReturn(List.of(
+                new TradeExpiryWatermarkEntity("shard-0", DAY.plusDays(1)),
+                new TradeExpiryWatermarkEntity("shard-1", DAY.minusDays(1))));
+
+        watermark.advance(List.of("shard-0", "shard-1", "shard-2"), DAY);
+
+        verify(watermarkRepository).saveAll((Iterable<TradeExpiryWatermarkEntity>) argThat(updates ->
+                updates.equals(List.of(
+                        new TradeExpiryWatermarkEntity("shard-1", DAY),
+                        new TradeExpiryWatermarkEntity("shard-2", DAY)))));
+    }
+
+    @Test
+    void advance_AlreadyAhead_SkipsSave() {
+        when(watermarkRepository.findAllById(List.of("all")))
+                .thenReturn(List.of(new TradeExpiryWatermarkEntity("all", DAY)));
+
+        watermark.advance(List.of("all"), DAY);
+
+        verify(watermarkRepository, never()).saveAll(anyList());
+    }
+}
@@ -0,0 +1,171 @@
+package com.tradestore.infrastructure.scheduler;
+
+import com.tradestore.domain.exception.TradeException;
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.domain.service.TradeService;
+import com.tradestore.infrastructure.cache.TradeMaturityIndex;
+import com.tradestore.infrastructure.store.TradeStore;
+import com.tradestore.infrastructure.store.TradeStores;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeExpiryWheelTest {
+
+    @Mock
+    private TradeMaturityIndex maturityIndex;
+
+    @Mock
+    private TradeService tradeService;
+
+    @Mock
+    private TradeExpiryShards expiryShards;
+
+    private TradeExpiryWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TradeExpiryWheel(maturityIndex, tradeService, expiryShards);
+        ReflectionTestUtils.setField(wheel, "enabled", true);
+        ReflectionTestUtils.setField(wheel, "batchSize", 100);
+    }
+
+    @Test
+    void tick_DueTrades_ExpiresThem() {
+        List<TradeId> due = List.of(new TradeId("T1", 1));
+        when(maturityIndex.pollDue(eq(LocalDate.now()), eq(100), any())).thenReturn(due);
+
+        wheel.tick();
+
+        verify(tradeService).expireTrades(due);
+    }
+
+    @Test
+    void tick_NothingDue_SkipsService() {
+        when(maturityIndex.pollDue(any(LocalDate.class), anyInt(), any())).thenReturn(List.of());
+
+        wheel.tick();
+
+        verifyNoInteractions(tradeService);
+    }
+
+    @Test
+    void tick_ExpiryFails_ReturnsTradesToIndex() {
+        TradeId tradeId = new TradeId("T1", 1);
+        when(maturityIndex.pollDue(any(LocalDate.class), anyInt(), any())).thenReturn(List.of(tradeId));
+        when(tradeService.expireTrades(anyList())).thenThrow(new TradeException("down"));
+
+        wheel.tick();
+
+        verify(maturityIndex).add(eq(tradeId), any(LocalDate.class));
+    }
+
+    @Test
+    void tick_TradeWrittenOnOtherNode_ExpiredByShardOwner() {
+        // Arrange: node A owns shard 0, node B owns shard 1 and writes trade T1, which lands in shard 0
+        TradeId tradeId = new TradeId("T1", 1);
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Trade trade = Trade.builder().tradeId(tradeId).maturityDate(yesterday).build();
+        TradeStore store = mock(TradeStore.class);
+        TradeStores stores = mock(TradeStores.class);
+        when(stores.primary()).thenReturn(store);
+        when(store.findUnexpiredMaturityDatesBetween(null, LocalDate.now())).thenReturn(List.of(yesterday));
+        when(store.streamUnexpiredByMaturityDate(yesterday, 100)).thenAnswer(invocation -> Stream.of(trade));
+
+        TradeMaturityIndex indexA = new TradeMaturityIndex(stores, new SimpleMeterRegistry(), true, 100);
+        TradeMaturityIndex indexB = new TradeMaturityIndex(stores, new SimpleMeterRegistry(), true, 100);
+        TradeService serviceA = mock(TradeService.class);
+        TradeService serviceB = mock(TradeService.class);
+        TradeExpiryWheel wheelA = node(indexA, serviceA, shards(0));
+        TradeExpiryWheel wheelB = node(indexB, serviceB, shards(1));
+        indexB.add(tradeId, yesterday);
+
+        // Act
+        wheelB.tick();
+        wheelA.tick();
+
+        // Assert: B drops the trade without expiring it, A loads it from the store and expires it
+        verify(serviceB, never()).expireTrades(anyList());
+        assertEquals(0, indexB.size());
+        verify(serviceA).expireTrades(List.of(tradeId));
+        assertEquals(0, indexA.size());
+    }
+
+    @Test
+    void tick_ShardsAlreadyLoaded_SkipsStore() {
+        when(expiryShards.isEnabled()).thenReturn(true);
+        when(expiryShards.currentShards()).thenReturn(Set.of(0));
+        when(maturityIndex.pollDue(any(LocalDate.class), anyInt(), any())).thenReturn(List.of());
+
+        wheel.tick();
+        wheel.tick();
+
+        verify(maturityIndex, times(1)).loadDue(eq(LocalDate.now()), any());
+    }
+
+    @Test
+    void tick_NewShardClaimed_LoadsIt() {
+        when(expiryShards.isEnabled()).thenReturn(true);
+        when(expiryShards.currentShards()).thenReturn(Set.of(0), Set.of(0, 1));
+        when(maturityIndex.pollDue(any(LocalDate.class), anyInt(), any())).thenReturn(List.of());
+
+        wheel.tick();
+        wheel.tick();
+
+        verify(maturityIndex, times(2)).loadDue(eq(LocalDate.now()), any());
+    }
+
+    @Test
+    void tick_LeaseLost_SkipsPolling() {
+        when(expiryShards.isEnabled()).thenReturn(true);
+        when(expiryShards.currentShards()).thenReturn(Set.of());
+
+        wheel.tick();
+
+        verifyNoInteractions(maturityIndex, tradeService);
+    }
+
+    @Test
+    void tick_Disabled_DoesNothing() {
+        ReflectionTestUtils.setField(wheel, "enabled", false);
+
+        wheel.tick();
+
+        verifyNoInteractions(maturityIndex, tradeService);
+    }
+
+    private static TradeExpiryWheel node(TradeMaturityIndex index, TradeService service, TradeExpiryShards shards) {
+        TradeExpiryWheel node = new TradeExpiryWheel(index, service, shards);
+        ReflectionTestUtils.setField(node, "enabled", true);
+        ReflectionTestUtils.setField(node, "batchSize", 100);
+        return node;
+    }
+
+    // Every trade id starting with "T1" lands in shard 0, the rest in shard 1
+    private static TradeExpiryShards shards(int owned) {
+        TradeExpiryShards shards = mock(TradeExpiryShards.class);
+        when(shards.isEnabled()).thenReturn(true);
+        when(shards.currentShards()).thenReturn(Set.of(owned));
+        when(shards.shardOf(any(TradeId.class))).thenAnswer(
+                invocation -> invocation.<TradeId>getArgument(0).getTradeId().startsWith("T1") ? 0 : 1);
+        return shards;
+    }
+}
@@ -0,0 +1,137 @@
+package com.tradestore.infrastructure.scheduler;
+
+import com.tradestore.infrastructure.store.TradeStore;
+import com.tradestore.infrastructure.store.TradeStores;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradePartitionMaintenanceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 15);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TradeStores stores;
+
+    @Mock
+    private TradeStore mongoStore;
+
+    @Mock
+    private TradeStore postgresStore;
+
+    private TradePartitionMaintenance maintenance;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        lenient().when(jdbcTemplate.queryForObject(contains("pg_advisory_xact_lock"), eq(String.class), anyLong()))
+                .thenReturn("");
+        lenient().when(mongoStore.kind()).thenReturn(TradeStore.Kind.MONGO);
+        lenient().when(postgresStore.kind()).thenReturn(TradeStore.Kind.POSTGRES);
+        lenient().when(stores.written()).thenReturn(List.of(mongoStore, postgresStore));
+        maintenance = new TradePartitionMaintenance(jdbcTemplate, transactionTemplate, stores, true, 2, 12, "detach");
+    }
+
+    @Test
+    void createAhead_CreatesMissingMonthsAndMovesRowsFromDefault() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString()))
+                .thenAnswer(invocation -> "trades_p202403".equals(invocation.getArgument(2)));
+
+        List<YearMonth> created = maintenance.createAhead(TODAY);
+
+        assertEquals(List.of(YearMonth.of(2024, 4), YearMonth.of(2024, 5)), created);
+        verify(jdbcTemplate).execute("CREATE TABLE trades_p202404 (LIKE trades INCLUDING DEFAULTS)");
+        verify(jdbcTemplate).update(contains("DELETE FROM trades_default WHERE maturity_date >= '2024-04-01' "
+                + "AND maturity_date < '2024-05-01'"));
+        verify(jdbcTemplate).execute("ALTER TABLE trades ATTACH PARTITION trades_p202404 "
+                + "FOR VALUES FROM ('2024-04-01') TO ('2024-05-01')");
+        verify(jdbcTemplate, never()).execute(contains("trades_p202403"));
+        verify(jdbcTemplate, times(3)).queryForObject(contains("pg_advisory_xact_lock"), eq(String.class), anyLong());
+    }
+
+    @Test
+    void retireExpired_DetachesOnlyFullyExpiredPartitionsPastRetention() {
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class)))
+                .thenReturn(List.of("trades_default", "trades_p202301", "trades_p202302", "trades_p202303"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString())).thenReturn(true);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class)))
+                .thenAnswer(invocation -> ((String) invocation.getArgument(0)).contains("trades_p202302"));
+
+        List<YearMonth> retired = maintenance.retireExpired(TODAY);
+
+        assertEquals(List.of(YearMonth.of(2023, 1)), retired);
+        verify(jdbcTemplate).execute("ALTER TABLE trades DETACH PARTITION trades_p202301");
+        verify(jdbcTemplate).execute("ALTER TABLE trades_p202301 RENAME TO trades_archive_p202301");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE trades DETACH PARTITION trades_p202302");
+        verify(jdbcTemplate, never()).execute(contains("trades_p202303"));
+        verify(mongoStore).deleteMaturingBetween(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 2, 1));
+        verify(mongoStore, never()).deleteMaturingBetween(eq(LocalDate.of(2023, 2, 1)), any());
+        verify(postgresStore, never()).deleteMaturingBetween(any(), any());
+    }
+
+    @Test
+    void retireExpired_OtherStoreFails_LeavesPartitionAttached() {
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class))).thenReturn(List.of("trades_p202301"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString())).thenReturn(true);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(false);
+        when(mongoStore.deleteMaturingBetween(any(), any())).thenThrow(new IllegalStateException("mongo down"));
+
+        assertThrows(IllegalStateException.class, () -> maintenance.retireExpired(TODAY));
+
+        verify(jdbcTemplate, never()).execute(contains("DETACH PARTITION"));
+    }
+
+    @Test
+    void retireExpired_DropAction_DropsDetachedPartition() {
+        maintenance = new TradePartitionMaintenance(jdbcTemplate, transactionTemplate, stores, true, 2, 12, "drop");
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class))).thenReturn(List.of("trades_p202301"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString())).thenReturn(true);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(false);
+
+        maintenance.retireExpired(TODAY);
+
+        verify(jdbcTemplate).execute("DROP TABLE trades_p202301");
+    }
+
+    @Test
+    void maintain_Disabled_DoesNothing() {
+        maintenance = new TradePartitionMaintenance(jdbcTemplate, transactionTemplate, stores, false, 2, 12, "detach");
+
+        maintenance.maintain();
+
+        verifyNoInteractions(jdbcTemplate, transactionTemplate);
+    }
+
+    @Test
+    void monthOf_ParsesPartitionNames() {
+        assertEquals(YearMonth.of(2024, 11), TradePartitionMaintenance.monthOf("trades_p202411"));
+        assertNull(TradePartitionMaintenance.monthOf("trades_default"));
+        assertNull(TradePartitionMaintenance.monthOf("trades_pold"));
+    }
+}
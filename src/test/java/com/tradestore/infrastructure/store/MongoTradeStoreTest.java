@@ -0,0 +1,53 @@
+package com.tradestore.infrastructure.store;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.infrastructure.repository.TradeRepository;
+import com.tradestore.util.TestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MongoTradeStoreTest {
+
+    @Mock
+    private TradeRepository mongoRepository;
+
+    @InjectMocks
+    private MongoTradeStore store;
+
+    @Test
+    void findById_LegacyDocument_FallsBackToQuery() {
+        Trade trade = TestUtils.createValidTrade();
+        when(mongoRepository.findById("T1:1")).thenReturn(Optional.empty());
+        when(mongoRepository.findByTradeIdAndVersion("T1", 1)).thenReturn(Optional.of(trade));
+
+        assertEquals(Optional.of(trade), store.findById("T1", 1));
+    }
+
+    @Test
+    void expireAll_ExpiresByTradeId() {
+        Trade trade = TestUtils.createValidTrade();
+
+        store.expireAll(List.of(trade));
+
+        verify(mongoRepository).expireByTradeIds(List.of(trade.getTradeId()));
+    }
+
+    @Test
+    void deleteMaturingBetween_DeletesTheRange() {
+        when(mongoRepository.deleteByMaturityDateBetween(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 2, 1)))
+                .thenReturn(3L);
+
+        assertEquals(3, store.deleteMaturingBetween(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 2, 1)));
+    }
+}
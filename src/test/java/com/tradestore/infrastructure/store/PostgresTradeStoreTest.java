@@ -0,0 +1,70 @@
+package com.tradestore.infrastructure.store;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeId;
+import com.tradestore.infrastructure.entity.TradeEntity;
+import com.tradestore.infrastructure.mapper.TradeMapper;
+import com.tradestore.infrastructure.repository.BulkInsertFailure;
+import com.tradestore.infrastructure.repository.TradeJpaRepository;
+import com.tradestore.util.TestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostgresTradeStoreTest {
+
+    @Mock
+    private TradeJpaRepository jpaRepository;
+
+    @Mock
+    private TradeMapper tradeMapper;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private PostgresTradeStore store;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(tradeMapper.toEntity(any(Trade.class))).thenReturn(TestUtils.createValidTradeEntity());
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void insert_ExistingVersion_ThrowsDuplicateKey() {
+        when(jpaRepository.insertAllIfAbsent(anyList())).thenReturn(List.of());
+
+        assertThrows(DuplicateKeyException.class, () -> store.insert(TestUtils.createValidTrade()));
+    }
+
+    @Test
+    void insertAll_ReportsTradesThatWereNotInserted() {
+        Trade first = TestUtils.createValidTrade();
+        Trade second = first.toBuilder().tradeId(new TradeId("T3", 1)).build();
+        when(jpaRepository.insertAllIfAbsent(anyList())).thenReturn(List.of(new TradeId("T3", 1)));
+
+        List<BulkInsertFailure> failures = store.insertAll(List.of(first, second));
+
+        assertEquals(1, failures.size());
+        assertEquals(0, failures.get(0).index());
+        assertTrue(failures.get(0).duplicateKey());
+        verify(jpaRepository).insertAllIfAbsent(argThat((List<TradeEntity> entities) -> entities.size() == 2));
+        verify(transactionTemplate).execute(any());
+    }
+}
@@ -0,0 +1,94 @@
+package com.tradestore.infrastructure.store;
+
+import com.tradestore.domain.exception.TradeException;
+import com.tradestore.infrastructure.store.TradeStore.Kind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TradeStoresTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TradeStore mongoStore = store(Kind.MONGO);
+    private final TradeStore postgresStore = store(Kind.POSTGRES);
+
+    @Test
+    void singleStorePolicy_WritesPrimaryOnly() {
+        TradeStores stores = stores("mongo-only", "postgres", 5);
+        List<TradeStore> replicated = new ArrayList<>();
+
+        stores.replicate("trade T1:1", replicated::add);
+
+        assertSame(mongoStore, stores.primary());
+        assertTrue(stores.secondary().isEmpty());
+        assertEquals(List.of(mongoStore), stores.written());
+        assertNull(stores.fallback(Kind.MONGO));
+        assertTrue(replicated.isEmpty());
+    }
+
+    @Test
+    void dualWrite_PostgresPrimary_ReplicatesInline() {
+        TradeStores stores = stores("DUAL_WRITE", "postgres", 5);
+        List<TradeStore> replicated = new ArrayList<>();
+
+        stores.replicate("trade T1:1", replicated::add);
+
+        assertSame(postgresStore, stores.primary());
+        assertEquals(List.of(postgresStore, mongoStore), stores.written());
+        assertEquals(Kind.MONGO, stores.fallback(Kind.POSTGRES));
+        assertEquals(List.of(mongoStore), replicated);
+    }
+
+    @Test
+    void asyncSecondary_TransientFailure_RetriesUntilCopied() throws Exception {
+        TradeStores stores = stores("async-secondary", "mongo", 5);
+        AtomicInteger attempts = new AtomicInteger();
+
+        stores.replicate("trade T1:1", store -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("down");
+            }
+        });
+        stores.shutdown();
+
+        assertEquals(3, attempts.get());
+        assertEquals(0.0, meterRegistry.get("trade.replication.failures").counter().count());
+    }
+
+    @Test
+    void asyncSecondary_PersistentFailure_GivesUpAndCounts() throws Exception {
+        TradeStores stores = stores("async-secondary", "mongo", 2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        stores.replicate("trade T1:1", store -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("down");
+        });
+        stores.shutdown();
+
+        assertEquals(2, attempts.get());
+        assertEquals(1.0, meterRegistry.get("trade.replication.failures").counter().count());
+    }
+
+    @Test
+    void unknownPolicy_ThrowsException() {
+        assertThrows(TradeException.class, () -> stores("triple-write", "mongo", 5));
+    }
+
+    private TradeStores stores(String policy, String primary, int maxAttempts) {
+        return new TradeStores(List.of(mongoStore, postgresStore), meterRegistry, policy, primary, 10, maxAttempts, 1);
+    }
+
+    private static TradeStore store(Kind kind) {
+        TradeStore store = mock(TradeStore.class);
+        when(store.kind()).thenReturn(kind);
+        return store;
+    }
+}
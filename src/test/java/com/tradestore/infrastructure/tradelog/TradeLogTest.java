@@ -0,0 +1,212 @@
+package com.tradestore.infrastructure.tradelog;
+
+import com.tradestore.domain.model.Trade;
+import com.tradestore.domain.model.TradeId;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeLogTest {
+
+    @TempDir
+    Path directory;
+
+    private TradeLog tradeLog;
+
+    @AfterEach
+    void tearDown() {
+        if (tradeLog != null) {
+            tradeLog.close();
+        }
+    }
+
+    @Test
+    void append_ThenRead_ByVersionLatestAndHistory() {
+        tradeLog = open(4096);
+        tradeLog.append(trade("T1", 1, false));
+        tradeLog.append(trade("T1", 3, false));
+        tradeLog.append(trade("T1", 2, false));
+        tradeLog.append(trade("T2", 1, false));
+
+        assertEquals(trade("T1", 2, false), tradeLog.get("T1", 2).orElseThrow());
+        assertTrue(tradeLog.get("T1", 4).isEmpty());
+        assertEquals(3, tradeLog.getLatest("T1").orElseThrow().getTradeId().getVersion());
+        assertEquals(List.of(3, 2, 1), versions(tradeLog.getVersions("T1")));
+        assertTrue(tradeLog.getLatest("T9").isEmpty());
+        assertEquals(4, tradeLog.size());
+    }
+
+    @Test
+    void getVersions_SparseVersions_ListsOnlyStoredOnesAfterRestart() {
+        tradeLog = open(4096);
+        tradeLog.append(trade("T1", Integer.MAX_VALUE, false));
+        tradeLog.append(trade("T1", 7, false));
+        tradeLog.append(trade("T1", 1_000_000, false));
+        tradeLog.append(trade("T1", 7, true));
+        tradeLog.append(trade("T2", 5, false));
+
+        assertEquals(List.of(Integer.MAX_VALUE, 1_000_000, 7), versions(tradeLog.getVersions("T1")));
+        assertEquals(List.of(5), versions(tradeLog.getVersions("T2")));
+
+        tradeLog.close();
+        tradeLog = open(4096);
+        assertEquals(List.of(Integer.MAX_VALUE, 1_000_000, 7), versions(tradeLog.getVersions("T1")));
+        assertTrue(tradeLog.getVersions("T1").get(2).isExpired());
+    }
+
+    @Test
+    void appendIfAbsent_SameVersion_IsRejected() {
+        tradeLog = open(4096);
+
+        assertTrue(tradeLog.appendIfAbsent(trade("T1", 1, false)));
+        assertFalse(tradeLog.appendIfAbsent(trade("T1", 1, false)));
+        assertEquals(1, tradeLog.size());
+    }
+
+    @Test
+    void append_SameVersionAgain_ReplacesRecord() {
+        tradeLog = open(4096);
+        tradeLog.append(trade("T1", 1, false));
+
+        tradeLog.append(trade("T1", 1, true));
+
+        assertTrue(tradeLog.get("T1", 1).orElseThrow().isExpired());
+        assertTrue(tradeLog.getLatest("T1").orElseThrow().isExpired());
+        try (Stream<Trade> trades = tradeLog.stream()) {
+            assertEquals(1, trades.count());
+        }
+    }
+
+    @Test
+    void open_AfterRestart_ReplaysEverySegment() {
+        tradeLog = open(512);
+        for (int i = 0; i < 20; i++) {
+            tradeLog.append(trade("T" + i, 1, false));
+        }
+        tradeLog.append(trade("T0", 1, true));
+        tradeLog.close();
+
+        tradeLog = open(512);
+
+        assertEquals(20, tradeLog.size());
+        assertTrue(tradeLog.get("T0", 1).orElseThrow().isExpired());
+        assertEquals(trade("T19", 1, false), tradeLog.getLatest("T19").orElseThrow());
+    }
+
+    @Test
+    void open_TornRecordAtTail_IsDiscardedAndOverwritten() throws Exception {
+        tradeLog = open(4096);
+        tradeLog.append(trade("T1", 1, false));
+        tradeLog.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        TradeLogSegment reader = TradeLogSegment.open(1, segment, 4096);
+        reader.recover((position, payload) -> { });
+        int end = reader.writePosition();
+        reader.close();
+        // A length whose payload never made it to disk
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(end);
+            file.writeInt(100);
+        }
+
+        tradeLog = open(4096);
+        tradeLog.append(trade("T2", 1, false));
+        tradeLog.close();
+        tradeLog = open(4096);
+
+        assertEquals(2, tradeLog.size());
+        assertTrue(tradeLog.get("T2", 1).isPresent());
+    }
+
+    @Test
+    void compact_SupersededSegment_CopiesLiveRecordsAndDeletesIt() {
+        tradeLog = open(512);
+        for (int i = 0; i < 6; i++) {
+            tradeLog.append(trade("T" + i, 1, false));
+        }
+        // Rewriting the same keys several times leaves the first segment holding little but T0
+        for (int round = 0; round < 3; round++) {
+            for (int i = 1; i < 6; i++) {
+                tradeLog.append(trade("T" + i, 1, true));
+            }
+        }
+
+        int compacted = tradeLog.compact(0.5);
+
+        assertTrue(compacted > 0);
+        assertFalse(Files.exists(directory.resolve("trades-0000000001.log")));
+        assertEquals(6, tradeLog.size());
+        assertFalse(tradeLog.get("T0", 1).orElseThrow().isExpired());
+        assertTrue(tradeLog.get("T5", 1).orElseThrow().isExpired());
+
+        tradeLog.close();
+        tradeLog = open(512);
+        assertEquals(6, tradeLog.size());
+        assertFalse(tradeLog.get("T0", 1).orElseThrow().isExpired());
+    }
+
+    @Test
+    void compact_AfterRestart_KeepsLiveSegmentsAndRewritesSupersededOnes() throws Exception {
+        tradeLog = open(512);
+        for (int i = 0; i < 30; i++) {
+            tradeLog.append(trade("T" + i, 1, false));
+        }
+        tradeLog.close();
+        tradeLog = open(512);
+
+        long segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.count();
+        }
+        assertTrue(segments > 2);
+        assertEquals(0, tradeLog.compact(0.5));
+
+        // Superseding the first segment's trades makes it, and only it, worth rewriting
+        for (int i = 0; i < 10; i++) {
+            tradeLog.append(trade("T" + i, 1, true));
+        }
+        tradeLog.close();
+        tradeLog = open(512);
+
+        assertEquals(1, tradeLog.compact(0.5));
+        assertFalse(Files.exists(directory.resolve("trades-0000000001.log")));
+        assertEquals(30, tradeLog.size());
+        assertTrue(tradeLog.get("T0", 1).orElseThrow().isExpired());
+    }
+
+    private TradeLog open(int segmentBytes) {
+        TradeLog opened = new TradeLog(new SimpleMeterRegistry(), directory.toString(), segmentBytes);
+        opened.open();
+        return opened;
+    }
+
+    private static List<Integer> versions(List<Trade> trades) {
+        return trades.stream().map(trade -> trade.getTradeId().getVersion()).toList();
+    }
+
+    private static Trade trade(String tradeId, int version, boolean expired) {
+        TradeId id = new TradeId(tradeId, version);
+        return Trade.builder()
+                .id(id.key())
+                .tradeId(id)
+                .counterPartyId("CP-1")
+                .bookId("B1")
+                .maturityDate(LocalDate.of(2030, 6, 30))
+                .createdDate(LocalDate.of(2026, 1, 2))
+                .expired(expired)
+                .build();
+    }
+}